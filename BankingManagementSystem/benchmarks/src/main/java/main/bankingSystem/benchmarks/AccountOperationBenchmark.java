@@ -0,0 +1,75 @@
+package main.bankingSystem.benchmarks;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.OperationResult;
+import main.bankingSystem.management.BankManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Single-thread latency of the basic account operations and of account lookup.
+// Accounts are reopened every iteration so history growth from earlier iterations
+// does not carry over.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountOperationBenchmark {
+    private static final int LOOKUP_ACCOUNTS = 1 << 14;
+
+    private BankManager manager;
+    private BankAccount source;
+    private BankAccount target;
+    private String[] numbers;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        manager = new BankManager();
+        BankAccount[] accounts = Accounts.open(manager, LOOKUP_ACCOUNTS);
+        source = accounts[0];
+        target = accounts[1];
+        numbers = new String[LOOKUP_ACCOUNTS];
+        for (int i = 0; i < LOOKUP_ACCOUNTS; i++) {
+            numbers[i] = accounts[i].getAccountNumber();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        manager.shutdown();
+    }
+
+    @Benchmark
+    public OperationResult deposit() {
+        return source.deposit(100);
+    }
+
+    @Benchmark
+    public OperationResult withdraw() {
+        return source.withdraw(100);
+    }
+
+    @Benchmark
+    public OperationResult transfer() {
+        return source.transfer(target, 100);
+    }
+
+    @Benchmark
+    public BankAccount getAccount() {
+        return manager.getAccount(numbers[next++ & (LOOKUP_ACCOUNTS - 1)]);
+    }
+}
@@ -0,0 +1,39 @@
+package main.bankingSystem.benchmarks;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.util.Money;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+// Setup helpers shared by the suites. Account creation and reports print to the
+// console, which would swamp JMH's output, so that happens with System.out discarded.
+final class Accounts {
+    // Large enough that no benchmark runs an account down to its minimum balance
+    static final long OPENING_BALANCE = Money.ofRupees(1_000_000_000L);
+
+    private Accounts() {
+    }
+
+    // Opens 'count' savings accounts and returns them in creation order
+    static BankAccount[] open(BankManager manager, int count) {
+        BankAccount[] accounts = new BankAccount[count];
+        PrintStream console = silenceConsole();
+        try {
+            for (int i = 0; i < count; i++) {
+                accounts[i] = manager.getAccount(manager.createSavingsAccount("Holder " + i, OPENING_BALANCE));
+            }
+        } finally {
+            System.setOut(console);
+        }
+        return accounts;
+    }
+
+    // Returns the stream to restore
+    static PrintStream silenceConsole() {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return console;
+    }
+}
@@ -0,0 +1,76 @@
+package main.bankingSystem.benchmarks;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.OperationResult;
+import main.bankingSystem.management.BankManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Dashboard-style readers polling one account's balance while a writer deposits into
+// it: lock-free getBalance() against reading under the account monitor. Each group
+// reports reader and writer throughput separately; run with -tg to vary the split.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class BalanceReadBenchmark {
+    private BankManager manager;
+    private BankAccount account;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        manager = new BankManager();
+        account = Accounts.open(manager, 1)[0];
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        manager.shutdown();
+    }
+
+    @Benchmark
+    @Group("optimistic")
+    @GroupThreads(3)
+    public long optimisticRead() {
+        return account.getBalance();
+    }
+
+    @Benchmark
+    @Group("optimistic")
+    @GroupThreads(1)
+    public OperationResult optimisticWriter() {
+        return account.deposit(100);
+    }
+
+    @Benchmark
+    @Group("monitor")
+    @GroupThreads(3)
+    public long monitorRead() {
+        synchronized (account) {
+            return account.getBalance();
+        }
+    }
+
+    @Benchmark
+    @Group("monitor")
+    @GroupThreads(1)
+    public OperationResult monitorWriter() {
+        return account.deposit(100);
+    }
+}
@@ -0,0 +1,56 @@
+package main.bankingSystem.benchmarks;
+
+import main.bankingSystem.management.BankManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+// generateBankReport at 10k and 1M accounts. The plain report reads the running
+// aggregates; with verify it also rescans every account to cross-check them. The
+// report text is discarded.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class BankReportBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int accountCount;
+
+    @Param({"false", "true"})
+    public boolean verify;
+
+    private BankManager manager;
+    private PrintStream console;
+
+    @Setup
+    public void setUp() {
+        manager = new BankManager();
+        Accounts.open(manager, accountCount);
+        console = Accounts.silenceConsole();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public void generateBankReport() {
+        manager.generateBankReport(verify);
+    }
+}
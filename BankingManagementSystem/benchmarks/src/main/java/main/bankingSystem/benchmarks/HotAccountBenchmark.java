@@ -0,0 +1,69 @@
+package main.bankingSystem.benchmarks;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.OperationResult;
+import main.bankingSystem.management.BankManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Contended throughput when every thread hits the same few accounts, e.g. a merchant
+// or payroll account. With hotAccounts = 2 all threads fight over one pair of monitors.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class HotAccountBenchmark {
+
+    @Param({"2", "16"})
+    public int hotAccounts;
+
+    private BankManager manager;
+    private BankAccount[] accounts;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        manager = new BankManager();
+        accounts = Accounts.open(manager, hotAccounts);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        manager.shutdown();
+    }
+
+    @Benchmark
+    public OperationResult deposit() {
+        return accounts[ThreadLocalRandom.current().nextInt(hotAccounts)].deposit(100);
+    }
+
+    @Benchmark
+    public OperationResult withdraw() {
+        return accounts[ThreadLocalRandom.current().nextInt(hotAccounts)].withdraw(100);
+    }
+
+    @Benchmark
+    public OperationResult transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(hotAccounts);
+        int to = (from + 1 + random.nextInt(hotAccounts - 1)) % hotAccounts;
+        return accounts[from].transfer(accounts[to], 100);
+    }
+}
@@ -0,0 +1,136 @@
+package main.bankingSystem.benchmarks;
+
+import main.bankingSystem.util.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// The old double-based money path against the long paise path: one deposit with and
+// without formatting its message, and an interest credit and a balance total across
+// every account (those two report the time for the whole array).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyArithmeticBenchmark {
+    private static final int AMOUNTS = 1 << 16;
+
+    @Param({"1000", "1000000"})
+    public int accounts;
+
+    private double[] doubleBalances;
+    private long[] longBalances;
+    private double[] doubleCredited;
+    private long[] longCredited;
+    private final long[] amounts = new long[AMOUNTS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        doubleBalances = new double[accounts];
+        longBalances = new long[accounts];
+        doubleCredited = new double[accounts];
+        longCredited = new long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            longBalances[i] = Money.ofRupees(1000) + random.nextLong(10_000_000);
+            doubleBalances[i] = longBalances[i] / 100.0;
+        }
+        for (int i = 0; i < AMOUNTS; i++) {
+            amounts[i] = 1 + random.nextInt(1_000_000);
+        }
+    }
+
+    @Benchmark
+    public String depositAndFormatDouble() {
+        int i = next++;
+        double amount = amounts[i & (AMOUNTS - 1)] / 100.0;
+        doubleBalances[Integer.remainderUnsigned(i, accounts)] += amount;
+        return String.format("%.2f", amount);
+    }
+
+    @Benchmark
+    public String depositAndFormatLong() {
+        int i = next++;
+        long amount = amounts[i & (AMOUNTS - 1)];
+        longBalances[Integer.remainderUnsigned(i, accounts)] += amount;
+        return Money.format(amount);
+    }
+
+    // Withdraws unless that would take the balance under ₹1000, so balances stay bounded
+    @Benchmark
+    public double arithmeticDouble() {
+        int i = next++;
+        int account = Integer.remainderUnsigned(i, accounts);
+        double amount = amounts[i & (AMOUNTS - 1)] / 100.0;
+        if (doubleBalances[account] - amount >= 1000.0) {
+            doubleBalances[account] -= amount;
+        } else {
+            doubleBalances[account] += amount;
+        }
+        return doubleBalances[account];
+    }
+
+    @Benchmark
+    public long arithmeticLong() {
+        int i = next++;
+        int account = Integer.remainderUnsigned(i, accounts);
+        long amount = amounts[i & (AMOUNTS - 1)];
+        if (longBalances[account] - amount >= 1000_00L) {
+            longBalances[account] -= amount;
+        } else {
+            longBalances[account] += amount;
+        }
+        return longBalances[account];
+    }
+
+    // 4.5% credited into a separate array, so repeated runs do not compound
+    @Benchmark
+    public double[] interestDouble() {
+        for (int i = 0; i < accounts; i++) {
+            double interest = doubleBalances[i] * (4.5 / 100);
+            doubleCredited[i] = interest > 0 ? doubleBalances[i] + interest : doubleBalances[i];
+        }
+        return doubleCredited;
+    }
+
+    @Benchmark
+    public long[] interestLong() {
+        for (int i = 0; i < accounts; i++) {
+            long interest = Money.percentOf(longBalances[i], 450);
+            longCredited[i] = interest > 0 ? longBalances[i] + interest : longBalances[i];
+        }
+        return longCredited;
+    }
+
+    @Benchmark
+    public double sumDouble() {
+        double total = 0;
+        for (double balance : doubleBalances) {
+            total += balance;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long sumLong() {
+        long total = 0;
+        for (long balance : longBalances) {
+            total += balance;
+        }
+        return total;
+    }
+}
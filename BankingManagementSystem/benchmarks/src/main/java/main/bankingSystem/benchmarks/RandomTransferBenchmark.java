@@ -0,0 +1,73 @@
+package main.bankingSystem.benchmarks;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.OperationResult;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.management.TransferRequest;
+import main.bankingSystem.management.TransferResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Transfers between uniformly random pairs of N accounts from several threads, one at a
+// time through BankAccount.transfer and in batches through BankManager.submitTransfers.
+// Throughput is per transfer leg in both cases.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Threads(4)
+@State(Scope.Benchmark)
+public class RandomTransferBenchmark {
+    private static final int BATCH = 1000;
+
+    @Param({"1000", "100000"})
+    public int accountCount;
+
+    private BankManager manager;
+    private BankAccount[] accounts;
+
+    @Setup
+    public void setUp() {
+        manager = new BankManager();
+        accounts = Accounts.open(manager, accountCount);
+    }
+
+    @Benchmark
+    public OperationResult transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accountCount);
+        int to = (from + 1 + random.nextInt(accountCount - 1)) % accountCount;
+        return accounts[from].transfer(accounts[to], 1 + random.nextInt(10_000));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<TransferResult> submitTransfers() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<TransferRequest> requests = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            int from = random.nextInt(accountCount);
+            int to = (from + 1 + random.nextInt(accountCount - 1)) % accountCount;
+            requests.add(new TransferRequest(accounts[from].getAccountNumber(), accounts[to].getAccountNumber(),
+                    1 + random.nextInt(10_000)));
+        }
+        return manager.submitTransfers(requests);
+    }
+}
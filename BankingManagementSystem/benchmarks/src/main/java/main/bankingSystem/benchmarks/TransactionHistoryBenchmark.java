@@ -0,0 +1,79 @@
+package main.bankingSystem.benchmarks;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.transactions.Transaction;
+import main.bankingSystem.transactions.TransactionPage;
+import main.bankingSystem.transactions.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// History retrieval on one account as its history grows: the full list (what the
+// statement menu used to load) against the paged queries.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionHistoryBenchmark {
+    private static final int PAGE = 20;
+
+    @Param({"10", "1000", "100000"})
+    public int historyLength;
+
+    private BankAccount account;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @Setup
+    public void setUp() {
+        BankAccount[] accounts = Accounts.open(new BankManager(), 2);
+        account = accounts[0];
+        from = LocalDateTime.now().minusMinutes(1);
+        // Opening deposit plus a mix of types so the per-type index has work to do
+        for (int i = 1; i < historyLength; i++) {
+            if (i % 3 == 0) {
+                account.withdraw(100);
+            } else if (i % 3 == 1) {
+                account.deposit(100);
+            } else {
+                account.transfer(accounts[1], 100);
+            }
+        }
+        to = LocalDateTime.now().plusMinutes(1);
+    }
+
+    @Benchmark
+    public List<Transaction> fullHistory() {
+        return account.getTransactionHistory();
+    }
+
+    @Benchmark
+    public TransactionPage recentPage() {
+        return account.getRecentTransactions(PAGE);
+    }
+
+    @Benchmark
+    public TransactionPage timeRangePage() {
+        return account.getTransactionsBetween(from, to, TransactionPage.FIRST, PAGE);
+    }
+
+    @Benchmark
+    public TransactionPage withdrawalsPage() {
+        return account.getTransactionsOfType(TransactionType.WITHDRAWAL, TransactionPage.FIRST, PAGE);
+    }
+}
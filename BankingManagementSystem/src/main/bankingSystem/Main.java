@@ -1,16 +1,60 @@
 package main.bankingSystem;
 
+import main.bankingSystem.accounts.AccountEvent;
 import main.bankingSystem.accounts.BankAccount;
 import main.bankingSystem.accounts.FixedDepositAccount;
+import main.bankingSystem.accounts.OperationResult;
+import main.bankingSystem.http.BankHttpServer;
+import main.bankingSystem.management.BalanceIndex;
 import main.bankingSystem.management.BankManager;
+import main.bankingSystem.management.InterestRunReport;
+import main.bankingSystem.management.RecoveryReport;
+import main.bankingSystem.management.StatementExporter;
+import main.bankingSystem.metrics.BankMetrics;
+import main.bankingSystem.persistence.DurabilityMode;
+import main.bankingSystem.persistence.TransactionJournal;
+import main.bankingSystem.transactions.HistoryArchive;
+import main.bankingSystem.transactions.TransactionIdGenerator;
+import main.bankingSystem.transactions.TransactionPage;
+import main.bankingSystem.transactions.TransactionType;
+import main.bankingSystem.util.AsyncEventLog;
+import main.bankingSystem.util.Money;
 
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
 
 public class Main {
     private static final Scanner scanner = new Scanner(System.in);
-    private static final BankManager bankManager = new BankManager();
+    private static final int QUERY_LIMIT = 100;
+    private static BankManager bankManager;
+    // Account outcomes are rendered off the account locks by the event log thread
+    private static final AsyncEventLog<AccountEvent> events = new AsyncEventLog<>(4096, Main::render);
 
     public static void main(String[] args) {
+        BankAccount.setEventSink(events::publish);
+        TransactionJournal journal = openJournal();
+        if (journal != null) {
+            TransactionIdGenerator.getDefault().advancePast(journal.getMaxTransactionId());
+        }
+        Path snapshot = Path.of(System.getProperty("bank.snapshot", "bank-snapshot.dat"));
+        HistoryArchive archive = openHistoryArchive();
+        bankManager = openBank(journal, snapshot, archive);
+        if (archive != null) {
+            bankManager.startHistoryArchive(archive, TimeUnit.HOURS.toSeconds(1));
+        }
+        BankMetrics metrics = installMetrics();
+        BankHttpServer http = startHttp();
+
         System.out.println("\n" + "=".repeat(60));
         System.out.println("     🏦 WELCOME TO PROFESSIONAL BANKING SYSTEM 🏦");
         System.out.println("=".repeat(60));
@@ -32,14 +76,157 @@ public class Main {
                 case 9 -> accountManagementMenu();
                 case 10 -> bankManager.displayAllAccounts();
                 case 11 -> bankManager.generateBankReport();
+                case 12 -> postEndOfDayInterest();
+                case 13 -> findCustomer();
+                case 14 -> balanceQueryMenu();
+                case 15 -> exportStatements();
                 case 0 -> {
                     System.out.println("\n✅ Thank you for using our banking system!");
                     running = false;
                 }
                 default -> System.out.println("❌ Invalid choice! Please try again.");
             }
+            events.awaitDrained();
         }
         scanner.close();
+        if (http != null) {
+            http.stop(5);
+        }
+        if (metrics != null) {
+            metrics.close();
+        }
+        bankManager.shutdown();
+        if (journal != null) {
+            writeSnapshot(snapshot);
+        }
+        events.close();
+        closeJournal(journal);
+        if (archive != null) {
+            try {
+                archive.close();
+            } catch (IOException e) {
+                System.out.println("❌ Could not close history archive: " + e.getMessage());
+            }
+        }
+    }
+
+    // Restores accounts from the snapshot and journal, then keeps writing snapshots every
+    // -Dbank.snapshot.interval seconds (default 300) so the next restart replays less.
+    // The snapshot's archived history is read from 'archive'; without it, or if it does
+    // not match, the journal alone rebuilds every account with its full history.
+    private static BankManager openBank(TransactionJournal journal, Path snapshot, HistoryArchive archive) {
+        if (journal == null) {
+            return new BankManager();
+        }
+        BankManager manager;
+        try {
+            manager = BankManager.recover(journal, snapshot, archive);
+        } catch (IOException e) {
+            System.out.println("❌ Could not restore accounts: " + e.getMessage());
+            System.out.println("   Continuing with the journal only.");
+            try {
+                manager = BankManager.recover(journal, null, archive);
+            } catch (IOException again) {
+                System.out.println("❌ Could not replay transaction journal: " + again.getMessage());
+                manager = new BankManager(journal);
+            }
+        }
+        RecoveryReport recovery = manager.getLastRecovery();
+        if (recovery != null && recovery.accounts() > 0) {
+            System.out.printf("✅ Restored %d accounts in %.0f ms (%d journal records replayed)%n",
+                    recovery.accounts(), recovery.totalNanos() / 1e6, recovery.replayedRecords());
+        }
+        if (recovery != null && recovery.refundedTransfers() > 0) {
+            System.out.println("✅ Refunded " + recovery.refundedTransfers()
+                    + " transfers interrupted between debit and credit");
+        }
+        manager.startSnapshots(snapshot, Long.getLong("bank.snapshot.interval", 300));
+        return manager;
+    }
+
+    // -Dbank.history.archive=<file> keeps only each account's newest
+    // -Dbank.history.hot.rows transactions (default 1000), and none older than
+    // -Dbank.history.hot.days (default 90, 0 for no age limit), on heap; older history
+    // is read back from the file when a view reaches it. The file is kept across restarts
+    // for the snapshots that refer to it.
+    private static HistoryArchive openHistoryArchive() {
+        String file = System.getProperty("bank.history.archive");
+        if (file == null) {
+            return null;
+        }
+        try {
+            return HistoryArchive.open(Path.of(file),
+                    Integer.getInteger("bank.history.hot.rows", 1000), Long.getLong("bank.history.hot.days", 90),
+                    TimeUnit.DAYS);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("❌ Could not open history archive: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Metrics are always available over JMX; -Dbank.metrics.dump=<file> also appends a
+    // text dump every -Dbank.metrics.interval seconds (default 60)
+    private static BankMetrics installMetrics() {
+        try {
+            BankMetrics metrics = BankMetrics.install(bankManager);
+            String dump = System.getProperty("bank.metrics.dump");
+            if (dump != null) {
+                metrics.startDump(Path.of(dump), Long.getLong("bank.metrics.interval", 60));
+            }
+            return metrics;
+        } catch (JMException e) {
+            System.out.println("❌ Could not register metrics: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // -Dbank.http.port=<port> also serves the bank over HTTP (see BankHttpServer)
+    private static BankHttpServer startHttp() {
+        Integer port = Integer.getInteger("bank.http.port");
+        if (port == null) {
+            return null;
+        }
+        try {
+            BankHttpServer http = BankHttpServer.start(bankManager, port);
+            System.out.println("✅ HTTP API listening on port " + http.getPort());
+            return http;
+        } catch (IOException e) {
+            System.out.println("❌ Could not start HTTP API: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeSnapshot(Path snapshot) {
+        try {
+            bankManager.writeSnapshot(snapshot);
+        } catch (IOException e) {
+            System.out.println("❌ Could not write snapshot: " + e.getMessage());
+        }
+    }
+
+    // Journal location and durability can be changed with -Dbank.journal=<file>
+    // and -Dbank.journal.mode=PER_OPERATION|GROUP_COMMIT|ASYNC
+    private static TransactionJournal openJournal() {
+        Path path = Path.of(System.getProperty("bank.journal", "bank-journal.dat"));
+        try {
+            DurabilityMode mode = DurabilityMode.valueOf(
+                    System.getProperty("bank.journal.mode", DurabilityMode.GROUP_COMMIT.name()));
+            return TransactionJournal.open(path, mode);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("❌ Could not open transaction journal: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void closeJournal(TransactionJournal journal) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("❌ Could not close transaction journal: " + e.getMessage());
+        }
     }
 
     private static void displayMainMenu() {
@@ -57,6 +244,10 @@ public class Main {
         System.out.println("9.  Account Management");
         System.out.println("10. View All Accounts");
         System.out.println("11. Generate Bank Report");
+        System.out.println("12. Post End-of-Day Interest");
+        System.out.println("13. Find Customer");
+        System.out.println("14. Balance Queries");
+        System.out.println("15. Export Statements");
         System.out.println("0.  Exit");
         System.out.println("=".repeat(60));
     }
@@ -70,21 +261,28 @@ public class Main {
 
         System.out.print("Enter account holder name: ");
         String name = scanner.nextLine();
-        double initialDeposit = getDoubleInput("Enter initial deposit: ₹");
+        long initialDeposit = getAmountInput("Enter initial deposit: ₹");
 
         try {
-            switch (choice) {
+            String accountNumber = switch (choice) {
                 case 1 -> bankManager.createSavingsAccount(name, initialDeposit);
                 case 2 -> {
-                    double overdraft = getDoubleInput("Enter overdraft limit: ₹");
-                    bankManager.createCurrentAccount(name, initialDeposit, overdraft);
+                    long overdraft = getAmountInput("Enter overdraft limit: ₹");
+                    yield bankManager.createCurrentAccount(name, initialDeposit, overdraft);
                 }
                 case 3 -> {
                     int tenure = getIntInput("Enter tenure (months): ");
-                    bankManager.createFixedDepositAccount(name, initialDeposit, tenure);
+                    yield bankManager.createFixedDepositAccount(name, initialDeposit, tenure);
                 }
-                default -> System.out.println("❌ Invalid account type!");
+                default -> null;
+            };
+            if (accountNumber == null) {
+                System.out.println("❌ Invalid account type!");
+                return;
             }
+            System.out.println("✅ " + bankManager.findAccount(accountNumber).getAccountType()
+                    + " created successfully!");
+            System.out.println("Account Number: " + accountNumber);
         } catch (IllegalArgumentException e) {
             System.out.println("❌ " + e.getMessage());
         }
@@ -96,9 +294,10 @@ public class Main {
         BankAccount account = bankManager.getAccount(accNum);
 
         if (account != null) {
-            double amount = getDoubleInput("Enter deposit amount: ₹");
+            long amount = getAmountInput("Enter deposit amount: ₹");
             account.deposit(amount);
-            System.out.println("New Balance: ₹" + String.format("%.2f", account.getBalance()));
+            events.awaitDrained();
+            System.out.println("New Balance: ₹" + Money.format(account.getBalance()));
         }
     }
 
@@ -108,9 +307,10 @@ public class Main {
         BankAccount account = bankManager.getAccount(accNum);
 
         if (account != null) {
-            double amount = getDoubleInput("Enter withdrawal amount: ₹");
+            long amount = getAmountInput("Enter withdrawal amount: ₹");
             account.withdraw(amount);
-            System.out.println("New Balance: ₹" + String.format("%.2f", account.getBalance()));
+            events.awaitDrained();
+            System.out.println("New Balance: ₹" + Money.format(account.getBalance()));
         }
     }
 
@@ -125,7 +325,7 @@ public class Main {
             BankAccount destAccount = bankManager.getAccount(destAccNum);
 
             if (destAccount != null) {
-                double amount = getDoubleInput("Enter transfer amount: ₹");
+                long amount = getAmountInput("Enter transfer amount: ₹");
                 srcAccount.transfer(destAccount, amount);
             }
         }
@@ -138,7 +338,86 @@ public class Main {
 
         if (account != null) {
             System.out.println("\n💰 Current Balance: ₹" +
-                    String.format("%.2f", account.getBalance()));
+                    Money.format(account.getBalance()));
+        }
+    }
+
+    private static void findCustomer() {
+        System.out.print("\nEnter customer name or the start of it: ");
+        bankManager.displayCustomer(scanner.nextLine());
+    }
+
+    private static void balanceQueryMenu() {
+        System.out.println("\n--- Balance Queries ---");
+        System.out.println("1. Top balances");
+        System.out.println("2. Accounts below minimum balance");
+        System.out.println("3. Accounts with balance in a range");
+        int choice = getIntInput("Select option: ");
+        BalanceIndex balances = bankManager.getBalances();
+
+        switch (choice) {
+            case 1 -> {
+                int count = getIntInput("How many accounts: ");
+                bankManager.displayAccounts("TOP " + count + " BALANCES", balances.top(count));
+            }
+            case 2 -> bankManager.displayAccounts("BELOW MINIMUM BALANCE",
+                    balances.belowMinimum(QUERY_LIMIT));
+            case 3 -> {
+                long from = getAmountInput("Lowest balance: ₹");
+                long to = getAmountInput("Highest balance: ₹");
+                bankManager.displayAccounts("BALANCE ₹" + Money.format(from) + " - ₹" + Money.format(to),
+                        balances.between(from, to, QUERY_LIMIT));
+            }
+            default -> System.out.println("❌ Invalid option!");
+        }
+    }
+
+    private static void exportStatements() {
+        System.out.print("\nEnter account number (blank for all accounts): ");
+        String accNum = scanner.nextLine().trim();
+        BankAccount account = null;
+        if (!accNum.isEmpty()) {
+            account = bankManager.getAccount(accNum);
+            if (account == null) {
+                return;
+            }
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        long from = getDateInput("From date (yyyy-MM-dd): ").atStartOfDay(zone).toInstant().toEpochMilli();
+        long to = getDateInput("To date (yyyy-MM-dd): ").plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        System.out.println("1. CSV");
+        System.out.println("2. Fixed-width text");
+        StatementExporter.Format format;
+        switch (getIntInput("Select format: ")) {
+            case 1 -> format = StatementExporter.Format.CSV;
+            case 2 -> format = StatementExporter.Format.FIXED_WIDTH;
+            default -> {
+                System.out.println("❌ Invalid option!");
+                return;
+            }
+        }
+        System.out.print("Output file: ");
+        String fileName = scanner.nextLine().trim();
+        if (fileName.isEmpty()) {
+            System.out.println("❌ File name cannot be empty!");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            Path file = Path.of(fileName);
+            long rows;
+            if (account == null) {
+                rows = bankManager.exportStatements(file, format, from, to);
+            } else {
+                try (StatementExporter exporter = StatementExporter.open(file, format)) {
+                    rows = exporter.exportAccount(account, from, to);
+                }
+            }
+            System.out.printf("✅ Exported %,d transactions to %s in %.1f s%n", rows, file,
+                    (System.nanoTime() - start) / 1e9);
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("❌ Export failed: " + e.getMessage());
         }
     }
 
@@ -157,8 +436,54 @@ public class Main {
         String accNum = scanner.nextLine();
         BankAccount account = bankManager.getAccount(accNum);
 
-        if (account != null) {
-            account.displayTransactionHistory();
+        if (account == null) {
+            return;
+        }
+
+        System.out.println("1. Recent transactions");
+        System.out.println("2. Transactions of one type");
+        System.out.println("3. Transactions between two dates");
+        int choice = getIntInput("Select view: ");
+
+        IntFunction<TransactionPage> query;
+        switch (choice) {
+            case 1 -> query = cursor -> account.getTransactionsBefore(cursor, BankAccount.DEFAULT_PAGE_SIZE);
+            case 2 -> {
+                TransactionType[] types = TransactionType.values();
+                for (int i = 0; i < types.length; i++) {
+                    System.out.println((i + 1) + ". " + types[i]);
+                }
+                int typeChoice = getIntInput("Select type: ");
+                if (typeChoice < 1 || typeChoice > types.length) {
+                    System.out.println("❌ Invalid type!");
+                    return;
+                }
+                TransactionType type = types[typeChoice - 1];
+                query = cursor -> account.getTransactionsOfType(type, cursor, BankAccount.DEFAULT_PAGE_SIZE);
+            }
+            case 3 -> {
+                LocalDateTime from = getDateInput("From date (yyyy-MM-dd): ").atStartOfDay();
+                LocalDateTime to = getDateInput("To date (yyyy-MM-dd): ").plusDays(1).atStartOfDay();
+                query = cursor -> account.getTransactionsBetween(from, to, cursor, BankAccount.DEFAULT_PAGE_SIZE);
+            }
+            default -> {
+                System.out.println("❌ Invalid option!");
+                return;
+            }
+        }
+
+        int cursor = TransactionPage.FIRST;
+        while (true) {
+            TransactionPage page = query.apply(cursor);
+            account.displayTransactionHistory(page);
+            if (!page.hasMore()) {
+                break;
+            }
+            System.out.print("Show older transactions? (y/n): ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                break;
+            }
+            cursor = page.getNextCursor();
         }
     }
 
@@ -173,8 +498,31 @@ public class Main {
             } else {
                 account.calculateInterest();
             }
+            events.awaitDrained();
             System.out.println("New Balance: ₹" +
-                    String.format("%.2f", account.getBalance()));
+                    Money.format(account.getBalance()));
+        }
+    }
+
+    // Checkpoint location can be changed with -Dbank.interest.checkpoint=<file>
+    private static void postEndOfDayInterest() {
+        Path checkpoint = Path.of(System.getProperty("bank.interest.checkpoint", "interest-checkpoint.dat"));
+        try {
+            InterestRunReport report = bankManager.postInterest(LocalDate.now(), checkpoint,
+                    Runtime.getRuntime().availableProcessors());
+            if (report.alreadyComplete()) {
+                System.out.println("❌ Interest has already been posted for " + report.runDate());
+                return;
+            }
+            System.out.println("✅ Interest posted for " + report.runDate());
+            System.out.printf("Accounts processed : %,d (%,d credited)%n",
+                    report.accountsScanned(), report.accountsCredited());
+            if (report.partitionsSkipped() > 0) {
+                System.out.println("Resumed run, partitions already done: " + report.partitionsSkipped());
+            }
+            System.out.printf("Throughput         : %,.0f accounts/sec%n", report.accountsPerSecond());
+        } catch (IOException e) {
+            System.out.println("❌ Interest run failed: " + e.getMessage());
         }
     }
 
@@ -199,6 +547,50 @@ public class Main {
         }
     }
 
+    private static void render(AccountEvent event) {
+        BankAccount account = event.account();
+        OperationResult result = event.result();
+        String amount = Money.format(event.amount());
+        String message = switch (event.kind()) {
+            case DEPOSIT -> switch (result) {
+                case SUCCESS -> "✅ Successfully deposited ₹" + amount;
+                case INVALID_AMOUNT -> "❌ Deposit amount must be positive!";
+                default -> describeFailure(account, result);
+            };
+            case WITHDRAWAL -> switch (result) {
+                case SUCCESS -> "✅ Successfully withdrew ₹" + amount;
+                case INVALID_AMOUNT -> "❌ Withdrawal amount must be positive!";
+                case INSUFFICIENT_FUNDS -> "❌ Insufficient balance! Minimum balance: ₹"
+                        + Money.format(account.getMinimumBalance());
+                default -> describeFailure(account, result);
+            };
+            case TRANSFER -> switch (result) {
+                case SUCCESS -> "✅ Successfully transferred ₹" + amount + " to "
+                        + event.counterparty().getAccountNumber();
+                case INVALID_TARGET -> "❌ Cannot transfer to the same account!";
+                case INACTIVE -> "❌ Source account is inactive!";
+                case INVALID_AMOUNT -> "❌ Transfer amount must be positive!";
+                case INSUFFICIENT_FUNDS -> "❌ Insufficient balance for transfer!";
+                default -> describeFailure(account, result);
+            };
+            case INTEREST -> "✅ Interest credited: ₹" + amount;
+            case MATURED -> "✅ FD has matured!";
+            case CLOSED -> "✅ Account " + account.getAccountNumber() + " has been closed.";
+            case REACTIVATED -> "✅ Account " + account.getAccountNumber() + " has been reactivated.";
+        };
+        System.out.println(message);
+    }
+
+    private static String describeFailure(BankAccount account, OperationResult result) {
+        return switch (result) {
+            case INACTIVE -> "❌ Account is inactive!";
+            case PREMATURE_WITHDRAWAL -> "❌ Premature withdrawal not allowed! Maturity date: "
+                    + ((FixedDepositAccount) account).getMaturityDate()
+                            .format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+            default -> "❌ Operation failed: " + result;
+        };
+    }
+
     private static int getIntInput(String prompt) {
         while (true) {
             try {
@@ -211,17 +603,29 @@ public class Main {
         }
     }
 
-    private static double getDoubleInput(String prompt) {
+    private static LocalDate getDateInput(String prompt) {
+        while (true) {
+            try {
+                System.out.print(prompt);
+                return LocalDate.parse(scanner.nextLine().trim());
+            } catch (DateTimeParseException e) {
+                System.out.println("❌ Invalid date! Please use yyyy-MM-dd.");
+            }
+        }
+    }
+
+    // Reads a rupee amount and returns it in paise
+    private static long getAmountInput(String prompt) {
         while (true) {
             try {
                 System.out.print(prompt);
-                double value = Double.parseDouble(scanner.nextLine());
+                long value = Money.parse(scanner.nextLine());
                 if (value < 0) {
                     System.out.println("❌ Amount cannot be negative!");
                     continue;
                 }
                 return value;
-            } catch (NumberFormatException e) {
+            } catch (NumberFormatException | ArithmeticException e) {
                 System.out.println("❌ Invalid input! Please enter a valid amount.");
             }
         }
@@ -0,0 +1,91 @@
+package main.bankingSystem.accounts;
+
+import main.bankingSystem.transactions.TransactionType;
+
+// Money movements for an executor whose worker threads each own a set of accounts
+// (see PartitionedExecutor). They do the same checks and bookkeeping as the
+// BankAccount methods but never wait for the journal, so a worker can apply a batch
+// and sync once; the caller must not report a result before that sync.
+//
+// A transfer between two owners is split into legs: debit() on the source's worker,
+// then credit() on the target's worker, and refund() on the source's worker if the
+// credit is refused. Each leg locks only its own account, and money is in flight
+// between the legs. Every leg is journaled with the transfer's id, so recovery can
+// find a debit whose credit or refund never made it to the journal and refund it
+// (see BankManager.recover).
+public final class AccountCommands {
+    private AccountCommands() {
+    }
+
+    public static OperationResult deposit(BankAccount account, long amount) {
+        long start = System.nanoTime();
+        OperationResult result;
+        synchronized (account) {
+            result = account.depositLocked(amount);
+        }
+        BankAccount.recordOperation(OperationRecorder.Operation.DEPOSIT, result, amount, 0, start);
+        account.publishEvent(AccountEvent.Kind.DEPOSIT, result, amount, null);
+        return result;
+    }
+
+    public static OperationResult withdraw(BankAccount account, long amount) {
+        long start = System.nanoTime();
+        OperationResult result;
+        synchronized (account) {
+            result = account.withdrawLocked(amount);
+        }
+        BankAccount.recordOperation(OperationRecorder.Operation.WITHDRAWAL, result, amount, 0, start);
+        account.publishEvent(AccountEvent.Kind.WITHDRAWAL, result, amount, null);
+        return result;
+    }
+
+    // First leg of a transfer; on SUCCESS the amount has left the source. transferId
+    // is unique to the transfer, taken from TransactionIdGenerator.
+    public static OperationResult debit(BankAccount source, BankAccount target, long amount, long transferId) {
+        if (source == target) {
+            return OperationResult.INVALID_TARGET;
+        }
+        synchronized (source) {
+            if (!source.isActive()) {
+                return OperationResult.INACTIVE;
+            }
+            if (amount <= 0) {
+                return OperationResult.INVALID_AMOUNT;
+            }
+            if (source.getBalance() - amount < source.getMinimumBalance()) {
+                return OperationResult.INSUFFICIENT_FUNDS;
+            }
+            source.changeBalance(-amount);
+            source.addTransaction(TransactionType.TRANSFER_OUT, amount, target.transferToCode(), target, transferId);
+        }
+        return OperationResult.SUCCESS;
+    }
+
+    // Second leg; a closed target refuses the money and the source must be refunded
+    public static OperationResult credit(BankAccount target, BankAccount source, long amount, long transferId) {
+        synchronized (target) {
+            if (!target.isActive()) {
+                return OperationResult.INACTIVE;
+            }
+            target.changeBalance(amount);
+            target.addTransaction(TransactionType.TRANSFER_IN, amount, source.transferFromCode(), source, transferId);
+        }
+        return OperationResult.SUCCESS;
+    }
+
+    // Returns a refused transfer to its source, even if the source has since been closed
+    public static void refund(BankAccount source, long amount, long transferId) {
+        synchronized (source) {
+            source.changeBalance(amount);
+            source.addTransaction(TransactionType.TRANSFER_IN, amount, BankAccount.TRANSFER_REFUNDED, null,
+                    transferId);
+        }
+    }
+
+    // Reports a finished transfer; startNanos is when it was submitted
+    public static void transferCompleted(BankAccount source, BankAccount target, OperationResult result, long amount,
+            long startNanos) {
+        BankAccount.recordOperation(OperationRecorder.Operation.TRANSFER, result, amount, 0, startNanos);
+        source.publishEvent(AccountEvent.Kind.TRANSFER, result, amount, target);
+    }
+}
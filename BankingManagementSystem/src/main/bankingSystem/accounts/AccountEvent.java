@@ -0,0 +1,17 @@
+package main.bankingSystem.accounts;
+
+// Something that happened to an account, for display or logging. Published after the
+// account lock is released; counterparty is the other account of a transfer.
+public record AccountEvent(Kind kind, BankAccount account, OperationResult result, long amount,
+        BankAccount counterparty) {
+
+    public enum Kind {
+        DEPOSIT,
+        WITHDRAWAL,
+        TRANSFER,
+        INTEREST,
+        MATURED,
+        CLOSED,
+        REACTIVATED
+    }
+}
@@ -0,0 +1,10 @@
+package main.bankingSystem.accounts;
+
+// Where account events go; see BankAccount.setEventSink. Must be cheap and must not
+// block, since it runs on the thread that made the change.
+public interface AccountEventSink {
+    AccountEventSink DISCARD = event -> {
+    };
+
+    void publish(AccountEvent event);
+}
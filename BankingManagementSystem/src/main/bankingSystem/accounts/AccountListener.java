@@ -0,0 +1,24 @@
+package main.bankingSystem.accounts;
+
+import main.bankingSystem.transactions.TransactionType;
+
+// Observer of account state changes. Callbacks run on the thread that made the
+// change while it still holds the account lock, so they see changes to one account
+// in order; they must be quick and must not call back into other accounts.
+public interface AccountListener {
+
+    default void balanceChanged(BankAccount account, long oldBalance, long newBalance) {
+    }
+
+    default void statusChanged(BankAccount account, boolean active) {
+    }
+
+    // getMinimumBalance() changed, e.g. a new overdraft limit
+    default void minimumBalanceChanged(BankAccount account, long oldMinimum, long newMinimum) {
+    }
+
+    // A row was added to the account's history; timestampMillis is as stored
+    default void transactionRecorded(BankAccount account, TransactionType type, long amount,
+            long timestampMillis, long transactionId) {
+    }
+}
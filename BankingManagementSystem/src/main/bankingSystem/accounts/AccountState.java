@@ -0,0 +1,22 @@
+package main.bankingSystem.accounts;
+
+// Everything needed to rebuild an account, captured atomically under its lock.
+// parameter is the overdraft limit for current accounts and the tenure in months for
+// fixed deposits. lastJournalSequence is the last journal record reflected here.
+public record AccountState(Kind kind, String accountNumber, String accountHolder, long createdMillis,
+        long balance, boolean active, boolean matured, long lastInterestRun, long lastJournalSequence,
+        long parameter) {
+
+    public enum Kind {
+        SAVINGS,
+        CURRENT,
+        FIXED_DEPOSIT
+    }
+
+    // State of an account that was just opened, before any transaction
+    public static AccountState opened(Kind kind, String accountNumber, String accountHolder,
+            long createdMillis, long parameter, long journalSequence) {
+        return new AccountState(kind, accountNumber, accountHolder, createdMillis, 0, true, false,
+                Long.MIN_VALUE, journalSequence, parameter);
+    }
+}
@@ -1,24 +1,80 @@
 package main.bankingSystem.accounts;
 
+import main.bankingSystem.persistence.AccountChange;
+import main.bankingSystem.persistence.JournalRecord;
+import main.bankingSystem.persistence.TransactionJournal;
+import main.bankingSystem.transactions.DescriptionDictionary;
+import main.bankingSystem.transactions.HistoryArchive;
 import main.bankingSystem.transactions.Transaction;
+import main.bankingSystem.transactions.TransactionIdGenerator;
+import main.bankingSystem.transactions.TransactionPage;
+import main.bankingSystem.transactions.TransactionStore;
 import main.bankingSystem.transactions.TransactionType;
+import main.bankingSystem.util.Money;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.locks.StampedLock;
 
 public abstract class BankAccount {
     private final String accountNumber;
     private final String accountHolder;
-    private double balance;
+    // All amounts are in paise (see Money)
+    private long balance;
     private final LocalDateTime createdDate;
-    private final List<Transaction> transactionHistory;
+    private final TransactionStore transactionHistory;
     private boolean isActive;
+    // Lets getBalance(), isActive() and displayAccountInfo() read without the monitor.
+    // Writers already hold the monitor and take the write lock only around the stores to
+    // balance and isActive; readers validate an optimistic stamp and retry, so they never
+    // block a writer or each other.
+    private final StampedLock state = new StampedLock();
+    // Epoch day of the last end-of-day interest run that credited this account
+    private long lastInterestRun = Long.MIN_VALUE;
+    // Optional write-ahead journal; appended to under the account lock, waited on after
+    private volatile TransactionJournal journal;
+    // Sequence of the last journal record written for (or replayed into) this account
+    private long lastJournalSequence;
+    // Copy-on-write so notifying never allocates
+    private volatile AccountListener[] listeners = NO_LISTENERS;
+
+    private static final AccountListener[] NO_LISTENERS = new AccountListener[0];
+
+    // Receives the outcome of every deposit, withdrawal, transfer, interest credit and
+    // status change; nothing is printed by the accounts themselves
+    private static volatile AccountEventSink eventSink = AccountEventSink.DISCARD;
+    // Receives the timing of every deposit, withdrawal and transfer (see BankMetrics)
+    private static volatile OperationRecorder recorder = OperationRecorder.NONE;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    private static final int INITIAL_DEPOSIT = DescriptionDictionary.encode("Initial deposit");
+    private static final int DEPOSIT = DescriptionDictionary.encode("Deposit to account");
+    private static final int WITHDRAWAL = DescriptionDictionary.encode("Withdrawal from account");
+    private static final int INTEREST = DescriptionDictionary.encode("Interest credit");
+    static final int TRANSFER_REFUNDED = DescriptionDictionary.encode("Transfer refunded");
+    // Journals older than counterparty records replay transfers with these
+    private static final int TRANSFER_IN = DescriptionDictionary.encode("Transfer received");
+    private static final int TRANSFER_OUT = DescriptionDictionary.encode("Transfer sent");
+    private static final int UNSET = -1;
 
-    public BankAccount(String accountNumber, String accountHolder, double initialBalance) {
+    // Journal description variants (see JournalRecord) for rows whose text the type and
+    // counterparty alone do not give back
+    private static final int INITIAL_DEPOSIT_VARIANT = 1;
+    private static final int REFUND_VARIANT = 2;
+
+    // Dictionary codes of "Transfer to <this>" / "Transfer from <this>", resolved on first use
+    private int transferToCode = UNSET;
+    private int transferFromCode = UNSET;
+
+    public BankAccount(String accountNumber, String accountHolder, long initialBalance) {
         if (initialBalance < 0) {
             throw new IllegalArgumentException("Initial balance cannot be negative");
         }
@@ -26,123 +82,520 @@ public abstract class BankAccount {
         this.accountHolder = accountHolder;
         this.balance = initialBalance;
         this.createdDate = LocalDateTime.now();
-        this.transactionHistory = new ArrayList<>();
+        this.transactionHistory = new TransactionStore();
         this.isActive = true;
 
         if (initialBalance > 0) {
-            addTransaction(new Transaction(TransactionType.DEPOSIT, initialBalance,
-                    "Initial deposit"));
+            addTransaction(TransactionType.DEPOSIT, initialBalance, INITIAL_DEPOSIT);
         }
     }
 
+    // Rebuilds an account from a snapshot or the journal; its history starts empty and is
+    // filled by restoreTransaction and applyJournalRecord
+    protected BankAccount(AccountState state) {
+        this.accountNumber = state.accountNumber();
+        this.accountHolder = state.accountHolder();
+        this.balance = state.balance();
+        this.createdDate = LocalDateTime.ofInstant(Instant.ofEpochMilli(state.createdMillis()),
+                ZoneId.systemDefault());
+        this.transactionHistory = new TransactionStore();
+        this.isActive = state.active();
+        this.lastInterestRun = state.lastInterestRun();
+        this.lastJournalSequence = state.lastJournalSequence();
+    }
+
+    public static BankAccount restore(AccountState state) {
+        return switch (state.kind()) {
+            case SAVINGS -> new SavingsAccount(state);
+            case CURRENT -> new CurrentAccount(state);
+            case FIXED_DEPOSIT -> new FixedDepositAccount(state);
+        };
+    }
+
     // Abstract methods to be implemented by subclasses
     public abstract String getAccountType();
 
-    public abstract double getInterestRate();
+    // Annual rate in basis points (1% = 100 bps)
+    public abstract int getInterestRateBasisPoints();
 
-    public abstract double getMinimumBalance();
+    public abstract long getMinimumBalance();
 
-    public synchronized boolean deposit(double amount) {
-        if (!isActive) {
-            System.out.println("❌ Account is inactive!");
+    protected abstract AccountState.Kind getKind();
+
+    // Type-specific value kept in AccountState.parameter
+    protected long getStateParameter() {
+        return 0;
+    }
+
+    protected boolean isMaturedState() {
+        return false;
+    }
+
+    public synchronized AccountState captureState() {
+        return new AccountState(getKind(), accountNumber, accountHolder,
+                createdDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), balance, isActive,
+                isMaturedState(), lastInterestRun, lastJournalSequence, getStateParameter());
+    }
+
+    // Captures the state, the archived segments and the hot rows, oldest first, under
+    // one hold of the lock, so the history adds up to the captured balance (see
+    // SnapshotFile)
+    public synchronized AccountState captureState(TransactionStore.SegmentVisitor segments,
+                                                  TransactionStore.RowVisitor rows) {
+        transactionHistory.forEachSegment(segments);
+        transactionHistory.forEach(transactionHistory.getArchivedRowCount(), transactionHistory.size(), rows);
+        return captureState();
+    }
+
+    // Recovery: re-attaches an archived segment captured with the state, before any
+    // restored row; the archive must be attached first
+    public synchronized void restoreArchivedSegment(long offset, int length, int rows, long firstTimestamp,
+                                                    int[] rowsOfType) {
+        transactionHistory.restoreSegment(offset, length, rows, firstTimestamp, rowsOfType);
+    }
+
+    // Recovery: appends a history row captured with the state this account was restored
+    // from; the balance already includes it
+    public synchronized void restoreTransaction(TransactionType type, long amount, int descriptionCode,
+                                                long timestampMillis, long transactionId) {
+        transactionHistory.append(type, amount, descriptionCode, timestampMillis, transactionId);
+    }
+
+    // Recovery: applies a journal record written after this account's state was captured.
+    // Records up to lastJournalSequence are already reflected and are ignored.
+    public synchronized boolean applyJournalRecord(JournalRecord record) {
+        if (record.sequence() <= lastJournalSequence) {
             return false;
         }
+        lastJournalSequence = record.sequence();
+        if (record.isTransaction()) {
+            TransactionType type = record.type();
+            String counterparty = record.counterparty();
+            int description = switch (type) {
+                case DEPOSIT -> record.variant() == INITIAL_DEPOSIT_VARIANT ? INITIAL_DEPOSIT : DEPOSIT;
+                case WITHDRAWAL -> WITHDRAWAL;
+                case TRANSFER_IN -> record.variant() == REFUND_VARIANT ? TRANSFER_REFUNDED
+                        : counterparty != null ? DescriptionDictionary.encode("Transfer from " + counterparty)
+                        : TRANSFER_IN;
+                case TRANSFER_OUT -> counterparty != null ? DescriptionDictionary.encode("Transfer to " + counterparty)
+                        : TRANSFER_OUT;
+                case INTEREST -> INTEREST;
+            };
+            boolean credit = type == TransactionType.DEPOSIT || type == TransactionType.TRANSFER_IN
+                    || type == TransactionType.INTEREST;
+            storeBalance(balance + (credit ? record.amount() : -record.amount()));
+            transactionHistory.append(type, record.amount(), description, record.timestampMillis(),
+                    record.transactionId());
+            return true;
+        }
+        switch (record.change()) {
+            case CLOSED -> storeActive(false);
+            case REACTIVATED -> storeActive(true);
+            case INTEREST_POSTED -> lastInterestRun = Math.max(lastInterestRun, record.amount());
+            default -> applyChange(record.change(), record.amount());
+        }
+        return true;
+    }
+
+    // Replays a type-specific change (see applyJournalRecord); caller holds the lock
+    protected void applyChange(AccountChange change, long value) {
+    }
+
+    public double getInterestRate() {
+        return getInterestRateBasisPoints() / 100.0;
+    }
+
+    public static void setEventSink(AccountEventSink sink) {
+        eventSink = sink == null ? AccountEventSink.DISCARD : sink;
+    }
+
+    protected void publishEvent(AccountEvent.Kind kind, OperationResult result, long amount,
+            BankAccount counterparty) {
+        eventSink.publish(new AccountEvent(kind, this, result, amount, counterparty));
+    }
+
+    public static void setOperationRecorder(OperationRecorder operationRecorder) {
+        recorder = operationRecorder == null ? OperationRecorder.NONE : operationRecorder;
+    }
+
+    static OperationRecorder operationRecorder() {
+        return recorder;
+    }
+
+    protected static void recordOperation(OperationRecorder.Operation operation, OperationResult result,
+            long amount, long lockWaitNanos, long startNanos) {
+        recorder.record(operation, result, amount, lockWaitNanos, System.nanoTime() - startNanos);
+    }
+
+    public OperationResult deposit(long amount) {
+        long start = System.nanoTime();
+        long locked;
+        OperationResult result;
+        synchronized (this) {
+            locked = System.nanoTime();
+            result = depositLocked(amount);
+        }
+        awaitJournal();
+        recordOperation(OperationRecorder.Operation.DEPOSIT, result, amount, locked - start, start);
+        publishEvent(AccountEvent.Kind.DEPOSIT, result, amount, null);
+        return result;
+    }
+
+    // Caller holds this account's lock
+    OperationResult depositLocked(long amount) {
+        if (!isActive) {
+            return OperationResult.INACTIVE;
+        }
         if (amount <= 0) {
-            System.out.println("❌ Deposit amount must be positive!");
-            return false;
+            return OperationResult.INVALID_AMOUNT;
         }
 
-        balance += amount;
-        addTransaction(new Transaction(TransactionType.DEPOSIT, amount,
-                "Deposit to account"));
-        System.out.println("✅ Successfully deposited ₹" + String.format("%.2f", amount));
-        return true;
+        changeBalance(amount);
+        addTransaction(TransactionType.DEPOSIT, amount, DEPOSIT);
+        return OperationResult.SUCCESS;
     }
 
-    // Synchronized withdrawal method for thread safety
-    public synchronized boolean withdraw(double amount) {
+    public OperationResult withdraw(long amount) {
+        long start = System.nanoTime();
+        long locked;
+        OperationResult result;
+        synchronized (this) {
+            locked = System.nanoTime();
+            result = withdrawLocked(amount);
+        }
+        awaitJournal();
+        recordOperation(OperationRecorder.Operation.WITHDRAWAL, result, amount, locked - start, start);
+        publishEvent(AccountEvent.Kind.WITHDRAWAL, result, amount, null);
+        return result;
+    }
+
+    // Caller holds this account's lock
+    OperationResult withdrawLocked(long amount) {
         if (!isActive) {
-            System.out.println("❌ Account is inactive!");
-            return false;
+            return OperationResult.INACTIVE;
         }
         if (amount <= 0) {
-            System.out.println("❌ Withdrawal amount must be positive!");
-            return false;
+            return OperationResult.INVALID_AMOUNT;
         }
         if (balance - amount < getMinimumBalance()) {
-            System.out.println("❌ Insufficient balance! Minimum balance: ₹" +
-                    String.format("%.2f", getMinimumBalance()));
-            return false;
+            return OperationResult.INSUFFICIENT_FUNDS;
         }
 
-        balance -= amount;
-        addTransaction(new Transaction(TransactionType.WITHDRAWAL, amount,
-                "Withdrawal from account"));
-        System.out.println("✅ Successfully withdrew ₹" + String.format("%.2f", amount));
-        return true;
+        changeBalance(-amount);
+        addTransaction(TransactionType.WITHDRAWAL, amount, WITHDRAWAL);
+        return OperationResult.SUCCESS;
+    }
+
+    // Transfer holds both account monitors, always acquired in account-number order
+    // so that opposing transfers (A->B and B->A) can never deadlock
+    public OperationResult transfer(BankAccount targetAccount, long amount) {
+        long start = System.nanoTime();
+        if (targetAccount == this) {
+            recordOperation(OperationRecorder.Operation.TRANSFER, OperationResult.INVALID_TARGET, amount, 0, start);
+            publishEvent(AccountEvent.Kind.TRANSFER, OperationResult.INVALID_TARGET, amount, targetAccount);
+            return OperationResult.INVALID_TARGET;
+        }
+        BankAccount first = lockOrder(this, targetAccount) < 0 ? this : targetAccount;
+        BankAccount second = first == this ? targetAccount : this;
+        long locked;
+        OperationResult result;
+        synchronized (first) {
+            synchronized (second) {
+                locked = System.nanoTime();
+                result = transferLocked(targetAccount, amount);
+            }
+        }
+        awaitJournal();
+        if (targetAccount.journal != journal) {
+            targetAccount.awaitJournal();
+        }
+        recordOperation(OperationRecorder.Operation.TRANSFER, result, amount, locked - start, start);
+        publishEvent(AccountEvent.Kind.TRANSFER, result, amount, targetAccount);
+        return result;
     }
 
-    // Synchronized transfer (atomic from caller perspective)
-    public synchronized boolean transfer(BankAccount targetAccount, double amount) {
+    // Caller must hold the monitors of both this account and the target
+    private OperationResult transferLocked(BankAccount targetAccount, long amount) {
         if (!isActive) {
-            System.out.println("❌ Source account is inactive!");
-            return false;
+            return OperationResult.INACTIVE;
         }
         if (amount <= 0) {
-            System.out.println("❌ Transfer amount must be positive!");
-            return false;
+            return OperationResult.INVALID_AMOUNT;
         }
         if (balance - amount < getMinimumBalance()) {
-            System.out.println("❌ Insufficient balance for transfer!");
-            return false;
+            return OperationResult.INSUFFICIENT_FUNDS;
         }
 
         // Deduct from source and credit to target
-        balance -= amount;
-        // note: accessing private field of another instance of same class is permitted
-        // in Java
-        targetAccount.balance += amount;
-
-        addTransaction(new Transaction(TransactionType.TRANSFER_OUT, amount,
-                "Transfer to " + targetAccount.getAccountNumber()));
-        targetAccount.addTransaction(new Transaction(TransactionType.TRANSFER_IN, amount,
-                "Transfer from " + this.accountNumber));
-
-        System.out.println("✅ Successfully transferred ₹" + String.format("%.2f", amount) +
-                " to " + targetAccount.getAccountNumber());
-        return true;
+        changeBalance(-amount);
+        targetAccount.changeBalance(amount);
+
+        addTransfer(targetAccount, amount);
+        return OperationResult.SUCCESS;
+    }
+
+    // Global lock order: account numbers are unique, so this is a total order
+    private static int lockOrder(BankAccount a, BankAccount b) {
+        return a.accountNumber.compareTo(b.accountNumber);
     }
 
+    // Credits the interest accrued since the last credit (see accrueInterest) as of today
     public void calculateInterest() {
-        double interest = balance * (getInterestRate() / 100);
+        long interest;
+        synchronized (this) {
+            interest = accrueInterest(LocalDate.now().toEpochDay());
+        }
+        awaitJournal();
         if (interest > 0) {
-            balance += interest;
-            addTransaction(new Transaction(TransactionType.INTEREST, interest,
-                    "Interest credit"));
-            System.out.println("✅ Interest credited: ₹" + String.format("%.2f", interest));
+            publishEvent(AccountEvent.Kind.INTEREST, OperationResult.SUCCESS, interest, null);
+        }
+    }
+
+    // Used by the end-of-day batch: credits interest at most once per run day, prints
+    // nothing and does not wait for the journal (the batch syncs once per partition).
+    // Returns false if the account is closed or this run already credited it.
+    public synchronized boolean postInterest(long runDay) {
+        return accrueInterest(runDay) >= 0;
+    }
+
+    // Credits the annual rate pro rata for the days from the last credit (or from the day
+    // the account was opened) to 'runDay', and records 'runDay' as the last credit.
+    // Returns the interest, or -1 if the account is closed or already credited up to
+    // 'runDay'. Caller holds the lock.
+    long accrueInterest(long runDay) {
+        return accrueInterest(runDay, false);
+    }
+
+    // As above; 'maturing' journals the fixed deposit's MATURED change in the same group
+    // as the run day and the credit (see TransactionJournal.appendInterest)
+    long accrueInterest(long runDay, boolean maturing) {
+        if (!isActive || runDay <= lastInterestRun) {
+            return -1;
+        }
+        long from = lastInterestRun == Long.MIN_VALUE ? createdDate.toLocalDate().toEpochDay() : lastInterestRun;
+        lastInterestRun = runDay;
+        long interest = Money.interestFor(balance, getInterestRateBasisPoints(), Math.max(0, runDay - from));
+        int row = -1;
+        if (interest > 0) {
+            changeBalance(interest);
+            row = appendRow(TransactionType.INTEREST, interest, INTEREST);
+        }
+        TransactionJournal target = journal;
+        if (target != null) {
+            lastJournalSequence = target.appendInterest(accountNumber, runDay, maturing, Math.max(0, interest),
+                    row < 0 ? System.currentTimeMillis() : transactionHistory.getTimestamp(row),
+                    row < 0 ? 0 : transactionHistory.getTransactionId(row));
+        }
+        if (row >= 0) {
+            transactionRecorded(row);
+        }
+        return interest;
+    }
+
+    // Every balance update goes through here; caller holds this account's lock
+    void changeBalance(long delta) {
+        long oldBalance = balance;
+        storeBalance(oldBalance + delta);
+        for (AccountListener listener : listeners) {
+            listener.balanceChanged(this, oldBalance, balance);
         }
     }
 
-    private void addTransaction(Transaction transaction) {
-        transactionHistory.add(transaction);
+    private void changeStatus(boolean active) {
+        if (isActive == active) {
+            return;
+        }
+        storeActive(active);
+        journalChange(active ? AccountChange.REACTIVATED : AccountChange.CLOSED, 0);
+        for (AccountListener listener : listeners) {
+            listener.statusChanged(this, active);
+        }
+    }
+
+    // Subclasses call this after changing what getMinimumBalance() returns; caller holds
+    // this account's lock
+    protected void minimumBalanceChanged(long oldMinimum) {
+        long newMinimum = getMinimumBalance();
+        for (AccountListener listener : listeners) {
+            listener.minimumBalanceChanged(this, oldMinimum, newMinimum);
+        }
+    }
+
+    // Caller holds this account's lock. Nothing may read through 'state' inside the
+    // write lock, so listeners are notified after it is released.
+    private void storeBalance(long value) {
+        long stamp = state.writeLock();
+        balance = value;
+        state.unlockWrite(stamp);
+    }
+
+    private void storeActive(boolean value) {
+        long stamp = state.writeLock();
+        isActive = value;
+        state.unlockWrite(stamp);
+    }
+
+    public synchronized void addListener(AccountListener listener) {
+        AccountListener[] current = listeners;
+        AccountListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    public synchronized void removeListener(AccountListener listener) {
+        AccountListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                AccountListener[] updated = new AccountListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    void addTransaction(TransactionType type, long amount, int descriptionCode) {
+        addTransaction(type, amount, descriptionCode, null, 0);
+    }
+
+    // One leg of a transfer; the journal keeps the other account so replay can rebuild
+    // the "Transfer to/from" description, and the transfer id that recovery pairs the
+    // legs by (0 if none; see AccountCommands)
+    void addTransaction(TransactionType type, long amount, int descriptionCode, BankAccount counterparty,
+            long transferId) {
+        int row = appendRow(type, amount, descriptionCode);
+        TransactionJournal target = journal;
+        if (target != null) {
+            appendToJournal(target, row, counterparty, transferId);
+        }
+        transactionRecorded(row);
+    }
+
+    // Records both rows of a transfer to 'target' and journals them as one group, so
+    // recovery never replays the debit without the credit. Caller holds both locks.
+    void addTransfer(BankAccount target, long amount) {
+        int out = appendRow(TransactionType.TRANSFER_OUT, amount, target.transferToCode());
+        int in = target.appendRow(TransactionType.TRANSFER_IN, amount, transferFromCode());
+        TransactionJournal shared = journal;
+        if (shared != null && target.journal == shared) {
+            long sequence = shared.appendTransfer(accountNumber, target.accountNumber, amount,
+                    transactionHistory.getTimestamp(out), transactionHistory.getTransactionId(out),
+                    target.transactionHistory.getTimestamp(in), target.transactionHistory.getTransactionId(in));
+            lastJournalSequence = sequence - 1;
+            target.lastJournalSequence = sequence;
+        } else {
+            if (shared != null) {
+                appendToJournal(shared, out, target, 0);
+            }
+            if (target.journal != null) {
+                target.appendToJournal(target.journal, in, this, 0);
+            }
+        }
+        transactionRecorded(out);
+        target.transactionRecorded(in);
+    }
+
+    private int appendRow(TransactionType type, long amount, int descriptionCode) {
+        return transactionHistory.append(type, amount, descriptionCode, System.currentTimeMillis(),
+                TransactionIdGenerator.getDefault().nextId());
+    }
+
+    private void transactionRecorded(int row) {
+        for (AccountListener listener : listeners) {
+            listener.transactionRecorded(this, transactionHistory.getType(row), transactionHistory.getAmount(row),
+                    transactionHistory.getTimestamp(row), transactionHistory.getTransactionId(row));
+        }
+    }
+
+    // Caller holds this account's lock
+    protected void journalChange(AccountChange change, long value) {
+        TransactionJournal target = journal;
+        if (target != null) {
+            lastJournalSequence = target.appendChange(accountNumber, change, value, System.currentTimeMillis());
+        }
+    }
+
+    private void appendToJournal(TransactionJournal target, int row, BankAccount counterparty, long transferId) {
+        int description = transactionHistory.getDescriptionCode(row);
+        int variant = description == INITIAL_DEPOSIT ? INITIAL_DEPOSIT_VARIANT
+                : description == TRANSFER_REFUNDED ? REFUND_VARIANT : 0;
+        lastJournalSequence = target.append(accountNumber, transactionHistory.getType(row), transactionHistory.getAmount(row),
+                transactionHistory.getTimestamp(row), transactionHistory.getTransactionId(row), variant,
+                counterparty != null ? counterparty.accountNumber : null, transferId);
+    }
+
+    // Racy but idempotent: the dictionary hands out the same code for the same text
+    int transferToCode() {
+        if (transferToCode == UNSET) {
+            transferToCode = DescriptionDictionary.encode("Transfer to " + accountNumber);
+        }
+        return transferToCode;
+    }
+
+    int transferFromCode() {
+        if (transferFromCode == UNSET) {
+            transferFromCode = DescriptionDictionary.encode("Transfer from " + accountNumber);
+        }
+        return transferFromCode;
+    }
+
+    // Starts journaling a new account: an OPENED record first, then any history
+    // recorded before attaching
+    public synchronized void attachJournal(TransactionJournal journal) {
+        AccountState state = captureState();
+        lastJournalSequence = journal.appendOpened(accountNumber, accountHolder, state.parameter(),
+                state.createdMillis());
+        for (int row = 0; row < transactionHistory.size(); row++) {
+            appendToJournal(journal, row, null, 0);
+        }
+        this.journal = journal;
+    }
+
+    // Starts journaling a restored account, whose history is already in the journal
+    public synchronized void resumeJournal(TransactionJournal journal) {
+        this.journal = journal;
+    }
+
+    // Waits for group commit outside the account lock so other threads keep working
+    void awaitJournal() {
+        TransactionJournal target = journal;
+        if (target != null) {
+            target.sync();
+        }
     }
 
     public void displayAccountInfo() {
+        // Balance and status from the same moment
+        long stamp;
+        long shownBalance;
+        boolean shownActive;
+        do {
+            stamp = state.tryOptimisticRead();
+            shownBalance = balance;
+            shownActive = isActive;
+        } while (!validate(stamp));
+
         System.out.println("\n" + "=".repeat(60));
         System.out.println("                    ACCOUNT DETAILS");
         System.out.println("=".repeat(60));
         System.out.println("Account Type     : " + getAccountType());
         System.out.println("Account Number   : " + accountNumber);
         System.out.println("Account Holder   : " + accountHolder);
-        System.out.println("Current Balance  : ₹" + String.format("%.2f", balance));
-        System.out.println("Minimum Balance  : ₹" + String.format("%.2f", getMinimumBalance()));
+        System.out.println("Current Balance  : ₹" + Money.format(shownBalance));
+        System.out.println("Minimum Balance  : ₹" + Money.format(getMinimumBalance()));
         System.out.println("Interest Rate    : " + getInterestRate() + "%");
-        System.out.println("Account Status   : " + (isActive ? "Active" : "Inactive"));
+        System.out.println("Account Status   : " + (shownActive ? "Active" : "Inactive"));
         System.out.println("Created Date     : " + createdDate.format(DATE_FORMATTER));
         System.out.println("=".repeat(60));
     }
 
+    // Shows the most recent page; use the paged queries below to go further back
     public void displayTransactionHistory() {
+        displayTransactionHistory(getRecentTransactions(DEFAULT_PAGE_SIZE));
+    }
+
+    public void displayTransactionHistory(TransactionPage page) {
         System.out.println("\n" + "=".repeat(80));
         System.out.println("                         TRANSACTION HISTORY");
         System.out.println("=".repeat(80));
@@ -150,14 +603,14 @@ public abstract class BankAccount {
                 "Date & Time", "Type", "Amount", "Description");
         System.out.println("-".repeat(80));
 
-        if (transactionHistory.isEmpty()) {
+        if (page.isEmpty()) {
             System.out.println("No transactions found.");
         } else {
-            for (Transaction t : transactionHistory) {
-                System.out.printf("%-20s %-15s ₹%-14.2f %-30s%n",
+            for (Transaction t : page.getTransactions()) {
+                System.out.printf("%-20s %-15s ₹%-14s %-30s%n",
                         t.getTimestamp().format(DATE_FORMATTER),
                         t.getType(),
-                        t.getAmount(),
+                        Money.format(t.getAmount()),
                         t.getDescription());
             }
         }
@@ -165,13 +618,17 @@ public abstract class BankAccount {
     }
 
     public void closeAccount() {
-        this.isActive = false;
-        System.out.println("✅ Account " + accountNumber + " has been closed.");
+        synchronized (this) {
+            changeStatus(false);
+        }
+        publishEvent(AccountEvent.Kind.CLOSED, OperationResult.SUCCESS, 0, null);
     }
 
     public void reactivateAccount() {
-        this.isActive = true;
-        System.out.println("✅ Account " + accountNumber + " has been reactivated.");
+        synchronized (this) {
+            changeStatus(true);
+        }
+        publishEvent(AccountEvent.Kind.REACTIVATED, OperationResult.SUCCESS, 0, null);
     }
 
     // Getters
@@ -183,15 +640,100 @@ public abstract class BankAccount {
         return accountHolder;
     }
 
-    public double getBalance() {
-        return balance;
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    // Lock-free; see 'state'
+    public long getBalance() {
+        long stamp = state.tryOptimisticRead();
+        long value = balance;
+        while (!validate(stamp)) {
+            stamp = state.tryOptimisticRead();
+            value = balance;
+        }
+        return value;
     }
 
     public boolean isActive() {
-        return isActive;
+        long stamp = state.tryOptimisticRead();
+        boolean value = isActive;
+        while (!validate(stamp)) {
+            stamp = state.tryOptimisticRead();
+            value = isActive;
+        }
+        return value;
+    }
+
+    // False if a write overlapped the read. That only happens while a writer holds the
+    // write lock for a single store, so yield to let it finish (it may be waiting for our
+    // CPU) before retrying.
+    private boolean validate(long stamp) {
+        if (state.validate(stamp)) {
+            return true;
+        }
+        Thread.yield();
+        return false;
+    }
+
+    // Copies every row ever recorded; prefer the paged queries below
+    public synchronized List<Transaction> getTransactionHistory() {
+        List<Transaction> history = new ArrayList<>(transactionHistory.size());
+        for (int row = 0; row < transactionHistory.size(); row++) {
+            history.add(transactionHistory.get(row));
+        }
+        return history;
+    }
+
+    // Paged history queries. Each returns at most 'limit' transactions, newest first;
+    // start with TransactionPage.FIRST and pass getNextCursor() back for older pages.
+    public synchronized TransactionPage getRecentTransactions(int limit) {
+        return transactionHistory.latest(TransactionPage.FIRST, limit);
+    }
+
+    public synchronized TransactionPage getTransactionsBefore(int cursor, int limit) {
+        return transactionHistory.latest(cursor, limit);
+    }
+
+    // Transactions with from <= timestamp < to
+    public synchronized TransactionPage getTransactionsBetween(LocalDateTime from, LocalDateTime to,
+                                                               int cursor, int limit) {
+        ZoneId zone = ZoneId.systemDefault();
+        return transactionHistory.between(from.atZone(zone).toInstant().toEpochMilli(),
+                to.atZone(zone).toInstant().toEpochMilli(), cursor, limit);
+    }
+
+    public synchronized TransactionPage getTransactionsOfType(TransactionType type, int cursor, int limit) {
+        return transactionHistory.ofType(type, cursor, limit);
+    }
+
+    // Row-level access for bulk readers such as StatementExporter. Rows are numbered
+    // oldest first and never move, so a reader can take a long history in short batches,
+    // each under the lock only while the visitor copies them out.
+    public synchronized int findTransactionRow(long timestampMillis) {
+        return transactionHistory.firstRowAtOrAfter(timestampMillis);
+    }
+
+    public synchronized int visitTransactions(int fromRow, int toRow, TransactionStore.RowVisitor visitor) {
+        return transactionHistory.forEach(fromRow, toRow, visitor);
+    }
+
+    public synchronized int getTransactionCount() {
+        return transactionHistory.size();
+    }
+
+    // Keeps only the newest rows on heap from now on; older ones move to the archive
+    // and are read back from it by the queries above (see HistoryArchive)
+    public synchronized void attachArchive(HistoryArchive archive) {
+        transactionHistory.attachArchive(archive);
+    }
+
+    // Moves rows past the archive's hot age off heap; returns how many moved
+    public synchronized int archiveHistory(long nowMillis) {
+        return transactionHistory.archiveOlderThan(nowMillis);
     }
 
-    public List<Transaction> getTransactionHistory() {
-        return new ArrayList<>(transactionHistory);
+    public synchronized int getArchivedTransactionCount() {
+        return transactionHistory.getArchivedRowCount();
     }
-}
\ No newline at end of file
+}
@@ -1,30 +1,56 @@
 package main.bankingSystem.accounts;
 
+import main.bankingSystem.persistence.AccountChange;
+import main.bankingSystem.util.Money;
+
 public class CurrentAccount extends BankAccount {
-    private static final double INTEREST_RATE = 0.0;
-    private static final double MINIMUM_BALANCE = 5000.0;
-    private double overdraftLimit;
+    private static final int INTEREST_RATE_BPS = 0;
+    private static final long MINIMUM_BALANCE = 5000_00L;
+    private long overdraftLimit;
 
     public CurrentAccount(String accountNumber, String accountHolder,
-                          double initialBalance, double overdraftLimit) {
+                          long initialBalance, long overdraftLimit) {
         super(accountNumber, accountHolder, initialBalance);
         this.overdraftLimit = overdraftLimit;
     }
 
+    CurrentAccount(AccountState state) {
+        super(state);
+        this.overdraftLimit = state.parameter();
+    }
+
     @Override
     public String getAccountType() { return "Current Account"; }
 
     @Override
-    public double getInterestRate() { return INTEREST_RATE; }
+    public int getInterestRateBasisPoints() { return INTEREST_RATE_BPS; }
 
     @Override
-    public double getMinimumBalance() { return -overdraftLimit; }
+    public long getMinimumBalance() { return -overdraftLimit; }
 
-    public double getOverdraftLimit() { return overdraftLimit; }
+    public long getOverdraftLimit() { return overdraftLimit; }
 
-    public void setOverdraftLimit(double limit) {
-        this.overdraftLimit = limit;
+    public void setOverdraftLimit(long limit) {
+        synchronized (this) {
+            long oldMinimum = getMinimumBalance();
+            this.overdraftLimit = limit;
+            journalChange(AccountChange.OVERDRAFT_CHANGED, limit);
+            minimumBalanceChanged(oldMinimum);
+        }
         System.out.println("✅ Overdraft limit updated to ₹" +
-                String.format("%.2f", limit));
+                Money.format(limit));
+    }
+
+    @Override
+    protected AccountState.Kind getKind() { return AccountState.Kind.CURRENT; }
+
+    @Override
+    protected long getStateParameter() { return overdraftLimit; }
+
+    @Override
+    protected void applyChange(AccountChange change, long value) {
+        if (change == AccountChange.OVERDRAFT_CHANGED) {
+            overdraftLimit = value;
+        }
     }
 }
@@ -1,65 +1,153 @@
 package main.bankingSystem.accounts;
 
+import main.bankingSystem.persistence.AccountChange;
+import main.bankingSystem.util.Money;
+
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 public class FixedDepositAccount extends BankAccount {
-    private static final double MINIMUM_BALANCE = 10000.0;
+    private static final long MINIMUM_BALANCE = 10000_00L;
     private final int tenureMonths;
     private final LocalDateTime maturityDate;
-    private boolean isMatured;
+    private volatile boolean isMatured;
 
     public FixedDepositAccount(String accountNumber, String accountHolder,
-            double depositAmount, int tenureMonths) {
+            long depositAmount, int tenureMonths) {
         super(accountNumber, accountHolder, depositAmount);
         if (depositAmount < MINIMUM_BALANCE) {
-            throw new IllegalArgumentException("Minimum FD amount is ₹" + MINIMUM_BALANCE);
+            throw new IllegalArgumentException("Minimum FD amount is ₹" + Money.format(MINIMUM_BALANCE));
+        }
+        if (tenureMonths <= 0) {
+            throw new IllegalArgumentException("Tenure must be at least one month");
         }
         this.tenureMonths = tenureMonths;
-        this.maturityDate = LocalDateTime.now().plusMonths(tenureMonths);
+        this.maturityDate = getCreatedDate().plusMonths(tenureMonths);
         this.isMatured = false;
     }
 
+    // Maturity is derived from the creation date, exactly as when the FD was opened
+    FixedDepositAccount(AccountState state) {
+        super(state);
+        this.tenureMonths = (int) state.parameter();
+        this.maturityDate = getCreatedDate().plusMonths(tenureMonths);
+        this.isMatured = state.matured();
+    }
+
     @Override
     public String getAccountType() {
         return "Fixed Deposit Account";
     }
 
     @Override
-    public double getInterestRate() {
+    public int getInterestRateBasisPoints() {
         if (tenureMonths <= 6)
-            return 6.0;
+            return 600;
         else if (tenureMonths <= 12)
-            return 6.5;
+            return 650;
         else if (tenureMonths <= 24)
-            return 7.0;
+            return 700;
         else
-            return 7.5;
+            return 750;
     }
 
     @Override
-    public double getMinimumBalance() {
+    public long getMinimumBalance() {
         return MINIMUM_BALANCE;
     }
 
     @Override
-    public synchronized boolean withdraw(double amount) {
+    OperationResult withdrawLocked(long amount) {
         if (!isMatured && LocalDateTime.now().isBefore(maturityDate)) {
-            System.out.println("❌ Premature withdrawal not allowed! Maturity date: " +
-                    maturityDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
-            return false;
+            return OperationResult.PREMATURE_WITHDRAWAL;
         }
-        return super.withdraw(amount);
+        return super.withdrawLocked(amount);
     }
 
     public void checkMaturity() {
-        if (!isMatured && LocalDateTime.now().isAfter(maturityDate)) {
+        long interest;
+        synchronized (this) {
+            interest = matureLocked();
+        }
+        if (interest >= 0) {
+            awaitJournal();
+            if (interest > 0) {
+                publishEvent(AccountEvent.Kind.INTEREST, OperationResult.SUCCESS, interest, null);
+            }
+            publishEvent(AccountEvent.Kind.MATURED, OperationResult.SUCCESS, 0, null);
+        }
+    }
+
+    // FDs only earn their interest once, at maturity
+    @Override
+    public void calculateInterest() {
+        checkMaturity();
+    }
+
+    @Override
+    public synchronized boolean postInterest(long runDay) {
+        return matureLocked() >= 0;
+    }
+
+    // Used by the maturity scheduler: marks a due FD matured, credits its interest and
+    // publishes the events without waiting for the journal, which the scheduler syncs
+    // once per batch. Returns false if it is not yet due, already matured or closed.
+    public boolean mature() {
+        long interest;
+        synchronized (this) {
+            interest = matureLocked();
+        }
+        if (interest < 0) {
+            return false;
+        }
+        if (interest > 0) {
+            publishEvent(AccountEvent.Kind.INTEREST, OperationResult.SUCCESS, interest, null);
+        }
+        publishEvent(AccountEvent.Kind.MATURED, OperationResult.SUCCESS, 0, null);
+        return true;
+    }
+
+    // Credits interest for the whole tenure, from opening to the maturity date however
+    // late the FD is matured; returns it, or -1 if the FD is not due, matured or closed
+    private long matureLocked() {
+        if (isMatured || !isActive() || !LocalDateTime.now().isAfter(maturityDate)) {
+            return -1;
+        }
+        isMatured = true;
+        long interest = accrueInterest(maturityDate.toLocalDate().toEpochDay(), true);
+        if (interest < 0) {
+            // Already credited up to the maturity date; only the maturity is left to record
+            journalChange(AccountChange.MATURED, 0);
+            return 0;
+        }
+        return interest;
+    }
+
+    @Override
+    protected AccountState.Kind getKind() {
+        return AccountState.Kind.FIXED_DEPOSIT;
+    }
+
+    @Override
+    protected long getStateParameter() {
+        return tenureMonths;
+    }
+
+    @Override
+    protected boolean isMaturedState() {
+        return isMatured;
+    }
+
+    @Override
+    protected void applyChange(AccountChange change, long value) {
+        if (change == AccountChange.MATURED) {
             isMatured = true;
-            calculateInterest();
-            System.out.println("✅ FD has matured!");
         }
     }
 
+    public int getTenureMonths() {
+        return tenureMonths;
+    }
+
     public LocalDateTime getMaturityDate() {
         return maturityDate;
     }
@@ -0,0 +1,21 @@
+package main.bankingSystem.accounts;
+
+// Receives the outcome and timing of every money movement; see
+// BankAccount.setOperationRecorder. Runs on the calling thread after the account locks
+// are released, so it must be cheap, must not block and should not allocate.
+public interface OperationRecorder {
+    OperationRecorder NONE = (operation, result, amount, lockWaitNanos, elapsedNanos) -> {
+    };
+
+    enum Operation {
+        DEPOSIT,
+        WITHDRAWAL,
+        TRANSFER,
+        // One leg of TransferBatch; elapsed time is the batch time divided by its legs
+        BATCH_TRANSFER
+    }
+
+    // lockWaitNanos is the time spent acquiring the account monitor(s); elapsedNanos
+    // covers the whole call, including waiting for the journal
+    void record(Operation operation, OperationResult result, long amount, long lockWaitNanos, long elapsedNanos);
+}
@@ -0,0 +1,16 @@
+package main.bankingSystem.accounts;
+
+// Outcome of a money movement on an account
+public enum OperationResult {
+    SUCCESS,
+    ACCOUNT_NOT_FOUND,
+    INACTIVE,
+    INVALID_AMOUNT,
+    INSUFFICIENT_FUNDS,
+    PREMATURE_WITHDRAWAL,
+    INVALID_TARGET;
+
+    public boolean isSuccess() {
+        return this == SUCCESS;
+    }
+}
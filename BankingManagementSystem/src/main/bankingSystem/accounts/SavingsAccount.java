@@ -1,19 +1,26 @@
 package main.bankingSystem.accounts;
 
 public class SavingsAccount extends BankAccount {
-    private static final double INTEREST_RATE = 4.5;
-    private static final double MINIMUM_BALANCE = 1000.0;
+    private static final int INTEREST_RATE_BPS = 450;
+    private static final long MINIMUM_BALANCE = 1000_00L;
 
-    public SavingsAccount(String accountNumber, String accountHolder, double initialBalance) {
+    public SavingsAccount(String accountNumber, String accountHolder, long initialBalance) {
         super(accountNumber, accountHolder, initialBalance);
     }
 
+    SavingsAccount(AccountState state) {
+        super(state);
+    }
+
     @Override
     public String getAccountType() { return "Savings Account"; }
 
     @Override
-    public double getInterestRate() { return INTEREST_RATE; }
+    public int getInterestRateBasisPoints() { return INTEREST_RATE_BPS; }
+
+    @Override
+    public long getMinimumBalance() { return MINIMUM_BALANCE; }
 
     @Override
-    public double getMinimumBalance() { return MINIMUM_BALANCE; }
+    protected AccountState.Kind getKind() { return AccountState.Kind.SAVINGS; }
 }
@@ -0,0 +1,194 @@
+package main.bankingSystem.accounts;
+
+import main.bankingSystem.persistence.AccountChange;
+import main.bankingSystem.transactions.TransactionIdGenerator;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// Applies a batch of transfers by netting them per account.
+//
+// Legs are settled in windows of consecutive legs touching at most WINDOW_ACCOUNTS
+// distinct accounts. For each window every participant is locked once, in account-number
+// order like BankAccount.transfer, and while all of them are held:
+//   1. legs are checked in submission order against running balances that include the
+//      window's earlier legs, so A->B followed by B->A can use the money A just sent;
+//   2. each account's balance changes once, by its net over the accepted legs, and each
+//      leg still gets its own history rows.
+// Nothing is ever debited without being credited in the same critical section, so no
+// money is in flight between accounts.
+//
+// With a journal, a window is bracketed by a BATCH_BEGIN record per participant and one
+// BATCH_END, all carrying the window's id. Recovery holds a window's records back until
+// its BATCH_END and drops them if the journal ends first, so a window is replayed whole
+// or not at all. Callers only hear of the outcome once BATCH_END is durable.
+public final class TransferBatch {
+    // Bounds the locks held at once, and the recursion that takes them
+    static final int WINDOW_ACCOUNTS = 256;
+
+    private TransferBatch() {
+    }
+
+    // Legs are given as parallel arrays; a null account means it was not found
+    public static OperationResult[] apply(BankAccount[] sources, BankAccount[] targets, long[] amounts) {
+        int legs = amounts.length;
+        if (sources.length != legs || targets.length != legs) {
+            throw new IllegalArgumentException("Batch arrays must have the same length");
+        }
+        long start = System.nanoTime();
+        OperationResult[] results = new OperationResult[legs];
+
+        Window window = new Window(sources, targets, amounts, results);
+        Map<BankAccount, Boolean> touched = new IdentityHashMap<>();
+        for (int i = 0; i < legs; i++) {
+            if (sources[i] == null || targets[i] == null) {
+                results[i] = OperationResult.ACCOUNT_NOT_FOUND;
+                continue;
+            }
+            if (sources[i] == targets[i]) {
+                results[i] = OperationResult.INVALID_TARGET;
+                continue;
+            }
+            if (!window.fits(sources[i], targets[i])) {
+                window.settle();
+            }
+            window.add(i);
+            touched.put(sources[i], Boolean.TRUE);
+            touched.put(targets[i], Boolean.TRUE);
+        }
+        window.settle();
+
+        // Returns at once for every account after the first whose records are durable
+        for (BankAccount account : touched.keySet()) {
+            account.awaitJournal();
+        }
+
+        OperationRecorder recorder = BankAccount.operationRecorder();
+        long perLeg = legs == 0 ? 0 : (System.nanoTime() - start) / legs;
+        for (int i = 0; i < legs; i++) {
+            recorder.record(OperationRecorder.Operation.BATCH_TRANSFER, results[i], amounts[i], 0, perLeg);
+        }
+        return results;
+    }
+
+    // Consecutive legs and their distinct accounts; reused for every window of a batch
+    private static final class Window {
+        private final BankAccount[] sources;
+        private final BankAccount[] targets;
+        private final long[] amounts;
+        private final OperationResult[] results;
+
+        private final Map<BankAccount, Integer> slots = new IdentityHashMap<>();
+        private final BankAccount[] accounts = new BankAccount[WINDOW_ACCOUNTS];
+        private final long[] balances = new long[WINDOW_ACCOUNTS];
+        private final long[] deltas = new long[WINDOW_ACCOUNTS];
+        private int[] legs = new int[64];
+        private int legCount;
+
+        private Window(BankAccount[] sources, BankAccount[] targets, long[] amounts, OperationResult[] results) {
+            this.sources = sources;
+            this.targets = targets;
+            this.amounts = amounts;
+            this.results = results;
+        }
+
+        private boolean fits(BankAccount source, BankAccount target) {
+            int added = (slots.containsKey(source) ? 0 : 1) + (slots.containsKey(target) ? 0 : 1);
+            return slots.size() + added <= WINDOW_ACCOUNTS;
+        }
+
+        private void add(int leg) {
+            slot(sources[leg]);
+            slot(targets[leg]);
+            if (legCount == legs.length) {
+                legs = Arrays.copyOf(legs, legCount * 2);
+            }
+            legs[legCount++] = leg;
+        }
+
+        private void slot(BankAccount account) {
+            if (!slots.containsKey(account)) {
+                accounts[slots.size()] = account;
+                slots.put(account, slots.size());
+            }
+        }
+
+        private void settle() {
+            int size = slots.size();
+            if (size == 0) {
+                return;
+            }
+            Arrays.sort(accounts, 0, size, (a, b) -> a.getAccountNumber().compareTo(b.getAccountNumber()));
+            for (int i = 0; i < size; i++) {
+                slots.put(accounts[i], i);
+            }
+            lockAndApply(0);
+            slots.clear();
+            Arrays.fill(accounts, 0, size, null);
+            legCount = 0;
+        }
+
+        // Takes the monitors in account-number order, one stack frame each
+        private void lockAndApply(int next) {
+            if (next == slots.size()) {
+                applyLocked();
+                return;
+            }
+            synchronized (accounts[next]) {
+                lockAndApply(next + 1);
+            }
+        }
+
+        private void applyLocked() {
+            int size = slots.size();
+            for (int i = 0; i < size; i++) {
+                balances[i] = accounts[i].getBalance();
+                deltas[i] = 0;
+            }
+            boolean any = false;
+            for (int n = 0; n < legCount; n++) {
+                int leg = legs[n];
+                int from = slots.get(sources[leg]);
+                int to = slots.get(targets[leg]);
+                long amount = amounts[leg];
+                if (!accounts[from].isActive()) {
+                    results[leg] = OperationResult.INACTIVE;
+                } else if (!accounts[to].isActive()) {
+                    results[leg] = OperationResult.INVALID_TARGET;
+                } else if (amount <= 0) {
+                    results[leg] = OperationResult.INVALID_AMOUNT;
+                } else if (balances[from] - amount < accounts[from].getMinimumBalance()) {
+                    results[leg] = OperationResult.INSUFFICIENT_FUNDS;
+                } else {
+                    balances[from] -= amount;
+                    balances[to] += amount;
+                    deltas[from] -= amount;
+                    deltas[to] += amount;
+                    results[leg] = OperationResult.SUCCESS;
+                    any = true;
+                }
+            }
+            if (!any) {
+                return;
+            }
+
+            long batchId = TransactionIdGenerator.getDefault().nextId();
+            for (int i = 0; i < size; i++) {
+                accounts[i].journalChange(AccountChange.BATCH_BEGIN, batchId);
+            }
+            for (int i = 0; i < size; i++) {
+                if (deltas[i] != 0) {
+                    accounts[i].changeBalance(deltas[i]);
+                }
+            }
+            for (int n = 0; n < legCount; n++) {
+                int leg = legs[n];
+                if (results[leg] == OperationResult.SUCCESS) {
+                    sources[leg].addTransfer(targets[leg], amounts[leg]);
+                }
+            }
+            accounts[0].journalChange(AccountChange.BATCH_END, batchId);
+        }
+    }
+}
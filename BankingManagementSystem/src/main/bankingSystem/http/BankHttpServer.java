@@ -0,0 +1,537 @@
+package main.bankingSystem.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.OperationResult;
+import main.bankingSystem.management.BalanceIndex;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.management.BankStatistics;
+import main.bankingSystem.management.HolderIndex;
+import main.bankingSystem.transactions.Transaction;
+import main.bankingSystem.transactions.TransactionPage;
+import main.bankingSystem.util.Money;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Embedded JSON-over-HTTP API on top of a BankManager, built on the JDK's HttpServer.
+//
+//   POST /accounts?type=savings|current|fd&holder=..&amount=..[&overdraft=..][&tenure=..]
+//   POST /accounts/{number}/deposit?amount=..
+//   POST /accounts/{number}/withdraw?amount=..
+//   POST /transfers?from=..&to=..&amount=..
+//   GET  /accounts/{number}/balance
+//   GET  /accounts/{number}/transactions[?cursor=..][&limit=..]
+//   GET  /customers?name=..        one customer, with their account numbers
+//   GET  /customers?prefix=..[&limit=..]
+//   GET  /balances?top=..  |  ?belowMinimum  |  ?from=..&to=..[&limit=..]
+//   GET  /report
+//
+// Parameters may come in the query string or a form-encoded body; amounts are rupees
+// with up to two decimals. Bad input answers 400, an unknown account 404, a refused
+// operation 409 with the OperationResult, and a wrong method 405.
+//
+// Deposits, withdrawals and transfers take an optional Idempotency-Key header: a retry
+// with the same key gets the first attempt's outcome instead of moving money again,
+// and reusing a key for a different request answers 400.
+//
+// The server's selector thread multiplexes every open connection, so idle keep-alive
+// connections cost a socket and no thread. Requests run one per virtual thread when
+// the runtime has them, and on a fixed pool of platform threads otherwise.
+//
+// The long wait in a handler is the journal sync, up to one group-commit interval,
+// and it parks on a j.u.c lock, which unmounts a virtual thread. Account monitors and
+// the journal's append monitor are still synchronized: on JDK 21-23 a virtual thread
+// blocked on or holding one pins its carrier (JDK 24 lifts this), and in PER_OPERATION
+// mode the append monitor is held through the fsync. Those holds are short, but under
+// contention on a few hot accounts the server runs at most as many of them at once as
+// there are carriers (one per core by default).
+public class BankHttpServer {
+    // Without virtual threads every request holds a platform thread through its journal
+    // sync: 256 threads waiting on a 5 ms group commit still sustain about 50k synced
+    // requests a second, while staying far below typical per-process thread limits
+    private static final int FALLBACK_THREADS = 256;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BODY_BYTES = 8192;
+    private static final int MAX_IDEMPOTENCY_KEY = 255;
+
+    private final BankManager manager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private static final class BadRequestException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        BadRequestException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class MethodNotAllowedException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        MethodNotAllowedException(String allowed) {
+            super(allowed);
+        }
+    }
+
+    private BankHttpServer(BankManager manager, HttpServer server, ExecutorService executor) {
+        this.manager = manager;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    // Starts serving 'manager' on 'port' (0 picks a free port)
+    public static BankHttpServer start(BankManager manager, int port) throws IOException {
+        // The JDK server reads these once, when the first server is created. Unless
+        // set explicitly: keep up to 64k idle keep-alive connections instead of closing
+        // any beyond 200, and disable Nagle's algorithm, which otherwise holds back the
+        // response body written after the headers until the client's delayed ACK
+        // (about 40 ms per request)
+        defaultProperty("sun.net.httpserver.maxIdleConnections", "65536");
+        defaultProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 4096);
+        ExecutorService executor = newRequestExecutor();
+        BankHttpServer http = new BankHttpServer(manager, server, executor);
+        server.createContext("/", http::handle);
+        server.setExecutor(executor);
+        server.start();
+        return http;
+    }
+
+    private static void defaultProperty(String name, String value) {
+        if (System.getProperty(name) == null) {
+            System.setProperty(name, value);
+        }
+    }
+
+    // Virtual-thread-per-request where the runtime supports it (Java 21+), looked up
+    // reflectively so the code still builds and runs on Java 17
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(FALLBACK_THREADS, task -> {
+                Thread thread = new Thread(task, "http-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Stops accepting connections, gives running requests up to 'delaySeconds' to
+    // finish and then stops the request threads
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String method = exchange.getRequestMethod();
+            Map<String, String> params = parameters(exchange);
+            // path[0] is the empty segment before the leading '/'
+            if (path.length == 2 && path[1].equals("accounts")) {
+                expect(method, "POST");
+                createAccount(exchange, params);
+            } else if (path.length == 4 && path[1].equals("accounts")) {
+                switch (path[3]) {
+                    case "deposit" -> {
+                        expect(method, "POST");
+                        BankAccount account = account(path[2]);
+                        long amount = amount(params, "amount");
+                        if (account != null) {
+                            sendResult(exchange, account, manager.deposit(path[2], amount, idempotencyKey(exchange)));
+                        } else {
+                            sendNotFound(exchange, path[2]);
+                        }
+                    }
+                    case "withdraw" -> {
+                        expect(method, "POST");
+                        BankAccount account = account(path[2]);
+                        long amount = amount(params, "amount");
+                        if (account != null) {
+                            sendResult(exchange, account, manager.withdraw(path[2], amount, idempotencyKey(exchange)));
+                        } else {
+                            sendNotFound(exchange, path[2]);
+                        }
+                    }
+                    case "balance" -> {
+                        expect(method, "GET");
+                        balance(exchange, path[2]);
+                    }
+                    case "transactions" -> {
+                        expect(method, "GET");
+                        transactions(exchange, path[2], params);
+                    }
+                    default -> send(exchange, 404, error("No such resource"));
+                }
+            } else if (path.length == 2 && path[1].equals("transfers")) {
+                expect(method, "POST");
+                transfer(exchange, params);
+            } else if (path.length == 2 && path[1].equals("customers")) {
+                expect(method, "GET");
+                customers(exchange, params);
+            } else if (path.length == 2 && path[1].equals("balances")) {
+                expect(method, "GET");
+                balances(exchange, params);
+            } else if (path.length == 2 && path[1].equals("report")) {
+                expect(method, "GET");
+                report(exchange);
+            } else {
+                send(exchange, 404, error("No such resource"));
+            }
+        } catch (BadRequestException | IllegalArgumentException e) {
+            // NumberFormatException from amounts and IllegalArgumentException from the
+            // account constructors (a negative balance, a tenure under a month) or a
+            // reused idempotency key are all bad input
+            sendQuietly(exchange, 400, error(e.getMessage()));
+        } catch (MethodNotAllowedException e) {
+            exchange.getResponseHeaders().set("Allow", e.getMessage());
+            sendQuietly(exchange, 405, error("Use " + e.getMessage()));
+        } catch (RuntimeException e) {
+            // The detail stays in the server's log; clients only learn that it failed
+            System.err.println("❌ " + exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath()
+                    + " failed: " + e);
+            e.printStackTrace();
+            sendQuietly(exchange, 500, error("Internal server error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void expect(String method, String allowed) throws MethodNotAllowedException {
+        if (!method.equals(allowed)) {
+            throw new MethodNotAllowedException(allowed);
+        }
+    }
+
+    private void createAccount(HttpExchange exchange, Map<String, String> params)
+            throws IOException, BadRequestException {
+        String holder = required(params, "holder");
+        long amount = amount(params, "amount");
+        String number = switch (required(params, "type")) {
+            case "savings" -> manager.createSavingsAccount(holder, amount);
+            case "current" -> manager.createCurrentAccount(holder, amount,
+                    params.containsKey("overdraft") ? amount(params, "overdraft") : 0);
+            case "fd" -> manager.createFixedDepositAccount(holder, amount, integer(params, "tenure", 12));
+            default -> throw new BadRequestException("type must be savings, current or fd");
+        };
+        BankAccount account = manager.findAccount(number);
+        StringBuilder json = new StringBuilder(128).append('{');
+        field(json, "accountNumber", number).append(',');
+        field(json, "type", account.getAccountType()).append(',');
+        field(json, "holder", holder).append(',');
+        money(json, "balance", account.getBalance()).append('}');
+        send(exchange, 201, json);
+    }
+
+    private void transfer(HttpExchange exchange, Map<String, String> params)
+            throws IOException, BadRequestException {
+        String from = required(params, "from");
+        String to = required(params, "to");
+        long amount = amount(params, "amount");
+        BankAccount source = account(from);
+        BankAccount target = account(to);
+        if (source == null || target == null) {
+            sendNotFound(exchange, source == null ? from : to);
+            return;
+        }
+        sendResult(exchange, source, manager.transfer(from, to, amount, idempotencyKey(exchange)));
+    }
+
+    private void balance(HttpExchange exchange, String number) throws IOException {
+        BankAccount account = account(number);
+        if (account == null) {
+            sendNotFound(exchange, number);
+            return;
+        }
+        StringBuilder json = new StringBuilder(96).append('{');
+        field(json, "accountNumber", account.getAccountNumber()).append(',');
+        money(json, "balance", account.getBalance()).append(',');
+        json.append("\"active\":").append(account.isActive()).append('}');
+        send(exchange, 200, json);
+    }
+
+    private void transactions(HttpExchange exchange, String number, Map<String, String> params)
+            throws IOException, BadRequestException {
+        BankAccount account = account(number);
+        int limit = Math.min(integer(params, "limit", BankAccount.DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE);
+        int cursor = integer(params, "cursor", TransactionPage.FIRST);
+        if (limit < 1) {
+            throw new BadRequestException("limit must be positive");
+        }
+        if (account == null) {
+            sendNotFound(exchange, number);
+            return;
+        }
+        TransactionPage page = account.getTransactionsBefore(cursor, limit);
+        StringBuilder json = new StringBuilder(64 + page.getTransactions().size() * 128);
+        json.append("{\"transactions\":[");
+        boolean first = true;
+        for (Transaction transaction : page.getTransactions()) {
+            json.append(first ? "{" : ",{");
+            first = false;
+            field(json, "id", Transaction.formatTransactionId(transaction.getTransactionId())).append(',');
+            field(json, "type", transaction.getType().name()).append(',');
+            money(json, "amount", transaction.getAmount()).append(',');
+            field(json, "description", transaction.getDescription()).append(',');
+            json.append("\"timestamp\":").append(transaction.getTimestampMillis()).append('}');
+        }
+        json.append("],\"nextCursor\":");
+        if (page.hasMore()) {
+            json.append(page.getNextCursor());
+        } else {
+            json.append("null");
+        }
+        send(exchange, 200, json.append('}'));
+    }
+
+    private void customers(HttpExchange exchange, Map<String, String> params)
+            throws IOException, BadRequestException {
+        HolderIndex holders = manager.getHolders();
+        String name = params.get("name");
+        if (name != null) {
+            HolderIndex.Summary customer = holders.summaryOf(name);
+            if (customer == null) {
+                send(exchange, 404, error("Customer " + name + " not found"));
+                return;
+            }
+            StringBuilder json = summary(new StringBuilder(256), customer);
+            json.setLength(json.length() - 1);
+            json.append(",\"accountNumbers\":[");
+            boolean first = true;
+            for (BankAccount account : holders.accountsOf(name)) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                string(json, account.getAccountNumber());
+            }
+            send(exchange, 200, json.append("]}"));
+            return;
+        }
+        String prefix = required(params, "prefix");
+        int limit = Math.min(integer(params, "limit", BankAccount.DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE);
+        StringBuilder json = new StringBuilder(1024).append("{\"customers\":[");
+        boolean first = true;
+        for (HolderIndex.Summary customer : holders.findByPrefix(prefix, limit)) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            summary(json, customer);
+        }
+        send(exchange, 200, json.append("]}"));
+    }
+
+    private void balances(HttpExchange exchange, Map<String, String> params)
+            throws IOException, BadRequestException {
+        BalanceIndex balances = manager.getBalances();
+        List<BankAccount> accounts;
+        if (params.containsKey("top")) {
+            accounts = balances.top(Math.min(integer(params, "top", BankAccount.DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE));
+        } else if (params.containsKey("belowMinimum")) {
+            accounts = balances.belowMinimum(Math.min(integer(params, "limit", MAX_PAGE_SIZE), MAX_PAGE_SIZE));
+        } else {
+            accounts = balances.between(amount(params, "from"), amount(params, "to"),
+                    Math.min(integer(params, "limit", MAX_PAGE_SIZE), MAX_PAGE_SIZE));
+        }
+        StringBuilder json = new StringBuilder(64 + accounts.size() * 96).append("{\"accounts\":[");
+        boolean first = true;
+        for (BankAccount account : accounts) {
+            json.append(first ? "{" : ",{");
+            first = false;
+            field(json, "accountNumber", account.getAccountNumber()).append(',');
+            field(json, "holder", account.getAccountHolder()).append(',');
+            money(json, "balance", account.getBalance()).append('}');
+        }
+        send(exchange, 200, json.append("]}"));
+    }
+
+    private void report(HttpExchange exchange) throws IOException {
+        BankStatistics statistics = manager.getStatistics();
+        StringBuilder json = new StringBuilder(512).append("{\"totals\":");
+        totals(json, statistics.getTotals()).append(",\"byType\":{");
+        boolean first = true;
+        for (Map.Entry<String, BankStatistics.Totals> entry : statistics.getTotalsByType().entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            string(json, entry.getKey()).append(':');
+            totals(json, entry.getValue());
+        }
+        send(exchange, 200, json.append("}}"));
+    }
+
+    private BankAccount account(String number) {
+        return manager.findAccount(number);
+    }
+
+    // ---- Responses ----
+
+    private static void sendResult(HttpExchange exchange, BankAccount account, OperationResult result)
+            throws IOException {
+        StringBuilder json = new StringBuilder(96).append('{');
+        field(json, "result", result.name()).append(',');
+        money(json, "balance", account.getBalance()).append('}');
+        send(exchange, result.isSuccess() ? 200 : 409, json);
+    }
+
+    private static void sendNotFound(HttpExchange exchange, String number) throws IOException {
+        send(exchange, 404, error("Account " + number + " not found"));
+    }
+
+    private static void send(HttpExchange exchange, int status, CharSequence json) throws IOException {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // For error paths, where the client may already have gone away
+    private static void sendQuietly(HttpExchange exchange, int status, CharSequence json) {
+        try {
+            send(exchange, status, json);
+        } catch (IOException | RuntimeException e) {
+            // nothing left to tell the client
+        }
+    }
+
+    private static StringBuilder error(String message) {
+        StringBuilder json = new StringBuilder(64).append('{');
+        return field(json, "error", message == null ? "" : message).append('}');
+    }
+
+    private static StringBuilder totals(StringBuilder json, BankStatistics.Totals totals) {
+        json.append("{\"accounts\":").append(totals.accounts());
+        json.append(",\"activeAccounts\":").append(totals.activeAccounts()).append(',');
+        return money(json, "balance", totals.balance()).append('}');
+    }
+
+    private static StringBuilder summary(StringBuilder json, HolderIndex.Summary customer) {
+        json.append('{');
+        field(json, "holderName", customer.holderName()).append(',');
+        json.append("\"accounts\":").append(customer.accounts());
+        json.append(",\"activeAccounts\":").append(customer.activeAccounts()).append(',');
+        return money(json, "balance", customer.balance()).append('}');
+    }
+
+    private static StringBuilder field(StringBuilder json, String name, String value) {
+        return string(string(json, name).append(':'), value);
+    }
+
+    // Amounts go out as strings of rupees so clients never see binary floating point
+    private static StringBuilder money(StringBuilder json, String name, long paise) {
+        string(json, name).append(":\"");
+        return Money.appendTo(json, paise).append('"');
+    }
+
+    private static StringBuilder string(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"');
+    }
+
+    // ---- Requests ----
+
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException, BadRequestException {
+        Map<String, String> params = new HashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), params);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            InputStream in = exchange.getRequestBody();
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new BadRequestException("Request body too large");
+            }
+            parse(new String(body, StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parse(String encoded, Map<String, String> params) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String idempotencyKey(HttpExchange exchange) throws BadRequestException {
+        String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        if (key != null && (key.isBlank() || key.length() > MAX_IDEMPOTENCY_KEY)) {
+            throw new BadRequestException("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY + " characters");
+        }
+        return key;
+    }
+
+    private static String required(Map<String, String> params, String name) throws BadRequestException {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new BadRequestException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static long amount(Map<String, String> params, String name) throws BadRequestException {
+        try {
+            return Money.parse(required(params, name));
+        } catch (ArithmeticException e) {
+            // More paise than a long holds
+            throw new BadRequestException(name + " is too large");
+        }
+    }
+
+    private static int integer(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
@@ -0,0 +1,73 @@
+package main.bankingSystem.management;
+
+// Account numbers such as "SAV1001" encoded as a long: the type prefix in the top
+// byte and the sequence number below it. The encoded form is what the registry keys
+// on; the text form is only produced for display.
+public final class AccountNumbers {
+    public static final int SAVINGS = 1;
+    public static final int CURRENT = 2;
+    public static final int FIXED_DEPOSIT = 3;
+
+    // Returned by parse() for text that is not a well-formed account number
+    public static final long INVALID = 0;
+
+    private static final String[] PREFIXES = {null, "SAV", "CUR", "FD"};
+    private static final int PREFIX_SHIFT = 56;
+    private static final long SEQUENCE_MASK = (1L << PREFIX_SHIFT) - 1;
+
+    private AccountNumbers() {
+    }
+
+    public static long encode(int prefix, long sequence) {
+        if (prefix < SAVINGS || prefix > FIXED_DEPOSIT) {
+            throw new IllegalArgumentException("Unknown account prefix " + prefix);
+        }
+        if (sequence <= 0 || sequence > SEQUENCE_MASK) {
+            throw new IllegalArgumentException("Account sequence out of range: " + sequence);
+        }
+        return ((long) prefix << PREFIX_SHIFT) | sequence;
+    }
+
+    public static long parse(String accountNumber) {
+        if (accountNumber == null) {
+            return INVALID;
+        }
+        for (int prefix = SAVINGS; prefix <= FIXED_DEPOSIT; prefix++) {
+            String text = PREFIXES[prefix];
+            if (accountNumber.startsWith(text)) {
+                long sequence = parseSequence(accountNumber, text.length());
+                return sequence == INVALID ? INVALID : ((long) prefix << PREFIX_SHIFT) | sequence;
+            }
+        }
+        return INVALID;
+    }
+
+    private static long parseSequence(String accountNumber, int start) {
+        int length = accountNumber.length();
+        // No leading zeros, so every number has exactly one spelling
+        if (start == length || length - start > 16 || accountNumber.charAt(start) == '0') {
+            return INVALID;
+        }
+        long sequence = 0;
+        for (int i = start; i < length; i++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            sequence = sequence * 10 + (c - '0');
+        }
+        return sequence > SEQUENCE_MASK ? INVALID : sequence;
+    }
+
+    public static String format(long accountNumber) {
+        return PREFIXES[prefixOf(accountNumber)] + sequenceOf(accountNumber);
+    }
+
+    public static int prefixOf(long accountNumber) {
+        return (int) (accountNumber >>> PREFIX_SHIFT);
+    }
+
+    public static long sequenceOf(long accountNumber) {
+        return accountNumber & SEQUENCE_MASK;
+    }
+}
@@ -0,0 +1,289 @@
+package main.bankingSystem.management;
+
+import main.bankingSystem.accounts.BankAccount;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+// Accounts keyed by their encoded long account number (see AccountNumbers).
+//
+// The table is split into shards, each an open-addressing long -> account hash table
+// with linear probing. Lookups are optimistic StampedLock reads, so getAccount never
+// blocks and never hashes a String. Each shard costs 12 bytes per slot (long key plus
+// compressed reference) instead of a map node plus a String key per account.
+//
+// Sequence numbers are handed out in blocks: each allocation shard reserves a block
+// from the shared counter and then allocates from it with a CAS, so concurrent account
+// creation never races and rarely touches shared state. A single thread still sees
+// consecutive numbers.
+public class AccountRegistry {
+    public static final long FIRST_SEQUENCE = 1001;
+
+    private static final int SHARD_COUNT = 16;
+    private static final int BLOCK_SIZE = 64;
+
+    private final Shard[] shards = new Shard[SHARD_COUNT];
+    private final AtomicLong nextBlock = new AtomicLong(FIRST_SEQUENCE);
+    private final AtomicReferenceArray<SequenceBlock> blocks = new AtomicReferenceArray<>(SHARD_COUNT);
+
+    public AccountRegistry() {
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            shards[i] = new Shard();
+            blocks.set(i, new SequenceBlock(0, 0));
+        }
+    }
+
+    // Allocates a fresh, never used account number with the given AccountNumbers prefix
+    public long nextAccountNumber(int prefix) {
+        int shard = (int) Thread.currentThread().getId() & (SHARD_COUNT - 1);
+        SequenceBlock block = blocks.get(shard);
+        long sequence = block.next.getAndIncrement();
+        if (sequence < block.end) {
+            return AccountNumbers.encode(prefix, sequence);
+        }
+        long start = nextBlock.getAndAdd(BLOCK_SIZE);
+        // If another thread refilled the shard first, the rest of our block is skipped
+        blocks.compareAndSet(shard, block, new SequenceBlock(start + 1, start + BLOCK_SIZE));
+        return AccountNumbers.encode(prefix, start);
+    }
+
+    // Recovery: makes sure sequences up to and including this one are never handed out
+    public void reserveThrough(long sequence) {
+        nextBlock.accumulateAndGet(sequence + 1, Math::max);
+    }
+
+    // Every sequence below this has been handed out (or skipped)
+    public long getNextSequence() {
+        return nextBlock.get();
+    }
+
+    public BankAccount get(long accountNumber) {
+        return shardFor(accountNumber).get(accountNumber);
+    }
+
+    // Returns the account previously registered under this number, if any
+    public BankAccount put(long accountNumber, BankAccount account) {
+        if (accountNumber == AccountNumbers.INVALID || account == null) {
+            throw new IllegalArgumentException("Invalid registry entry");
+        }
+        return shardFor(accountNumber).put(accountNumber, account);
+    }
+
+    public BankAccount remove(long accountNumber) {
+        return shardFor(accountNumber).remove(accountNumber);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Visits every account; weakly consistent with concurrent creates and deletes
+    public void forEach(Consumer<BankAccount> action) {
+        for (Shard shard : shards) {
+            shard.forEach(action);
+        }
+    }
+
+    // Shards double as work partitions for batch jobs that walk every account
+    public int partitionCount() {
+        return SHARD_COUNT;
+    }
+
+    public void forEachInPartition(int partition, Consumer<BankAccount> action) {
+        shards[partition].forEach(action);
+    }
+
+    private Shard shardFor(long accountNumber) {
+        return shards[(int) (mix(accountNumber) >>> 60)];
+    }
+
+    // 64-bit finalizer from MurmurHash3; spreads sequential account numbers evenly
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static final class SequenceBlock {
+        private final AtomicLong next;
+        private final long end;
+
+        private SequenceBlock(long next, long end) {
+            this.next = new AtomicLong(next);
+            this.end = end;
+        }
+    }
+
+    // Keys and values are swapped together on resize so an optimistic reader always
+    // sees a matching pair of arrays
+    private static final class Table {
+        private final long[] keys;
+        private final BankAccount[] values;
+
+        private Table(int capacity) {
+            keys = new long[capacity];
+            values = new BankAccount[capacity];
+        }
+    }
+
+    private static final class Shard {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table = new Table(INITIAL_CAPACITY);
+        private int size;
+
+        BankAccount get(long key) {
+            long stamp = lock.tryOptimisticRead();
+            BankAccount found = find(table, key);
+            if (lock.validate(stamp)) {
+                return found;
+            }
+            stamp = lock.readLock();
+            try {
+                return find(table, key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        // Safe against concurrent writers: the probe is bounded by the table length and
+        // any torn result is thrown away by the caller's validate()
+        private static BankAccount find(Table current, long key) {
+            long[] keys = current.keys;
+            int mask = keys.length - 1;
+            int slot = (int) mix(key) & mask;
+            for (int probes = 0; probes < keys.length; probes++) {
+                long candidate = keys[slot];
+                if (candidate == key) {
+                    return current.values[slot];
+                }
+                if (candidate == 0) {
+                    return null;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        BankAccount put(long key, BankAccount value) {
+            long stamp = lock.writeLock();
+            try {
+                Table current = table;
+                if ((size + 1) * 4L > current.keys.length * 3L) {
+                    current = resize(current);
+                }
+                long[] keys = current.keys;
+                int mask = keys.length - 1;
+                int slot = (int) mix(key) & mask;
+                while (keys[slot] != 0) {
+                    if (keys[slot] == key) {
+                        BankAccount previous = current.values[slot];
+                        current.values[slot] = value;
+                        return previous;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                current.values[slot] = value;
+                size++;
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        BankAccount remove(long key) {
+            long stamp = lock.writeLock();
+            try {
+                Table current = table;
+                long[] keys = current.keys;
+                BankAccount[] values = current.values;
+                int mask = keys.length - 1;
+                int slot = (int) mix(key) & mask;
+                while (keys[slot] != key) {
+                    if (keys[slot] == 0) {
+                        return null;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                BankAccount removed = values[slot];
+
+                // Backward-shift deletion keeps probe chains intact without tombstones
+                int gap = slot;
+                int next = (gap + 1) & mask;
+                while (keys[next] != 0) {
+                    int home = (int) mix(keys[next]) & mask;
+                    if (((next - home) & mask) >= ((next - gap) & mask)) {
+                        keys[gap] = keys[next];
+                        values[gap] = values[next];
+                        gap = next;
+                    }
+                    next = (next + 1) & mask;
+                }
+                keys[gap] = 0;
+                values[gap] = null;
+                size--;
+                return removed;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private Table resize(Table current) {
+            Table grown = new Table(current.keys.length * 2);
+            int mask = grown.keys.length - 1;
+            for (int i = 0; i < current.keys.length; i++) {
+                long key = current.keys[i];
+                if (key != 0) {
+                    int slot = (int) mix(key) & mask;
+                    while (grown.keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    grown.keys[slot] = key;
+                    grown.values[slot] = current.values[i];
+                }
+            }
+            table = grown;
+            return grown;
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void forEach(Consumer<BankAccount> action) {
+            BankAccount[] values;
+            long stamp = lock.readLock();
+            try {
+                values = table.values.clone();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            // Run the action outside the lock so it may create or delete accounts
+            for (BankAccount value : values) {
+                if (value != null) {
+                    action.accept(value);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package main.bankingSystem.management;
+
+import main.bankingSystem.accounts.AccountListener;
+import main.bankingSystem.accounts.BankAccount;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Every account ordered by balance, highest first (then by account number), kept
+// current as money moves, so top-N, balance-range and below-minimum queries cost
+// O(log n + k) instead of a sort of every account.
+//
+// Accounts below their own minimum balance are also kept in a second, much smaller
+// set in the same order. Minimums differ by account type (an FD's is far above a
+// current account's), so no single balance bound separates them in the main set.
+//
+// Each account gets a small listener holding its parsed number. A balance change
+// removes the account's (old balance, number) entry from a concurrent skip list and
+// inserts (new balance, number). Listeners run under the account lock, so one
+// account's entries are always replaced in order; a query running at the same moment
+// may miss an account whose entry is between the two steps.
+//
+// The order is descending because a skip list walks forward by following one link per
+// entry but walks backward with a fresh search per entry, and top-N is the common
+// query.
+//
+// Like BankStatistics, accountAdded and accountRemoved must be called while holding
+// the account's lock.
+public class BalanceIndex {
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<Entry> belowMinimum = new ConcurrentSkipListSet<>();
+
+    private record Entry(long balance, long number, Tracked tracked) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int byBalance = Long.compare(other.balance, balance);
+            return byBalance != 0 ? byBalance : Long.compare(number, other.number);
+        }
+    }
+
+    private final class Tracked implements AccountListener {
+        private final BankAccount account;
+        private final long number;
+
+        private Tracked(BankAccount account, long number) {
+            this.account = account;
+            this.number = number;
+        }
+
+        @Override
+        public void balanceChanged(BankAccount account, long oldBalance, long newBalance) {
+            entries.remove(new Entry(oldBalance, number, null));
+            Entry entry = new Entry(newBalance, number, this);
+            entries.add(entry);
+            long minimum = account.getMinimumBalance();
+            if (oldBalance < minimum) {
+                belowMinimum.remove(new Entry(oldBalance, number, null));
+            }
+            if (newBalance < minimum) {
+                belowMinimum.add(entry);
+            }
+        }
+
+        @Override
+        public void minimumBalanceChanged(BankAccount account, long oldMinimum, long newMinimum) {
+            Entry entry = new Entry(account.getBalance(), number, this);
+            if (entry.balance < newMinimum) {
+                belowMinimum.add(entry);
+            } else {
+                belowMinimum.remove(entry);
+            }
+        }
+    }
+
+    public void accountAdded(BankAccount account) {
+        Tracked tracked = new Tracked(account, AccountNumbers.parse(account.getAccountNumber()));
+        Entry entry = new Entry(account.getBalance(), tracked.number, tracked);
+        entries.add(entry);
+        if (entry.balance < account.getMinimumBalance()) {
+            belowMinimum.add(entry);
+        }
+        account.addListener(tracked);
+    }
+
+    public void accountRemoved(BankAccount account) {
+        Entry entry = entries.ceiling(new Entry(account.getBalance(),
+                AccountNumbers.parse(account.getAccountNumber()), null));
+        if (entry != null && entry.tracked.account == account) {
+            entries.remove(entry);
+            belowMinimum.remove(entry);
+            account.removeListener(entry.tracked);
+        }
+    }
+
+    // The 'limit' accounts with the highest balances, highest first
+    public List<BankAccount> top(int limit) {
+        return collect(entries, limit);
+    }
+
+    // Accounts with from <= balance <= to, highest balance first
+    public List<BankAccount> between(long from, long to, int limit) {
+        if (from > to) {
+            return new ArrayList<>();
+        }
+        return collect(entries.subSet(new Entry(to, Long.MIN_VALUE, null), true,
+                new Entry(from, Long.MAX_VALUE, null), true), limit);
+    }
+
+    // Accounts whose balance is below their own minimum balance, highest balance first
+    public List<BankAccount> belowMinimum(int limit) {
+        return collect(belowMinimum, limit);
+    }
+
+    private static List<BankAccount> collect(NavigableSet<Entry> range, int limit) {
+        List<BankAccount> result = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        for (Entry entry : range) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(entry.tracked.account);
+        }
+        return result;
+    }
+}
@@ -1,116 +1,805 @@
 package main.bankingSystem.management;
 
 import main.bankingSystem.accounts.*;
+import main.bankingSystem.persistence.AccountChange;
+import main.bankingSystem.persistence.JournalRecord;
+import main.bankingSystem.persistence.TransactionJournal;
+import main.bankingSystem.transactions.HistoryArchive;
+import main.bankingSystem.transactions.TransactionType;
+import main.bankingSystem.util.Money;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 public class BankManager {
-    private final Map<String, BankAccount> accounts;
-    private int accountCounter;
+    private final AccountRegistry accounts;
+    private final TransactionJournal journal;
+    private final BankStatistics statistics = new BankStatistics();
+    private final HolderIndex holders = new HolderIndex();
+    private final BalanceIndex balances = new BalanceIndex();
+    private final TransactionIndex transactions = new TransactionIndex();
+    private final MaturityScheduler maturities;
+    // Registrations hold the read lock from journaling OPENED until the account is in the
+    // registry; a snapshot takes the write lock to pick its journal position
+    private final ReentrantReadWriteLock registration = new ReentrantReadWriteLock();
+    private ScheduledExecutorService snapshots;
+    // Set once by startHistoryArchive; read under the registration read lock
+    private volatile HistoryArchive archive;
+    private ScheduledExecutorService archiving;
+    private volatile PartitionedExecutor partitioned;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder lookupMisses = new LongAdder();
+    private RecoveryReport lastRecovery;
+    // Outcomes of operations run with an idempotency key, kept for a day
+    private final IdempotencyCache idempotency = new IdempotencyCache(IDEMPOTENCY_CAPACITY, 24, TimeUnit.HOURS);
+
+    private static final int IDEMPOTENCY_CAPACITY = 1 << 20;
 
     public BankManager() {
-        this.accounts = new ConcurrentHashMap<>();
-        this.accountCounter = 1000;
+        this(null);
+    }
+
+    // Every account created by this manager writes its transactions to the journal
+    public BankManager(TransactionJournal journal) {
+        this.accounts = new AccountRegistry();
+        this.journal = journal;
+        this.maturities = new MaturityScheduler(accounts, journal);
+    }
+
+    private void register(long accountNumber, BankAccount account) {
+        registration.readLock().lock();
+        try {
+            if (journal != null) {
+                account.attachJournal(journal);
+            }
+            if (archive != null) {
+                account.attachArchive(archive);
+            }
+            watch(account);
+            accounts.put(accountNumber, account);
+        } finally {
+            registration.readLock().unlock();
+        }
+        scheduleMaturity(accountNumber, account);
+    }
+
+    private void watch(BankAccount account) {
+        synchronized (account) {
+            account.addListener(statistics);
+            statistics.accountAdded(account);
+            holders.accountAdded(account);
+            balances.accountAdded(account);
+            transactions.accountAdded(account);
+        }
     }
 
-    public String createSavingsAccount(String holderName, double initialDeposit) {
-        String accountNumber = "SAV" + (++accountCounter);
+    private void scheduleMaturity(long accountNumber, BankAccount account) {
+        if (account instanceof FixedDepositAccount) {
+            account.addListener(maturities);
+            maturities.schedule(accountNumber, (FixedDepositAccount) account);
+        }
+    }
+
+    public String createSavingsAccount(String holderName, long initialDeposit) {
+        long number = accounts.nextAccountNumber(AccountNumbers.SAVINGS);
+        String accountNumber = AccountNumbers.format(number);
         BankAccount account = new SavingsAccount(accountNumber, holderName, initialDeposit);
-        accounts.put(accountNumber, account);
-        System.out.println("✅ Savings Account created successfully!");
-        System.out.println("Account Number: " + accountNumber);
+        register(number, account);
         return accountNumber;
     }
 
-    public String createCurrentAccount(String holderName, double initialDeposit,
-            double overdraftLimit) {
-        String accountNumber = "CUR" + (++accountCounter);
+    public String createCurrentAccount(String holderName, long initialDeposit,
+            long overdraftLimit) {
+        long number = accounts.nextAccountNumber(AccountNumbers.CURRENT);
+        String accountNumber = AccountNumbers.format(number);
         BankAccount account = new CurrentAccount(accountNumber, holderName,
                 initialDeposit, overdraftLimit);
-        accounts.put(accountNumber, account);
-        System.out.println("✅ Current Account created successfully!");
-        System.out.println("Account Number: " + accountNumber);
+        register(number, account);
         return accountNumber;
     }
 
-    public String createFixedDepositAccount(String holderName, double depositAmount,
+    public String createFixedDepositAccount(String holderName, long depositAmount,
             int tenureMonths) {
-        String accountNumber = "FD" + (++accountCounter);
+        long number = accounts.nextAccountNumber(AccountNumbers.FIXED_DEPOSIT);
+        String accountNumber = AccountNumbers.format(number);
         BankAccount account = new FixedDepositAccount(accountNumber, holderName,
                 depositAmount, tenureMonths);
-        accounts.put(accountNumber, account);
-        System.out.println("✅ Fixed Deposit Account created successfully!");
-        System.out.println("Account Number: " + accountNumber);
+        register(number, account);
         return accountNumber;
     }
 
     public BankAccount getAccount(String accountNumber) {
-        BankAccount account = accounts.get(accountNumber);
+        BankAccount account = findAccount(accountNumber);
         if (account == null) {
             System.out.println("❌ Account not found!");
         }
         return account;
     }
 
+    // Same as getAccount without the console message, for callers that report misses
+    // themselves
+    public BankAccount findAccount(String accountNumber) {
+        BankAccount account = lookup(accountNumber);
+        lookups.increment();
+        if (account == null) {
+            lookupMisses.increment();
+        }
+        return account;
+    }
+
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+
+    public long getLookupMissCount() {
+        return lookupMisses.sum();
+    }
+
+    // Applies many transfers in one go (see TransferBatch); results are in request order
+    public List<TransferResult> submitTransfers(List<TransferRequest> requests) {
+        int legs = requests.size();
+        BankAccount[] sources = new BankAccount[legs];
+        BankAccount[] targets = new BankAccount[legs];
+        long[] amounts = new long[legs];
+        for (int i = 0; i < legs; i++) {
+            TransferRequest request = requests.get(i);
+            sources[i] = lookup(request.fromAccount());
+            targets[i] = lookup(request.toAccount());
+            amounts[i] = request.amount();
+        }
+
+        OperationResult[] outcomes = TransferBatch.apply(sources, targets, amounts);
+        List<TransferResult> results = new ArrayList<>(legs);
+        for (int i = 0; i < legs; i++) {
+            results.add(new TransferResult(requests.get(i), outcomes[i]));
+        }
+        return results;
+    }
+
+    // Money movements a client may retry. With an idempotency key, a repeat of the same
+    // request returns the first outcome without running again; reusing a key for a
+    // different request throws IllegalArgumentException. A null key always runs.
+    public OperationResult deposit(String accountNumber, long amount, String idempotencyKey) {
+        long request = fingerprint(OperationRecorder.Operation.DEPOSIT, accountNumber, null, amount);
+        return idempotent(idempotencyKey, request, () -> {
+            BankAccount account = lookup(accountNumber);
+            return account == null ? OperationResult.ACCOUNT_NOT_FOUND : account.deposit(amount);
+        });
+    }
+
+    public OperationResult withdraw(String accountNumber, long amount, String idempotencyKey) {
+        long request = fingerprint(OperationRecorder.Operation.WITHDRAWAL, accountNumber, null, amount);
+        return idempotent(idempotencyKey, request, () -> {
+            BankAccount account = lookup(accountNumber);
+            return account == null ? OperationResult.ACCOUNT_NOT_FOUND : account.withdraw(amount);
+        });
+    }
+
+    public OperationResult transfer(String fromAccount, String toAccount, long amount, String idempotencyKey) {
+        long request = fingerprint(OperationRecorder.Operation.TRANSFER, fromAccount, toAccount, amount);
+        return idempotent(idempotencyKey, request, () -> {
+            BankAccount source = lookup(fromAccount);
+            BankAccount target = lookup(toAccount);
+            return source == null || target == null ? OperationResult.ACCOUNT_NOT_FOUND
+                    : source.transfer(target, amount);
+        });
+    }
+
+    private OperationResult idempotent(String key, long request, Supplier<OperationResult> operation) {
+        return key == null ? operation.get() : idempotency.execute(key, request, operation);
+    }
+
+    // What a key was first used for, so a reuse for anything else can be caught
+    private static long fingerprint(OperationRecorder.Operation operation, String from, String to, long amount) {
+        long hash = operation.ordinal();
+        hash = hash * 0x9E3779B97F4A7C15L + AccountNumbers.parse(from);
+        hash = hash * 0x9E3779B97F4A7C15L + (to == null ? 0 : AccountNumbers.parse(to));
+        hash = hash * 0x9E3779B97F4A7C15L + amount;
+        return hash ^ (hash >>> 31);
+    }
+
+    public IdempotencyCache getIdempotencyCache() {
+        return idempotency;
+    }
+
+    private BankAccount lookup(String accountNumber) {
+        long number = AccountNumbers.parse(accountNumber);
+        return number == AccountNumbers.INVALID ? null : accounts.get(number);
+    }
+
+    // Starts the single-writer mode (see PartitionedExecutor): the submit* methods below
+    // queue each operation to the worker that owns the account
+    public synchronized void startPartitionedMode(int workers) {
+        if (partitioned != null) {
+            throw new IllegalStateException("Partitioned mode already running");
+        }
+        partitioned = new PartitionedExecutor(accounts, journal, workers);
+    }
+
+    // Finishes every accepted operation, then stops the workers
+    public synchronized void stopPartitionedMode() {
+        if (partitioned != null) {
+            partitioned.stop();
+            partitioned = null;
+        }
+    }
+
+    public CompletableFuture<OperationResult> submitDeposit(String accountNumber, long amount) {
+        long number = AccountNumbers.parse(accountNumber);
+        return number == AccountNumbers.INVALID ? notFound() : partitioned().deposit(number, amount);
+    }
+
+    public CompletableFuture<OperationResult> submitWithdrawal(String accountNumber, long amount) {
+        long number = AccountNumbers.parse(accountNumber);
+        return number == AccountNumbers.INVALID ? notFound() : partitioned().withdraw(number, amount);
+    }
+
+    public CompletableFuture<OperationResult> submitTransfer(String fromAccount, String toAccount, long amount) {
+        long from = AccountNumbers.parse(fromAccount);
+        long to = AccountNumbers.parse(toAccount);
+        if (from == AccountNumbers.INVALID || to == AccountNumbers.INVALID) {
+            return notFound();
+        }
+        return partitioned().transfer(from, to, amount);
+    }
+
+    private PartitionedExecutor partitioned() {
+        PartitionedExecutor executor = partitioned;
+        if (executor == null) {
+            throw new IllegalStateException("Partitioned mode is not running");
+        }
+        return executor;
+    }
+
+    private static CompletableFuture<OperationResult> notFound() {
+        return CompletableFuture.completedFuture(OperationResult.ACCOUNT_NOT_FOUND);
+    }
+
     public void displayAllAccounts() {
         if (accounts.isEmpty()) {
             System.out.println("No accounts in the system.");
             return;
         }
 
+        printAccountsHeader("ALL ACCOUNTS");
+        accounts.forEach(BankManager::printAccountRow);
+        System.out.println("=".repeat(100));
+    }
+
+    // Lists accounts in the order given, e.g. from a BalanceIndex query
+    public void displayAccounts(String title, List<BankAccount> list) {
+        if (list.isEmpty()) {
+            System.out.println("No matching accounts.");
+            return;
+        }
+        printAccountsHeader(title);
+        list.forEach(BankManager::printAccountRow);
+        System.out.println("=".repeat(100));
+    }
+
+    private static void printAccountsHeader(String title) {
         System.out.println("\n" + "=".repeat(100));
-        System.out.println("                                  ALL ACCOUNTS");
+        System.out.println(" ".repeat(34) + title);
         System.out.println("=".repeat(100));
         System.out.printf("%-15s %-20s %-25s %-15s %-12s%n",
                 "Account No", "Type", "Holder", "Balance", "Status");
         System.out.println("-".repeat(100));
+    }
 
-        for (BankAccount account : accounts.values()) {
-            System.out.printf("%-15s %-20s %-25s ₹%-14.2f %-12s%n",
+    private static void printAccountRow(BankAccount account) {
+        System.out.printf("%-15s %-20s %-25s ₹%-14s %-12s%n",
+                account.getAccountNumber(),
+                account.getAccountType(),
+                account.getAccountHolder(),
+                Money.format(account.getBalance()),
+                account.isActive() ? "Active" : "Inactive");
+    }
+
+    // Shows the customer with exactly this name and their accounts, or else the
+    // customers whose names start with it
+    public void displayCustomer(String name) {
+        HolderIndex.Summary customer = holders.summaryOf(name);
+        if (customer == null) {
+            List<HolderIndex.Summary> matches = holders.findByPrefix(name, 20);
+            if (matches.isEmpty()) {
+                System.out.println("❌ No customer found!");
+                return;
+            }
+            System.out.printf("%n%-30s %-10s %-15s%n", "Customer", "Accounts", "Total Balance");
+            System.out.println("-".repeat(60));
+            for (HolderIndex.Summary match : matches) {
+                System.out.printf("%-30s %-10d ₹%-14s%n", match.holderName(), match.accounts(),
+                        Money.format(match.balance()));
+            }
+            return;
+        }
+
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("Customer         : " + customer.holderName());
+        System.out.println("Accounts         : " + customer.accounts() + " (" + customer.activeAccounts() + " active)");
+        System.out.println("Total Balance    : ₹" + Money.format(customer.balance()));
+        System.out.println("-".repeat(100));
+        for (BankAccount account : holders.accountsOf(name)) {
+            System.out.printf("%-15s %-20s ₹%-14s %-12s%n",
                     account.getAccountNumber(),
                     account.getAccountType(),
-                    account.getAccountHolder(),
-                    account.getBalance(),
+                    Money.format(account.getBalance()),
                     account.isActive() ? "Active" : "Inactive");
         }
         System.out.println("=".repeat(100));
     }
 
+    public int getPendingMaturities() {
+        return maturities.pending();
+    }
+
+    public long getMaturedCount() {
+        return maturities.maturedCount();
+    }
+
+    // Stops partitioned mode, the maturity scheduler, and the snapshot and archiving
+    // threads
+    public synchronized void shutdown() {
+        stopPartitionedMode();
+        maturities.shutdown();
+        stop(snapshots);
+        stop(archiving);
+    }
+
+    private static void stop(ScheduledExecutorService executor) {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public BankStatistics getStatistics() {
+        return statistics;
+    }
+
+    public HolderIndex getHolders() {
+        return holders;
+    }
+
+    public BalanceIndex getBalances() {
+        return balances;
+    }
+
+    public TransactionIndex getTransactionIndex() {
+        return transactions;
+    }
+
     public void generateBankReport() {
+        generateBankReport(false);
+    }
+
+    // Reads the running totals; with verify set, also rescans every account and
+    // reports any difference (expected only while transactions are in flight)
+    public void generateBankReport(boolean verify) {
         System.out.println("\n" + "=".repeat(60));
         System.out.println("                     BANK REPORT");
         System.out.println("=".repeat(60));
 
-        long totalAccounts = accounts.size();
-        long activeAccounts = accounts.values().stream()
-                .filter(BankAccount::isActive).count();
-        double totalBalance = accounts.values().stream()
-                .mapToDouble(BankAccount::getBalance).sum();
-
-        Map<String, Long> accountTypeCount = accounts.values().stream()
-                .collect(Collectors.groupingBy(BankAccount::getAccountType,
-                        Collectors.counting()));
+        Map<String, BankStatistics.Totals> byType = statistics.getTotalsByType();
+        BankStatistics.Totals totals = statistics.getTotals();
 
-        System.out.println("Total Accounts     : " + totalAccounts);
-        System.out.println("Active Accounts    : " + activeAccounts);
-        System.out.println("Total Bank Balance : ₹" + String.format("%.2f", totalBalance));
+        System.out.println("Total Accounts     : " + totals.accounts());
+        System.out.println("Active Accounts    : " + totals.activeAccounts());
+        System.out.println("Total Bank Balance : ₹" + Money.format(totals.balance()));
         System.out.println("\nAccount Types:");
-        accountTypeCount.forEach((type, count) -> System.out.println("  " + type + ": " + count));
+        byType.forEach((type, typeTotals) -> {
+            if (typeTotals.accounts() > 0) {
+                System.out.println("  " + type + ": " + typeTotals.accounts()
+                        + " (₹" + Money.format(typeTotals.balance()) + ")");
+            }
+        });
+        if (verify) {
+            verifyReport(byType);
+        }
         System.out.println("=".repeat(60));
     }
 
+    private void verifyReport(Map<String, BankStatistics.Totals> expected) {
+        Map<String, long[]> scanned = new HashMap<>();
+        accounts.forEach(account -> {
+            long[] counts = scanned.computeIfAbsent(account.getAccountType(), type -> new long[3]);
+            counts[0]++;
+            if (account.isActive()) {
+                counts[1]++;
+            }
+            counts[2] += account.getBalance();
+        });
+
+        Map<String, BankStatistics.Totals> actual = new TreeMap<>();
+        scanned.forEach((type, counts) ->
+                actual.put(type, new BankStatistics.Totals(counts[0], counts[1], counts[2])));
+        expected.forEach((type, totals) -> {
+            if (totals.accounts() > 0) {
+                actual.putIfAbsent(type, new BankStatistics.Totals(0, 0, 0));
+            }
+        });
+
+        boolean matches = true;
+        for (Map.Entry<String, BankStatistics.Totals> entry : actual.entrySet()) {
+            BankStatistics.Totals running = expected.getOrDefault(entry.getKey(),
+                    new BankStatistics.Totals(0, 0, 0));
+            if (!running.equals(entry.getValue())) {
+                matches = false;
+                System.out.println("❌ " + entry.getKey() + " mismatch: running " + running
+                        + ", scanned " + entry.getValue());
+            }
+        }
+        if (matches) {
+            System.out.println("\n✅ Full scan matches running totals");
+        }
+    }
+
+    // Posts end-of-day interest to every Savings and Fixed Deposit account in parallel.
+    // If the checkpoint shows an unfinished earlier run, that run is resumed instead.
+    public InterestRunReport postInterest(LocalDate runDate, Path checkpointFile, int threads)
+            throws IOException {
+        return new InterestPostingJob(accounts, journal, checkpointFile, threads).run(runDate);
+    }
+
+    // Writes the statement of every account for fromMillis <= timestamp < toMillis to one
+    // file, in account number order, and returns the number of transactions written
+    public long exportStatements(Path file, StatementExporter.Format format, long fromMillis, long toMillis)
+            throws IOException {
+        List<BankAccount> all = new ArrayList<>(accounts.size());
+        accounts.forEach(all::add);
+        long[] numbers = new long[all.size()];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = AccountNumbers.parse(all.get(i).getAccountNumber());
+        }
+        Arrays.sort(numbers);
+        try (StatementExporter exporter = StatementExporter.open(file, format)) {
+            for (long number : numbers) {
+                BankAccount account = accounts.get(number);
+                // Deleted since the scan
+                if (account != null) {
+                    exporter.exportAccount(account, fromMillis, toMillis);
+                }
+            }
+            return exporter.getRowsWritten();
+        }
+    }
+
+    // Rebuilds a manager from the latest snapshot (if any) plus the journal records after
+    // it. Accounts opened before the journal recorded OPENED records cannot be rebuilt;
+    // their records are counted as skipped. Restored accounts start with the history
+    // found in the replayed tail only.
+    public static BankManager recover(TransactionJournal journal, Path snapshotFile) throws IOException {
+        return recover(journal, snapshotFile, null);
+    }
+
+    // As above, with the history archive the snapshot's archived segments live in. Every
+    // recovered account gets it attached; startHistoryArchive with the same archive then
+    // only starts the age sweep.
+    public static BankManager recover(TransactionJournal journal, Path snapshotFile, HistoryArchive archive)
+            throws IOException {
+        long start = System.nanoTime();
+        BankManager manager = new BankManager(journal);
+        manager.archive = archive;
+        AccountRegistry accounts = manager.accounts;
+        long[] counts = new long[3];
+
+        SnapshotFile.Header header = snapshotFile == null ? null
+                : SnapshotFile.read(snapshotFile, archive, account -> {
+            long number = AccountNumbers.parse(account.getAccountNumber());
+            accounts.put(number, account);
+            accounts.reserveThrough(AccountNumbers.sequenceOf(number));
+            counts[0]++;
+        });
+        long after = 0;
+        if (header != null) {
+            accounts.reserveThrough(header.nextAccountSequence() - 1);
+            after = header.journalSequence();
+        }
+        long loaded = System.nanoTime();
+        // Debits of partitioned transfers (see AccountCommands) not yet matched by a
+        // credit or refund, by transfer id
+        Map<Long, JournalRecord> openTransfers = new LinkedHashMap<>();
+        if (journal != null) {
+            PendingBatches batches = new PendingBatches();
+            journal.replay(after, record -> {
+                if (batches.holdBack(record)) {
+                    return;
+                }
+                for (JournalRecord ready : batches.release(record)) {
+                    counts[manager.replay(ready) ? 1 : 2]++;
+                    if (ready.transferId() != 0) {
+                        if (ready.type() == TransactionType.TRANSFER_OUT) {
+                            openTransfers.put(ready.transferId(), ready);
+                        } else {
+                            openTransfers.remove(ready.transferId());
+                        }
+                    }
+                }
+            });
+            // Windows the crash cut short are rolled back
+            counts[2] += batches.rollBack(journal);
+        }
+
+        accounts.forEach(account -> {
+            if (journal != null) {
+                account.resumeJournal(journal);
+            }
+            if (archive != null) {
+                account.attachArchive(archive);
+            }
+            manager.watch(account);
+            manager.scheduleMaturity(AccountNumbers.parse(account.getAccountNumber()), account);
+        });
+
+        // The crash came between a transfer's debit and its credit: the money goes back
+        // to the source, journaled with the transfer id so later recoveries see it settled
+        long refunded = 0;
+        for (JournalRecord debit : openTransfers.values()) {
+            BankAccount source = accounts.get(AccountNumbers.parse(debit.accountNumber()));
+            if (source != null) {
+                AccountCommands.refund(source, debit.amount(), debit.transferId());
+                refunded++;
+            }
+        }
+        if (refunded > 0) {
+            journal.syncAll();
+        }
+        manager.lastRecovery = new RecoveryReport(counts[0], counts[1], counts[2], refunded, accounts.size(),
+                loaded - start, System.nanoTime() - start);
+        return manager;
+    }
+
+    private boolean replay(JournalRecord record) {
+        long number = AccountNumbers.parse(record.accountNumber());
+        if (number == AccountNumbers.INVALID) {
+            return false;
+        }
+        if (record.change() == AccountChange.OPENED) {
+            if (accounts.get(number) != null) {
+                return false;
+            }
+            AccountState.Kind kind = switch (AccountNumbers.prefixOf(number)) {
+                case AccountNumbers.SAVINGS -> AccountState.Kind.SAVINGS;
+                case AccountNumbers.CURRENT -> AccountState.Kind.CURRENT;
+                default -> AccountState.Kind.FIXED_DEPOSIT;
+            };
+            accounts.put(number, BankAccount.restore(AccountState.opened(kind, record.accountNumber(),
+                    record.holderName(), record.timestampMillis(), record.amount(), record.sequence())));
+            accounts.reserveThrough(AccountNumbers.sequenceOf(number));
+            return true;
+        }
+        if (record.change() == AccountChange.DELETED) {
+            return accounts.remove(number) != null;
+        }
+        BankAccount account = accounts.get(number);
+        return account != null && account.applyJournalRecord(record);
+    }
+
+    // Holds back the records of TransferBatch windows until their BATCH_END, so that a
+    // window is replayed whole or not at all. A window whose BATCH_BEGIN came before the
+    // snapshot's journal position finished before the snapshot did (its accounts stayed
+    // locked until then), so records seen without one are released at once. Windows
+    // the journal ends inside are dropped, and recovery journals BATCH_ROLLED_BACK for
+    // them so later recoveries drop them too and release the records that follow.
+    private static final class PendingBatches {
+        private final Map<String, Long> batchOf = new HashMap<>();
+        private final Map<Long, List<JournalRecord>> held = new HashMap<>();
+        private final Map<Long, String> firstAccount = new HashMap<>();
+
+        // True if the record was taken: a marker, or a record of an account in a window
+        private boolean holdBack(JournalRecord record) {
+            AccountChange change = record.change();
+            if (change == AccountChange.BATCH_BEGIN) {
+                batchOf.put(record.accountNumber(), record.amount());
+                held.computeIfAbsent(record.amount(), id -> new ArrayList<>());
+                firstAccount.putIfAbsent(record.amount(), record.accountNumber());
+                return true;
+            }
+            if (change == AccountChange.BATCH_ROLLED_BACK) {
+                close(record.amount());
+                return true;
+            }
+            if (change == AccountChange.BATCH_END) {
+                return false;
+            }
+            Long batch = batchOf.get(record.accountNumber());
+            if (batch == null) {
+                return false;
+            }
+            held.get(batch).add(record);
+            return true;
+        }
+
+        // Records to apply now: the window's held records for a BATCH_END, else the record
+        private List<JournalRecord> release(JournalRecord record) {
+            if (record.change() != AccountChange.BATCH_END) {
+                return List.of(record);
+            }
+            List<JournalRecord> records = close(record.amount());
+            return records == null ? List.of() : records;
+        }
+
+        private List<JournalRecord> close(long batch) {
+            firstAccount.remove(batch);
+            batchOf.values().removeIf(open -> open == batch);
+            return held.remove(batch);
+        }
+
+        // Journals the rollback of every window still open and returns the records dropped
+        private long rollBack(TransactionJournal journal) {
+            long dropped = 0;
+            for (Map.Entry<Long, List<JournalRecord>> window : held.entrySet()) {
+                dropped += window.getValue().size();
+                journal.appendChange(firstAccount.get(window.getKey()), AccountChange.BATCH_ROLLED_BACK,
+                        window.getKey(), System.currentTimeMillis());
+            }
+            if (!held.isEmpty()) {
+                journal.syncAll();
+            }
+            held.clear();
+            batchOf.clear();
+            firstAccount.clear();
+            return dropped;
+        }
+    }
+
+    public RecoveryReport getLastRecovery() {
+        return lastRecovery;
+    }
+
+    // Writes a snapshot of every account without stopping other threads and returns the
+    // number of accounts written
+    public long writeSnapshot(Path file) throws IOException {
+        SnapshotFile.Header header;
+        HistoryArchive history = archive;
+        registration.writeLock().lock();
+        try {
+            header = new SnapshotFile.Header(journal == null ? 0 : replayStart(),
+                    accounts.getNextSequence(), history == null ? 0 : history.getId());
+        } finally {
+            registration.writeLock().unlock();
+        }
+        return SnapshotFile.write(file, accounts, header, () -> {
+            if (journal != null) {
+                journal.syncAll();
+            }
+            if (history != null) {
+                try {
+                    history.force();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not force the history archive", e);
+                }
+            }
+        });
+    }
+
+    // Writes a snapshot every 'intervalSeconds' on a background thread
+    // Where recovery from a snapshot taken now must start replaying: the journal's end,
+    // or earlier while a partitioned transfer is between its legs, so that recovery
+    // still sees the debit and can refund it if the credit never comes. Replaying
+    // records the snapshot already holds is harmless; accounts skip them.
+    private long replayStart() {
+        // Read the end first: a transfer that opens after it debits beyond it
+        long last = journal.getLastSequence();
+        PartitionedExecutor executor = partitioned;
+        return executor == null ? last : Math.min(last, executor.oldestOpenLeg());
+    }
+
+    public synchronized void startSnapshots(Path file, long intervalSeconds) {
+        if (snapshots != null) {
+            throw new IllegalStateException("Snapshots already running");
+        }
+        snapshots = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshots.scheduleWithFixedDelay(() -> {
+            try {
+                writeSnapshot(file);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("❌ Snapshot failed: " + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Keeps only recent history of every account, current and future, on heap (see
+    // HistoryArchive). The row limit is enforced as accounts record transactions; if the
+    // archive also has an age limit, every account is swept against it each
+    // 'sweepIntervalSeconds' on a background thread.
+    //
+    // Transactions older than the hot age also drop out of the transaction index, so
+    // neither tier keeps them on heap; without an age limit the index keeps its own
+    // retention.
+    public synchronized void startHistoryArchive(HistoryArchive archive, long sweepIntervalSeconds) {
+        if (this.archive != null && this.archive != archive || archiving != null) {
+            throw new IllegalStateException("History archive already attached");
+        }
+        // Accounts registering from now on attach it themselves
+        registration.writeLock().lock();
+        try {
+            this.archive = archive;
+        } finally {
+            registration.writeLock().unlock();
+        }
+        accounts.forEach(account -> account.attachArchive(archive));
+        if (archive.getHotAgeMillis() == 0) {
+            return;
+        }
+        transactions.setRetention(archive.getHotAgeMillis(), TimeUnit.MILLISECONDS);
+        archiving = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "history-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        archiving.scheduleWithFixedDelay(() -> {
+            try {
+                archiveHistory();
+            } catch (RuntimeException e) {
+                System.out.println("❌ History archiving failed: " + e.getMessage());
+            }
+        }, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Moves every account's history past the archive's hot age off heap now; returns
+    // the number of transactions moved
+    public long archiveHistory() {
+        long now = System.currentTimeMillis();
+        long[] archived = new long[1];
+        accounts.forEach(account -> archived[0] += account.archiveHistory(now));
+        return archived[0];
+    }
+
+    public HistoryArchive getHistoryArchive() {
+        return archive;
+    }
+
     public boolean deleteAccount(String accountNumber) {
-        BankAccount account = accounts.get(accountNumber);
+        long number = AccountNumbers.parse(accountNumber);
+        BankAccount account = number == AccountNumbers.INVALID ? null : accounts.get(number);
         if (account == null) {
             System.out.println("❌ Account not found!");
             return false;
         }
-        if (account.getBalance() > 0) {
-            System.out.println("❌ Cannot delete account with positive balance!");
-            return false;
+        synchronized (account) {
+            if (account.getBalance() > 0) {
+                System.out.println("❌ Cannot delete account with positive balance!");
+                return false;
+            }
+            if (accounts.remove(number) == null) {
+                System.out.println("❌ Account not found!");
+                return false;
+            }
+            if (journal != null) {
+                journal.appendChange(accountNumber, AccountChange.DELETED, 0, System.currentTimeMillis());
+            }
+            account.removeListener(statistics);
+            account.removeListener(maturities);
+            statistics.accountRemoved(account);
+            holders.accountRemoved(account);
+            balances.accountRemoved(account);
+            transactions.accountRemoved(account);
         }
-        accounts.remove(accountNumber);
         System.out.println("✅ Account deleted successfully!");
         return true;
     }
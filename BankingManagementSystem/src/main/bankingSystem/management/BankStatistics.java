@@ -0,0 +1,84 @@
+package main.bankingSystem.management;
+
+import main.bankingSystem.accounts.AccountListener;
+import main.bankingSystem.accounts.BankAccount;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Running bank-wide totals, kept up to date by listening to every registered account:
+// balance, account count and active count per account type. Reading them costs one
+// LongAdder sum per type no matter how many accounts exist.
+public class BankStatistics implements AccountListener {
+    private final ConcurrentHashMap<String, TypeTotals> byType = new ConcurrentHashMap<>();
+
+    private static final class TypeTotals {
+        private final LongAdder balance = new LongAdder();
+        private final LongAdder accounts = new LongAdder();
+        private final LongAdder active = new LongAdder();
+    }
+
+    // Point-in-time view of the totals for one account type (or for the whole bank)
+    public record Totals(long accounts, long activeAccounts, long balance) {
+        Totals plus(Totals other) {
+            return new Totals(accounts + other.accounts, activeAccounts + other.activeAccounts,
+                    balance + other.balance);
+        }
+    }
+
+    private TypeTotals totalsFor(BankAccount account) {
+        TypeTotals totals = byType.get(account.getAccountType());
+        return totals != null ? totals : byType.computeIfAbsent(account.getAccountType(), type -> new TypeTotals());
+    }
+
+    // Both must be called while holding the account's lock, together with adding or
+    // removing this listener, so no balance change is counted twice or missed
+    public void accountAdded(BankAccount account) {
+        TypeTotals totals = totalsFor(account);
+        totals.accounts.increment();
+        if (account.isActive()) {
+            totals.active.increment();
+        }
+        totals.balance.add(account.getBalance());
+    }
+
+    public void accountRemoved(BankAccount account) {
+        TypeTotals totals = totalsFor(account);
+        totals.accounts.decrement();
+        if (account.isActive()) {
+            totals.active.decrement();
+        }
+        totals.balance.add(-account.getBalance());
+    }
+
+    @Override
+    public void balanceChanged(BankAccount account, long oldBalance, long newBalance) {
+        totalsFor(account).balance.add(newBalance - oldBalance);
+    }
+
+    @Override
+    public void statusChanged(BankAccount account, boolean active) {
+        if (active) {
+            totalsFor(account).active.increment();
+        } else {
+            totalsFor(account).active.decrement();
+        }
+    }
+
+    public Map<String, Totals> getTotalsByType() {
+        Map<String, Totals> snapshot = new TreeMap<>();
+        byType.forEach((type, totals) -> snapshot.put(type,
+                new Totals(totals.accounts.sum(), totals.active.sum(), totals.balance.sum())));
+        return snapshot;
+    }
+
+    public Totals getTotals() {
+        Totals total = new Totals(0, 0, 0);
+        for (Totals totals : getTotalsByType().values()) {
+            total = total.plus(totals);
+        }
+        return total;
+    }
+}
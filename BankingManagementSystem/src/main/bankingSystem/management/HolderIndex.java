@@ -0,0 +1,176 @@
+package main.bankingSystem.management;
+
+import main.bankingSystem.accounts.AccountListener;
+import main.bankingSystem.accounts.BankAccount;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Secondary index of accounts by holder name, with each customer's total balance kept
+// current as money moves.
+//
+// Names are matched case-insensitively with runs of whitespace collapsed, so
+// "Rahul  SHARMA" finds "Rahul Sharma". The index is a concurrent skip list keyed by
+// that form, so an exact lookup and a prefix range scan are both O(log n) plus the
+// matches, however many accounts exist.
+//
+// Each customer entry is also registered as a listener on its accounts, so a balance
+// change updates that customer's total directly without looking the name up again.
+// Like BankStatistics, accountAdded and accountRemoved must be called while holding
+// the account's lock.
+public class HolderIndex {
+    private static final BankAccount[] NO_ACCOUNTS = new BankAccount[0];
+
+    private final ConcurrentSkipListMap<String, Holder> holders = new ConcurrentSkipListMap<>();
+    private final AtomicInteger holderCount = new AtomicInteger();
+
+    // Point-in-time view of one customer
+    public record Summary(String holderName, int accounts, int activeAccounts, long balance) {
+    }
+
+    // One customer. The account array is replaced under the entry's monitor; an entry
+    // whose last account has gone is marked removed, so a concurrent accountAdded that
+    // found it creates a fresh one instead.
+    private static final class Holder implements AccountListener {
+        private final String name;
+        private final AtomicLong balance = new AtomicLong();
+        private volatile BankAccount[] accounts = NO_ACCOUNTS;
+        private boolean removed;
+
+        private Holder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void balanceChanged(BankAccount account, long oldBalance, long newBalance) {
+            balance.addAndGet(newBalance - oldBalance);
+        }
+
+        private Summary summary() {
+            BankAccount[] current = accounts;
+            int active = 0;
+            for (BankAccount account : current) {
+                if (account.isActive()) {
+                    active++;
+                }
+            }
+            return new Summary(name, current.length, active, balance.get());
+        }
+    }
+
+    public void accountAdded(BankAccount account) {
+        String key = normalize(account.getAccountHolder(), false);
+        while (true) {
+            Holder holder = holders.computeIfAbsent(key, k -> new Holder(account.getAccountHolder()));
+            synchronized (holder) {
+                if (holder.removed) {
+                    continue;
+                }
+                BankAccount[] current = holder.accounts;
+                if (current.length == 0) {
+                    holderCount.incrementAndGet();
+                }
+                BankAccount[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = account;
+                holder.accounts = updated;
+                holder.balance.addAndGet(account.getBalance());
+                account.addListener(holder);
+                return;
+            }
+        }
+    }
+
+    public void accountRemoved(BankAccount account) {
+        String key = normalize(account.getAccountHolder(), false);
+        Holder holder = holders.get(key);
+        if (holder == null) {
+            return;
+        }
+        synchronized (holder) {
+            BankAccount[] current = holder.accounts;
+            int index = 0;
+            while (index < current.length && current[index] != account) {
+                index++;
+            }
+            if (index == current.length) {
+                return;
+            }
+            account.removeListener(holder);
+            holder.balance.addAndGet(-account.getBalance());
+            if (current.length == 1) {
+                holder.accounts = NO_ACCOUNTS;
+                holder.removed = true;
+                holders.remove(key, holder);
+                holderCount.decrementAndGet();
+                return;
+            }
+            BankAccount[] updated = new BankAccount[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            holder.accounts = updated;
+        }
+    }
+
+    // Every account of the customer with this name, in the order they were opened
+    public List<BankAccount> accountsOf(String holderName) {
+        Holder holder = holders.get(normalize(holderName, false));
+        return holder == null ? Collections.emptyList() : List.of(holder.accounts);
+    }
+
+    // The customer with this name, or null if nobody by that name holds an account
+    public Summary summaryOf(String holderName) {
+        Holder holder = holders.get(normalize(holderName, false));
+        return holder == null ? null : holder.summary();
+    }
+
+    // Up to 'limit' customers whose names start with 'prefix', in name order
+    public List<Summary> findByPrefix(String prefix, int limit) {
+        String from = normalize(prefix, true);
+        ConcurrentNavigableMap<String, Holder> matches = from.isEmpty() ? holders
+                : holders.subMap(from, true, from + Character.MAX_VALUE, false);
+        List<Summary> result = new ArrayList<>(Math.max(0, Math.min(limit, 64)));
+        for (Map.Entry<String, Holder> entry : matches.entrySet()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(entry.getValue().summary());
+        }
+        return result;
+    }
+
+    public int getHolderCount() {
+        return holderCount.get();
+    }
+
+    // Lower case with whitespace trimmed and runs of it collapsed to one space. A
+    // prefix keeps one trailing space, so "rahul " matches "Rahul Sharma" but not
+    // "Rahulkumar".
+    static String normalize(String name, boolean prefix) {
+        StringBuilder key = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = key.length() > 0;
+            } else {
+                if (space) {
+                    key.append(' ');
+                    space = false;
+                }
+                key.append(c);
+            }
+        }
+        if (space && prefix) {
+            key.append(' ');
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+}
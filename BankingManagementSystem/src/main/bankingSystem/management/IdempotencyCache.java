@@ -0,0 +1,354 @@
+package main.bankingSystem.management;
+
+import main.bankingSystem.accounts.OperationResult;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Remembers the outcome of each operation run under a client-supplied idempotency key,
+// so a retried deposit, withdrawal or transfer returns the first outcome instead of
+// moving the money again.
+//
+// Keys are spread over SEGMENTS segments by hash, each with its own lock. A segment packs
+// each entry's hash, outcome, request fingerprint, expiry and LRU links into 32 bytes of
+// one long[], beside a key array and an open-addressing table of entry indexes: about
+// 45 bytes per entry besides the key string, no objects per entry, and a lookup touches
+// the table, the key and one entry record. Lookups, inserts and evictions are O(1).
+//
+// An entry expires 'ttl' after its operation completes. Expired entries are dropped
+// when looked up or when they reach the LRU end of the list. Once the whole cache holds
+// 'capacity' keys, a segment taking a new key evicts its own least recently used entry,
+// so eviction is LRU within a segment and roughly LRU overall. Sizing segments as
+// capacity / SEGMENTS instead would start evicting from the fuller segments long
+// before the cache is full.
+//
+// While an operation runs its key is in flight: a retry arriving meanwhile waits for it
+// and returns its outcome. If the operation throws, the key is released and the next
+// attempt runs it. A key seen again with a different request fingerprint (another
+// account or amount) is refused with IllegalArgumentException.
+public class IdempotencyCache {
+    private static final int SEGMENTS = 64;
+    // Segments are picked by the top bits of the spread hash, table slots by the low bits
+    private static final int SEGMENT_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(SEGMENTS);
+    private static final int NONE = -1;
+    private static final byte IN_FLIGHT = -1;
+    private static final int ENTRY_LONGS = 4;
+    private static final int META = 0;
+    private static final int REQUEST = 1;
+    private static final int EXPIRY = 2;
+    private static final int LINKS = 3;
+    private static final OperationResult[] RESULTS = OperationResult.values();
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int capacity;
+    // Keys in every segment; checked and changed under a segment lock, so concurrent
+    // inserts into different segments can overshoot capacity by a few entries
+    private final AtomicInteger live = new AtomicInteger();
+
+    public IdempotencyCache(int capacity, long ttl, TimeUnit unit) {
+        if (capacity < 1 || ttl <= 0) {
+            throw new IllegalArgumentException("Capacity and TTL must be positive");
+        }
+        this.capacity = capacity;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(unit.toNanos(ttl));
+        }
+    }
+
+    // Runs 'operation' unless 'key' already has an outcome, which is returned instead.
+    // 'request' fingerprints what the operation does, to catch a key being reused.
+    public OperationResult execute(String key, long request, Supplier<OperationResult> operation) {
+        int hash = spread(key.hashCode());
+        Segment segment = segments[hash >>> SEGMENT_SHIFT];
+        int entry = segment.claim(key, hash, request);
+        if (entry < 0) {
+            return RESULTS[-1 - entry];
+        }
+        OperationResult result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException | Error e) {
+            segment.release(entry);
+            throw e;
+        }
+        segment.complete(entry, result);
+        return result;
+    }
+
+    // Fibonacci hashing, so both ends of the hash depend on every bit of String.hashCode
+    private static int spread(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    public int size() {
+        return live.get();
+    }
+
+    // Operations answered from the cache instead of being run
+    public long getReplayCount() {
+        long count = 0;
+        for (Segment segment : segments) {
+            count += segment.replays();
+        }
+        return count;
+    }
+
+    // Entries dropped to make room before they expired
+    public long getEvictionCount() {
+        long count = 0;
+        for (Segment segment : segments) {
+            count += segment.evictions();
+        }
+        return count;
+    }
+
+    private final class Segment {
+        private final long ttlNanos;
+        // Entry index + 1 per slot, 0 for empty; linear probing, at most half full
+        private int[] table;
+        private String[] keys;
+        // ENTRY_LONGS longs per entry, so an entry's fields share a cache line:
+        // hash << 32 | outcome, request fingerprint, expiry, previous << 32 | next
+        private long[] entries;
+        // LRU list from head (least recently used) to tail; 'next' also chains free entries
+        private int head = NONE;
+        private int tail = NONE;
+        private int free = NONE;
+        // Entries handed out from the arrays so far
+        private int used;
+        // Retries waiting on an in-flight key; notifying only when there are some keeps
+        // the monitor a cheap thin lock, since notifyAll inflates it
+        private int waiters;
+        private long replays;
+        private long evictions;
+
+        private Segment(long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+            allocateArrays(16);
+        }
+
+        // Returns the index of a new in-flight entry the caller must complete or release,
+        // or -1 - ordinal of an outcome already recorded for the key
+        private synchronized int claim(String key, int hash, long request) {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    int entry = find(key, hash);
+                    if (entry != NONE && result(entry) != IN_FLIGHT && expiry(entry) - now <= 0) {
+                        remove(entry);
+                        entry = NONE;
+                    }
+                    if (entry == NONE) {
+                        return insert(key, hash, request, now);
+                    }
+                    if (entries[entry * ENTRY_LONGS + REQUEST] != request) {
+                        throw new IllegalArgumentException("Idempotency key " + key
+                                + " was already used for a different request");
+                    }
+                    if (result(entry) == IN_FLIGHT) {
+                        waiters++;
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        } finally {
+                            waiters--;
+                        }
+                        continue;
+                    }
+                    replays++;
+                    moveToTail(entry);
+                    return -1 - result(entry);
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private synchronized void complete(int entry, OperationResult result) {
+            setMeta(entry, hash(entry), (byte) result.ordinal());
+            entries[entry * ENTRY_LONGS + EXPIRY] = System.nanoTime() + ttlNanos;
+            wakeWaiters();
+        }
+
+        private synchronized void release(int entry) {
+            remove(entry);
+            wakeWaiters();
+        }
+
+        private void wakeWaiters() {
+            if (waiters > 0) {
+                notifyAll();
+            }
+        }
+
+        private int insert(String key, int hash, long request, long now) {
+            while (head != NONE && result(head) != IN_FLIGHT && expiry(head) - now <= 0) {
+                remove(head);
+            }
+            if (live.get() >= capacity && head != NONE) {
+                evictLeastRecentlyUsed();
+            }
+            int entry;
+            if (free != NONE) {
+                entry = free;
+                free = next(entry);
+            } else {
+                if (used == keys.length) {
+                    allocateArrays(keys.length * 2);
+                }
+                entry = used++;
+            }
+            keys[entry] = key;
+            setMeta(entry, hash, IN_FLIGHT);
+            entries[entry * ENTRY_LONGS + REQUEST] = request;
+            int mask = table.length - 1;
+            int slot = hash & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = entry + 1;
+            linkLast(entry);
+            live.incrementAndGet();
+            return entry;
+        }
+
+        // In-flight entries are passed over
+        private void evictLeastRecentlyUsed() {
+            int entry = head;
+            while (entry != NONE && result(entry) == IN_FLIGHT) {
+                entry = next(entry);
+            }
+            if (entry != NONE) {
+                remove(entry);
+                evictions++;
+            }
+        }
+
+        private int find(String key, int hash) {
+            int mask = table.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int entry = table[slot] - 1;
+                if (entry == NONE || hash(entry) == hash && keys[entry].equals(key)) {
+                    return entry;
+                }
+            }
+        }
+
+        private void remove(int entry) {
+            int mask = table.length - 1;
+            int slot = hash(entry) & mask;
+            while (table[slot] != entry + 1) {
+                slot = (slot + 1) & mask;
+            }
+            // Backward-shift deletion: pull later entries of the probe run into the gap
+            // unless their home slot lies cyclically in (gap, slot]
+            int gap = slot;
+            for (int probe = (gap + 1) & mask; table[probe] != 0; probe = (probe + 1) & mask) {
+                int home = hash(table[probe] - 1) & mask;
+                boolean stays = probe > gap ? home > gap && home <= probe : home > gap || home <= probe;
+                if (!stays) {
+                    table[gap] = table[probe];
+                    gap = probe;
+                }
+            }
+            table[gap] = 0;
+
+            unlink(entry);
+            keys[entry] = null;
+            setLinks(entry, NONE, free);
+            free = entry;
+            live.decrementAndGet();
+        }
+
+        private void moveToTail(int entry) {
+            if (entry != tail) {
+                unlink(entry);
+                linkLast(entry);
+            }
+        }
+
+        private void linkLast(int entry) {
+            setLinks(entry, tail, NONE);
+            if (tail == NONE) {
+                head = entry;
+            } else {
+                setLinks(tail, previous(tail), entry);
+            }
+            tail = entry;
+        }
+
+        private void unlink(int entry) {
+            int before = previous(entry);
+            int after = next(entry);
+            if (before == NONE) {
+                head = after;
+            } else {
+                setLinks(before, previous(before), after);
+            }
+            if (after == NONE) {
+                tail = before;
+            } else {
+                setLinks(after, before, next(after));
+            }
+        }
+
+        private int hash(int entry) {
+            return (int) (entries[entry * ENTRY_LONGS + META] >> 32);
+        }
+
+        private byte result(int entry) {
+            return (byte) entries[entry * ENTRY_LONGS + META];
+        }
+
+        private long expiry(int entry) {
+            return entries[entry * ENTRY_LONGS + EXPIRY];
+        }
+
+        private int previous(int entry) {
+            return (int) (entries[entry * ENTRY_LONGS + LINKS] >> 32);
+        }
+
+        private int next(int entry) {
+            return (int) entries[entry * ENTRY_LONGS + LINKS];
+        }
+
+        private void setMeta(int entry, int hash, byte result) {
+            entries[entry * ENTRY_LONGS + META] = (long) hash << 32 | (result & 0xFF);
+        }
+
+        private void setLinks(int entry, int previous, int next) {
+            entries[entry * ENTRY_LONGS + LINKS] = (long) previous << 32 | (next & 0xFFFFFFFFL);
+        }
+
+        // Grows the entry arrays and rebuilds the table for the new capacity
+        private void allocateArrays(int capacity) {
+            keys = keys == null ? new String[capacity] : Arrays.copyOf(keys, capacity);
+            entries = entries == null ? new long[capacity * ENTRY_LONGS]
+                    : Arrays.copyOf(entries, capacity * ENTRY_LONGS);
+            table = new int[Integer.highestOneBit(Math.max(1, capacity * 2 - 1)) << 1];
+            int mask = table.length - 1;
+            for (int entry = head; entry != NONE; entry = next(entry)) {
+                int slot = hash(entry) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = entry + 1;
+            }
+        }
+
+        private synchronized long replays() {
+            return replays;
+        }
+
+        private synchronized long evictions() {
+            return evictions;
+        }
+    }
+}
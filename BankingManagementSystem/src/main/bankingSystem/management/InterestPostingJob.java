@@ -0,0 +1,176 @@
+package main.bankingSystem.management;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.FixedDepositAccount;
+import main.bankingSystem.accounts.SavingsAccount;
+import main.bankingSystem.persistence.TransactionJournal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// End-of-day interest posting for every Savings and Fixed Deposit account.
+//
+// The registry partitions are posted in parallel by a fixed pool of workers. Each
+// account is locked only while its own interest is credited, so deposits and
+// withdrawals on other accounts carry on while a run is in progress.
+//
+// Progress is checkpointed to a small text file: the run date when a run starts, each
+// partition once its journal records are durable, and COMPLETE at the end. An
+// unfinished run is resumed under its original date and skips finished partitions.
+// Accounts remember the last run day that credited them, so re-posting a partition
+// that was cut short credits nobody twice.
+class InterestPostingJob {
+    private static final String RUN = "RUN ";
+    private static final String PARTITION = "PARTITION ";
+    private static final String COMPLETE = "COMPLETE";
+
+    private final AccountRegistry accounts;
+    private final TransactionJournal journal;
+    private final Path checkpointFile;
+    private final int threads;
+
+    InterestPostingJob(AccountRegistry accounts, TransactionJournal journal, Path checkpointFile,
+            int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.accounts = accounts;
+        this.journal = journal;
+        this.checkpointFile = checkpointFile;
+        this.threads = threads;
+    }
+
+    InterestRunReport run(LocalDate runDate) throws IOException {
+        long start = System.nanoTime();
+        BitSet done = new BitSet(accounts.partitionCount());
+        LocalDate previousRun = readCheckpoint(done);
+        boolean resuming = previousRun != null && !done.get(accounts.partitionCount());
+
+        if (resuming) {
+            runDate = previousRun;
+        } else if (previousRun != null && !runDate.isAfter(previousRun)) {
+            return new InterestRunReport(previousRun, 0, 0, 0, 0, true);
+        } else {
+            done.clear();
+            writeCheckpoint(RUN + runDate + "\n", true);
+        }
+
+        long runDay = runDate.toEpochDay();
+        List<Integer> pending = new ArrayList<>();
+        for (int p = 0; p < accounts.partitionCount(); p++) {
+            if (!done.get(p)) {
+                pending.add(p);
+            }
+        }
+
+        long scanned = 0;
+        long credited = 0;
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, pending.size())),
+                task -> {
+                    Thread thread = new Thread(task, "interest-posting");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int partition : pending) {
+                results.add(workers.submit(() -> postPartition(partition, runDay)));
+            }
+            for (Future<long[]> result : results) {
+                long[] counts = result.get();
+                scanned += counts[0];
+                credited += counts[1];
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Interest run for " + runDate + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interest run for " + runDate + " interrupted", e);
+        } finally {
+            workers.shutdownNow();
+        }
+
+        writeCheckpoint(COMPLETE + "\n", false);
+        return new InterestRunReport(runDate, scanned, credited,
+                accounts.partitionCount() - pending.size(), System.nanoTime() - start, false);
+    }
+
+    // Returns {accounts scanned, accounts credited}
+    private long[] postPartition(int partition, long runDay) throws IOException {
+        long[] counts = new long[2];
+        accounts.forEachInPartition(partition, account -> {
+            if (earnsInterest(account)) {
+                counts[0]++;
+                if (account.postInterest(runDay)) {
+                    counts[1]++;
+                }
+            }
+        });
+        // The partition only counts as done once its interest is in the journal. sync()
+        // returns at once in ASYNC mode, which would let the checkpoint reach the disk
+        // before the records it vouches for.
+        if (journal != null) {
+            journal.syncAll();
+        }
+        writeCheckpoint(PARTITION + partition + "\n", false);
+        return counts;
+    }
+
+    private static boolean earnsInterest(BankAccount account) {
+        return account instanceof SavingsAccount || account instanceof FixedDepositAccount;
+    }
+
+    // Returns the date of the last run, or null if there is none. Finished partitions
+    // are set in 'done'; bit partitionCount() is set if the run completed. A torn
+    // last line is ignored, which just means that partition is posted again.
+    private LocalDate readCheckpoint(BitSet done) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return null;
+        }
+        List<String> lines = Files.readAllLines(checkpointFile, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).startsWith(RUN)) {
+            throw new IOException("Not an interest checkpoint file: " + checkpointFile);
+        }
+        LocalDate runDate = LocalDate.parse(lines.get(0).substring(RUN.length()));
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.equals(COMPLETE)) {
+                done.set(accounts.partitionCount());
+            } else if (line.startsWith(PARTITION)) {
+                try {
+                    done.set(Integer.parseInt(line.substring(PARTITION.length())));
+                } catch (NumberFormatException e) {
+                    // torn write
+                }
+            }
+        }
+        return runDate;
+    }
+
+    private synchronized void writeCheckpoint(String line, boolean truncate) throws IOException {
+        StandardOpenOption mode = truncate ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND;
+        try (FileChannel channel = FileChannel.open(checkpointFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, mode)) {
+            ByteBuffer bytes = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package main.bankingSystem.management;
+
+import java.time.LocalDate;
+
+// Outcome of one end-of-day interest run (or of resuming one)
+public record InterestRunReport(LocalDate runDate, long accountsScanned, long accountsCredited,
+        int partitionsSkipped, long elapsedNanos, boolean alreadyComplete) {
+
+    public double accountsPerSecond() {
+        return elapsedNanos == 0 ? 0 : accountsScanned * 1e9 / elapsedNanos;
+    }
+}
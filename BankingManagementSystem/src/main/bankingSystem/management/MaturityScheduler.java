@@ -0,0 +1,135 @@
+package main.bankingSystem.management;
+
+import main.bankingSystem.accounts.AccountListener;
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.FixedDepositAccount;
+import main.bankingSystem.persistence.TransactionJournal;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Matures fixed deposits on time without scanning accounts.
+//
+// Every FD is queued by maturity time in a DelayQueue (a binary heap, O(log n) per FD).
+// A daemon thread, started with the first FD scheduled so managers without FDs own no
+// thread, sleeps until the earliest FD is due, then drains everything that is due in
+// batches: each FD is marked matured and credited under its own lock, and the
+// journal is synced once per batch. FDs that are closed when they fall due are dropped
+// and queued again if they are reactivated.
+class MaturityScheduler implements AccountListener {
+    private static final int BATCH_SIZE = 1024;
+
+    private final DelayQueue<Due> queue = new DelayQueue<>();
+    private final AccountRegistry accounts;
+    private final TransactionJournal journal;
+    private final AtomicLong matured = new AtomicLong();
+    private final Thread worker;
+    // Guarded by this
+    private boolean started;
+    private boolean stopped;
+
+    private static final class Due implements Delayed {
+        private final long accountNumber;
+        private final FixedDepositAccount account;
+        private final long dueMillis;
+
+        private Due(long accountNumber, FixedDepositAccount account, long dueMillis) {
+            this.accountNumber = accountNumber;
+            this.account = account;
+            this.dueMillis = dueMillis;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueMillis, ((Due) other).dueMillis);
+        }
+    }
+
+    MaturityScheduler(AccountRegistry accounts, TransactionJournal journal) {
+        this.accounts = accounts;
+        this.journal = journal;
+        this.worker = new Thread(this::run, "fd-maturity");
+        worker.setDaemon(true);
+    }
+
+    void schedule(long accountNumber, FixedDepositAccount account) {
+        long dueMillis = account.getMaturityDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        queue.put(new Due(accountNumber, account, dueMillis));
+        startWorker();
+    }
+
+    private synchronized void startWorker() {
+        if (!started && !stopped) {
+            started = true;
+            worker.start();
+        }
+    }
+
+    @Override
+    public void statusChanged(BankAccount account, boolean active) {
+        if (active && account instanceof FixedDepositAccount) {
+            FixedDepositAccount fd = (FixedDepositAccount) account;
+            if (!fd.isMatured() && !fd.getMaturityDate().isAfter(LocalDateTime.now())) {
+                schedule(AccountNumbers.parse(fd.getAccountNumber()), fd);
+            }
+        }
+    }
+
+    int pending() {
+        return queue.size();
+    }
+
+    long maturedCount() {
+        return matured.get();
+    }
+
+    synchronized void shutdown() {
+        stopped = true;
+        if (started) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        List<Due> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                processBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // shutdown
+        }
+    }
+
+    private void processBatch(List<Due> batch) {
+        for (Due due : batch) {
+            // Deleted accounts are dropped here rather than searched for in the queue
+            if (accounts.get(due.accountNumber) != due.account) {
+                continue;
+            }
+            if (due.account.mature()) {
+                matured.incrementAndGet();
+            } else if (!due.account.isMatured() && due.account.isActive()) {
+                // Woke a moment early relative to LocalDateTime.now(); try again shortly
+                queue.put(new Due(due.accountNumber, due.account, System.currentTimeMillis() + 1));
+            }
+        }
+        if (journal != null) {
+            journal.sync();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package main.bankingSystem.management;
+
+import main.bankingSystem.accounts.AccountCommands;
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.OperationResult;
+import main.bankingSystem.persistence.TransactionJournal;
+import main.bankingSystem.transactions.TransactionIdGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Single-writer execution mode: accounts are split across N worker threads by account
+// number hash and every money movement is a command queued to the owning worker, so
+// caller threads never contend for account monitors.
+//
+// Each worker drains its lock-free queue in batches, applies the commands, syncs the
+// journal once for the batch and only then completes the callers' futures. A transfer
+// between partitions becomes messages: a debit on the source's worker, which queues
+// the credit on the target's worker, which queues a refund back if the target refuses.
+// The queues are unbounded and stop() waits for every accepted command, including
+// messages still in flight, before the workers exit, so no leg is ever lost.
+//
+// Money is in flight between the legs. Each transfer takes an id that its legs are
+// journaled with, and a crash between them leaves a debit whose id no later credit or
+// refund carries; recovery refunds it (see BankManager.recover). Until a transfer
+// settles, the journal position before its debit is kept in openLegs, and snapshots
+// start replay no later than that position so they never hide an open debit.
+//
+// Accounts keep their monitors, so the console, interest runs and snapshots can still
+// use them directly; in this mode each monitor is only ever taken by its owner, which
+// keeps it uncontended.
+class PartitionedExecutor {
+    private static final int BATCH_SIZE = 256;
+
+    private final AccountRegistry accounts;
+    private final TransactionJournal journal;
+    private final Worker[] workers;
+    private final AtomicLong inFlight = new AtomicLong();
+    // Transfer id -> journal sequence before its debit, until its credit or refund
+    private final ConcurrentHashMap<Long, Long> openLegs = new ConcurrentHashMap<>();
+    private volatile boolean accepting = true;
+
+    // One queued step. 'run' applies it on the owning worker and returns the result to
+    // complete the caller's future with, or null if the command handed off to another
+    // worker and will be completed there.
+    private abstract static class Command {
+        final CompletableFuture<OperationResult> future;
+        final long startNanos;
+        OperationResult result;
+
+        Command(CompletableFuture<OperationResult> future, long startNanos) {
+            this.future = future;
+            this.startNanos = startNanos;
+        }
+
+        abstract OperationResult run();
+    }
+
+    private final class Worker extends Thread {
+        private final ConcurrentLinkedQueue<Command> queue = new ConcurrentLinkedQueue<>();
+        private final List<Command> finished = new ArrayList<>(BATCH_SIZE);
+        private volatile boolean sleeping;
+        private volatile boolean running = true;
+
+        Worker(int index) {
+            super("partition-" + index);
+            setDaemon(true);
+        }
+
+        void submit(Command command) {
+            queue.offer(command);
+            if (sleeping) {
+                LockSupport.unpark(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                Command command = queue.poll();
+                if (command == null) {
+                    idle();
+                    continue;
+                }
+                int batch = 0;
+                do {
+                    command.result = command.run();
+                    if (command.result != null) {
+                        finished.add(command);
+                    }
+                } while (++batch < BATCH_SIZE && (command = queue.poll()) != null);
+                complete();
+            }
+        }
+
+        // Results go out only once the batch's journal records are durable
+        private void complete() {
+            if (finished.isEmpty()) {
+                return;
+            }
+            if (journal != null) {
+                journal.sync();
+            }
+            for (Command command : finished) {
+                command.future.complete(command.result);
+            }
+            inFlight.addAndGet(-finished.size());
+            finished.clear();
+        }
+
+        private void idle() {
+            sleeping = true;
+            if (queue.isEmpty() && running) {
+                LockSupport.park(this);
+            }
+            sleeping = false;
+        }
+    }
+
+    PartitionedExecutor(AccountRegistry accounts, TransactionJournal journal, int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Worker count must be at least 1");
+        }
+        this.accounts = accounts;
+        this.journal = journal;
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(i);
+        }
+        for (Worker worker : workers) {
+            worker.start();
+        }
+    }
+
+    int workerCount() {
+        return workers.length;
+    }
+
+    CompletableFuture<OperationResult> deposit(long accountNumber, long amount) {
+        CompletableFuture<OperationResult> future = new CompletableFuture<>();
+        BankAccount account = accept(future, accountNumber);
+        if (account != null) {
+            ownerOf(accountNumber).submit(new Command(future, System.nanoTime()) {
+                @Override
+                OperationResult run() {
+                    return AccountCommands.deposit(account, amount);
+                }
+            });
+        }
+        return future;
+    }
+
+    CompletableFuture<OperationResult> withdraw(long accountNumber, long amount) {
+        CompletableFuture<OperationResult> future = new CompletableFuture<>();
+        BankAccount account = accept(future, accountNumber);
+        if (account != null) {
+            ownerOf(accountNumber).submit(new Command(future, System.nanoTime()) {
+                @Override
+                OperationResult run() {
+                    return AccountCommands.withdraw(account, amount);
+                }
+            });
+        }
+        return future;
+    }
+
+    CompletableFuture<OperationResult> transfer(long fromNumber, long toNumber, long amount) {
+        CompletableFuture<OperationResult> future = new CompletableFuture<>();
+        BankAccount source = accept(future, fromNumber);
+        if (source == null) {
+            return future;
+        }
+        BankAccount target = accounts.get(toNumber);
+        if (target == null) {
+            finish(future, OperationResult.ACCOUNT_NOT_FOUND);
+            return future;
+        }
+        long start = System.nanoTime();
+        Worker sourceOwner = ownerOf(fromNumber);
+        Worker targetOwner = ownerOf(toNumber);
+        sourceOwner.submit(new Command(future, start) {
+            @Override
+            OperationResult run() {
+                long transferId = TransactionIdGenerator.getDefault().nextId();
+                if (journal != null) {
+                    openLegs.put(transferId, journal.getLastSequence());
+                }
+                OperationResult debited = AccountCommands.debit(source, target, amount, transferId);
+                if (!debited.isSuccess()) {
+                    openLegs.remove(transferId);
+                    AccountCommands.transferCompleted(source, target, debited, amount, startNanos);
+                    return debited;
+                }
+                if (targetOwner == sourceOwner) {
+                    return credit(future, source, target, amount, transferId, startNanos, sourceOwner);
+                }
+                targetOwner.submit(new Command(future, startNanos) {
+                    @Override
+                    OperationResult run() {
+                        return credit(future, source, target, amount, transferId, startNanos, sourceOwner);
+                    }
+                });
+                return null;
+            }
+        });
+        return future;
+    }
+
+    // Runs on the target's worker
+    private OperationResult credit(CompletableFuture<OperationResult> future, BankAccount source,
+            BankAccount target, long amount, long transferId, long startNanos, Worker sourceOwner) {
+        OperationResult credited = AccountCommands.credit(target, source, amount, transferId);
+        if (credited.isSuccess()) {
+            openLegs.remove(transferId);
+            AccountCommands.transferCompleted(source, target, credited, amount, startNanos);
+            return credited;
+        }
+        // The money has already left the source; send it back before answering
+        sourceOwner.submit(new Command(future, startNanos) {
+            @Override
+            OperationResult run() {
+                AccountCommands.refund(source, amount, transferId);
+                openLegs.remove(transferId);
+                AccountCommands.transferCompleted(source, target, credited, amount, startNanos);
+                return credited;
+            }
+        });
+        return null;
+    }
+
+    // Journal sequence that replay must start from to see every unsettled debit, or
+    // Long.MAX_VALUE if none is open
+    long oldestOpenLeg() {
+        long oldest = Long.MAX_VALUE;
+        for (long position : openLegs.values()) {
+            oldest = Math.min(oldest, position);
+        }
+        return oldest;
+    }
+
+    // Waits for every accepted command, including transfer legs still in flight, then
+    // stops the workers. Later submissions throw IllegalStateException.
+    void stop() {
+        accepting = false;
+        while (inFlight.get() > 0) {
+            LockSupport.parkNanos(1_000_000);
+        }
+        for (Worker worker : workers) {
+            worker.running = false;
+            LockSupport.unpark(worker);
+        }
+        for (Worker worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Counts the command as in flight before checking 'accepting', so stop() either
+    // sees it in flight or the caller sees the executor stopping. Completes the future
+    // straight away if the account does not exist.
+    private BankAccount accept(CompletableFuture<OperationResult> future, long accountNumber) {
+        inFlight.incrementAndGet();
+        if (!accepting) {
+            inFlight.decrementAndGet();
+            throw new IllegalStateException("Partitioned mode is stopped");
+        }
+        BankAccount account = accounts.get(accountNumber);
+        if (account == null) {
+            finish(future, OperationResult.ACCOUNT_NOT_FOUND);
+        }
+        return account;
+    }
+
+    private void finish(CompletableFuture<OperationResult> future, OperationResult result) {
+        future.complete(result);
+        inFlight.decrementAndGet();
+    }
+
+    private Worker ownerOf(long accountNumber) {
+        return workers[Math.floorMod(Long.hashCode(accountNumber * 0x9E3779B97F4A7C15L), workers.length)];
+    }
+}
@@ -0,0 +1,8 @@
+package main.bankingSystem.management;
+
+// What BankManager.recover found: accounts loaded from the snapshot, journal records
+// applied and skipped, partitioned transfers refunded because the crash came between
+// their legs, and how long loading the snapshot and the whole startup took
+public record RecoveryReport(long snapshotAccounts, long replayedRecords, long skippedRecords,
+        long refundedTransfers, long accounts, long snapshotNanos, long totalNanos) {
+}
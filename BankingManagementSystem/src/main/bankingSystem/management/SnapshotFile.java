@@ -0,0 +1,351 @@
+package main.bankingSystem.management;
+
+import main.bankingSystem.accounts.AccountState;
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.transactions.DescriptionDictionary;
+import main.bankingSystem.transactions.HistoryArchive;
+import main.bankingSystem.transactions.TransactionStore;
+import main.bankingSystem.transactions.TransactionType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+// Binary point-in-time copy of every account, written while accounts keep changing.
+//
+// Layout (DataOutputStream, big-endian):
+//   header   long MAGIC, int VERSION, long journal sequence, long next account sequence,
+//            long HistoryArchive id (0 without one)
+//   account  byte kind (AccountState.Kind ordinal + 1), long account number
+//            (AccountNumbers encoding), UTF holder, long created millis, long balance,
+//            byte flags (1 = active, 2 = matured), long last interest run,
+//            long last journal sequence, long parameter, int archived segments, then
+//            per segment, oldest first:
+//     segment long offset, int length, int rows, long first timestamp, int rows of
+//            each TransactionType
+//            then int hot rows, then per row, oldest first:
+//     row    byte type ordinal (| NEW_DESCRIPTION), [UTF description if new, else
+//            int description index], long timestamp, long amount, long transaction id
+//   trailer  byte 0, long account count, int CRC32C of every byte before it
+//
+// Descriptions are numbered in order of first use within the file, since dictionary
+// codes only mean something inside one process. Archived rows stay in the archive
+// file: the snapshot only keeps where they are, and is published after the archive is
+// forced. Reading it back needs the same archive. Version 1 files have no history and
+// version 2 files have no archive id or segments.
+//
+// Accounts are captured one at a time under their own lock, state and history
+// together, so an account may already include journal records after the header's
+// journal sequence. Recovery replays the journal from that sequence and each account
+// skips what it already reflects, so no row is lost or restored twice.
+final class SnapshotFile {
+    private static final long MAGIC = 0x42414E4B534E4150L; // "BANKSNAP"
+    private static final int VERSION = 3;
+    private static final int NEW_DESCRIPTION = 0x80;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int ACTIVE = 1;
+    private static final int MATURED = 2;
+    private static final AccountState.Kind[] KINDS = AccountState.Kind.values();
+
+    record Header(long journalSequence, long nextAccountSequence, long archiveId) {
+    }
+
+    private SnapshotFile() {
+    }
+
+    // Writes next to the target and renames over it, so a crash leaves either the old or
+    // the new snapshot. 'beforePublish' runs after the data is on disk and before the
+    // rename; the caller uses it to make the journal durable up to every captured state,
+    // and the history archive up to every captured segment.
+    static long write(Path file, AccountRegistry accounts, Header header, Runnable beforePublish)
+            throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long count;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(header.journalSequence());
+            out.writeLong(header.nextAccountSequence());
+            out.writeLong(header.archiveId());
+
+            long[] written = new long[1];
+            HistoryWriter history = new HistoryWriter();
+            try {
+                accounts.forEach(account -> {
+                    long number = AccountNumbers.parse(account.getAccountNumber());
+                    history.clear();
+                    AccountState state = account.captureState(history, history);
+                    // Deleted between the registry scan and the capture
+                    if (accounts.get(number) != account) {
+                        return;
+                    }
+                    try {
+                        writeAccount(out, number, state);
+                        history.writeTo(out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    written[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            count = written[0];
+            out.writeByte(0);
+            out.writeLong(count);
+            out.flush();
+
+            out.writeInt(checksum(channel, channel.size()));
+            out.flush();
+            channel.force(true);
+        }
+        beforePublish.run();
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+
+    private static void writeAccount(DataOutputStream out, long number, AccountState state) throws IOException {
+        out.writeByte(state.kind().ordinal() + 1);
+        out.writeLong(number);
+        out.writeUTF(state.accountHolder());
+        out.writeLong(state.createdMillis());
+        out.writeLong(state.balance());
+        out.writeByte((state.active() ? ACTIVE : 0) | (state.matured() ? MATURED : 0));
+        out.writeLong(state.lastInterestRun());
+        out.writeLong(state.lastJournalSequence());
+        out.writeLong(state.parameter());
+    }
+
+    // Returns null if there is no snapshot. The checksum is verified before any account
+    // is handed to the consumer; accounts come with their history restored, and with
+    // 'archive' attached if they had archived segments.
+    static Header read(Path file, HistoryArchive archive, Consumer<BankAccount> consumer) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 4) {
+                throw new IOException("Truncated snapshot " + file);
+            }
+            ByteBuffer stored = ByteBuffer.allocate(4);
+            channel.read(stored, size - 4);
+            if (stored.getInt(0) != checksum(channel, size - 4)) {
+                throw new IOException("Snapshot checksum mismatch in " + file);
+            }
+
+            channel.position(0);
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+            if (in.readLong() != MAGIC) {
+                throw new IOException("Not a bank snapshot: " + file);
+            }
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + file);
+            }
+            Header header = new Header(in.readLong(), in.readLong(), version >= 3 ? in.readLong() : 0);
+            List<Integer> descriptions = new ArrayList<>();
+            long count = 0;
+            for (int kind = in.readByte(); kind != 0; kind = in.readByte()) {
+                BankAccount account = BankAccount.restore(readAccount(in, KINDS[kind - 1]));
+                if (version >= 3) {
+                    readSegments(in, account, header, archive, file);
+                }
+                if (version >= 2) {
+                    readHistory(in, account, descriptions);
+                }
+                consumer.accept(account);
+                count++;
+            }
+            if (in.readLong() != count) {
+                throw new IOException("Snapshot account count mismatch in " + file);
+            }
+            return header;
+        }
+    }
+
+    private static AccountState readAccount(DataInputStream in, AccountState.Kind kind) throws IOException {
+        String accountNumber = AccountNumbers.format(in.readLong());
+        String holder = in.readUTF();
+        long created = in.readLong();
+        long balance = in.readLong();
+        int flags = in.readByte();
+        return new AccountState(kind, accountNumber, holder, created, balance, (flags & ACTIVE) != 0,
+                (flags & MATURED) != 0, in.readLong(), in.readLong(), in.readLong());
+    }
+
+    private static void readSegments(DataInputStream in, BankAccount account, Header header,
+                                     HistoryArchive archive, Path file) throws IOException {
+        int segments = in.readInt();
+        if (segments == 0) {
+            return;
+        }
+        if (archive == null || archive.getId() != header.archiveId()) {
+            throw new IOException("Snapshot " + file + " needs the history archive it was written with");
+        }
+        account.attachArchive(archive);
+        int[] rowsOfType = new int[TYPES.length];
+        for (int segment = 0; segment < segments; segment++) {
+            long offset = in.readLong();
+            int length = in.readInt();
+            int rows = in.readInt();
+            long firstTimestamp = in.readLong();
+            for (int type = 0; type < TYPES.length; type++) {
+                rowsOfType[type] = in.readInt();
+            }
+            try {
+                account.restoreArchivedSegment(offset, length, rows, firstTimestamp, rowsOfType);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Snapshot " + file + " refers to history missing from the archive", e);
+            }
+        }
+    }
+
+    private static void readHistory(DataInputStream in, BankAccount account, List<Integer> descriptions)
+            throws IOException {
+        int rows = in.readInt();
+        for (int row = 0; row < rows; row++) {
+            int type = in.readByte() & 0xFF;
+            int description;
+            if ((type & NEW_DESCRIPTION) != 0) {
+                description = DescriptionDictionary.encode(in.readUTF());
+                descriptions.add(description);
+                type &= ~NEW_DESCRIPTION;
+            } else {
+                description = descriptions.get(in.readInt());
+            }
+            long timestamp = in.readLong();
+            long amount = in.readLong();
+            account.restoreTransaction(TYPES[type], amount, description, timestamp, in.readLong());
+        }
+    }
+
+    // One account's segment index and hot rows copied under its lock, written after the
+    // lock is released. Reused for every account of a snapshot; also numbers the
+    // descriptions in the file.
+    private static final class HistoryWriter implements TransactionStore.SegmentVisitor,
+            TransactionStore.RowVisitor {
+        private long[] segmentOffsets = new long[8];
+        private int[] segmentLengths = new int[8];
+        private int[] segmentRows = new int[8];
+        private long[] segmentTimestamps = new long[8];
+        private int[] segmentTypeRows = new int[8 * TYPES.length];
+        private int segments;
+
+        private byte[] types = new byte[64];
+        private long[] amounts = new long[64];
+        private int[] descriptions = new int[64];
+        private long[] timestamps = new long[64];
+        private long[] transactionIds = new long[64];
+        private int size;
+        // Dictionary code -> index in this file + 1, 0 if not written yet
+        private int[] fileIndexes = new int[64];
+        private int described;
+
+        @Override
+        public void visit(long offset, int length, int rows, long firstTimestamp, int[] rowsOfType) {
+            if (segments == segmentOffsets.length) {
+                int capacity = segments * 2;
+                segmentOffsets = Arrays.copyOf(segmentOffsets, capacity);
+                segmentLengths = Arrays.copyOf(segmentLengths, capacity);
+                segmentRows = Arrays.copyOf(segmentRows, capacity);
+                segmentTimestamps = Arrays.copyOf(segmentTimestamps, capacity);
+                segmentTypeRows = Arrays.copyOf(segmentTypeRows, capacity * TYPES.length);
+            }
+            segmentOffsets[segments] = offset;
+            segmentLengths[segments] = length;
+            segmentRows[segments] = rows;
+            segmentTimestamps[segments] = firstTimestamp;
+            System.arraycopy(rowsOfType, 0, segmentTypeRows, segments * TYPES.length, TYPES.length);
+            segments++;
+        }
+
+        @Override
+        public void visit(TransactionType type, long amount, int descriptionCode, long timestampMillis,
+                          long transactionId) {
+            if (size == types.length) {
+                int capacity = size * 2;
+                types = Arrays.copyOf(types, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                descriptions = Arrays.copyOf(descriptions, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                transactionIds = Arrays.copyOf(transactionIds, capacity);
+            }
+            types[size] = (byte) type.ordinal();
+            amounts[size] = amount;
+            descriptions[size] = descriptionCode;
+            timestamps[size] = timestampMillis;
+            transactionIds[size] = transactionId;
+            size++;
+        }
+
+        private void clear() {
+            segments = 0;
+            size = 0;
+        }
+
+        private void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(segments);
+            for (int segment = 0; segment < segments; segment++) {
+                out.writeLong(segmentOffsets[segment]);
+                out.writeInt(segmentLengths[segment]);
+                out.writeInt(segmentRows[segment]);
+                out.writeLong(segmentTimestamps[segment]);
+                for (int type = 0; type < TYPES.length; type++) {
+                    out.writeInt(segmentTypeRows[segment * TYPES.length + type]);
+                }
+            }
+            out.writeInt(size);
+            for (int row = 0; row < size; row++) {
+                int code = descriptions[row];
+                if (code >= fileIndexes.length) {
+                    fileIndexes = Arrays.copyOf(fileIndexes, Math.max(code + 1, fileIndexes.length * 2));
+                }
+                if (fileIndexes[code] == 0) {
+                    fileIndexes[code] = ++described;
+                    out.writeByte(types[row] | NEW_DESCRIPTION);
+                    out.writeUTF(DescriptionDictionary.decode(code));
+                } else {
+                    out.writeByte(types[row]);
+                    out.writeInt(fileIndexes[code] - 1);
+                }
+                out.writeLong(timestamps[row]);
+                out.writeLong(amounts[row]);
+                out.writeLong(transactionIds[row]);
+            }
+        }
+    }
+
+    private static int checksum(FileChannel channel, long length) throws IOException {
+        CRC32C crc = new CRC32C();
+        long position = 0;
+        while (position < length) {
+            long span = Math.min(Integer.MAX_VALUE, length - position);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, span);
+            crc.update(mapped);
+            position += span;
+        }
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,454 @@
+package main.bankingSystem.management;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.transactions.DescriptionDictionary;
+import main.bankingSystem.transactions.TransactionStore;
+import main.bankingSystem.transactions.TransactionType;
+import main.bankingSystem.util.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+// Writes account statements to a file as CSV or fixed-width text, one line per
+// transaction:
+//
+//   CSV          account,timestamp,type,amount,transaction_id,description
+//   FIXED_WIDTH  the same columns padded to fixed widths, so every line (header
+//                included) is LINE_WIDTH bytes; non-ASCII description characters
+//                become '?' and long descriptions are cut
+//
+// Rows are taken from each account in batches of BATCH_ROWS, copied into primitive
+// arrays under the account lock, then formatted outside it straight into one reusable
+// byte buffer that is written to a FileChannel whenever it fills. Nothing is allocated
+// per row: timestamps are rendered from a cached date and zone offset, amounts and ids
+// digit by digit, and types and descriptions from bytes encoded once per exporter.
+// Memory stays constant however many rows are exported.
+//
+// Not thread-safe; use one exporter per file.
+public final class StatementExporter implements Closeable {
+    public enum Format { CSV, FIXED_WIDTH }
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int BATCH_ROWS = 4096;
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final long BLOCK = 1_000_000_000L;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    // "00" to "99", so numbers are written two digits per division
+    private static final byte[] DIGIT_PAIRS = new byte[200];
+
+    // 10^0 to 10^18
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+        for (int i = 0; i < 100; i++) {
+            DIGIT_PAIRS[i * 2] = (byte) ('0' + i / 10);
+            DIGIT_PAIRS[i * 2 + 1] = (byte) ('0' + i % 10);
+        }
+    }
+
+    // Fixed-width columns; account numbers are at most 19 characters and transaction
+    // ids "TXN" plus at most 19 digits
+    private static final int ACCOUNT_WIDTH = 19;
+    private static final int TIMESTAMP_WIDTH = 19;
+    private static final int TYPE_WIDTH = 12;
+    private static final int AMOUNT_WIDTH = 20;
+    private static final int ID_WIDTH = 22;
+    private static final int DESCRIPTION_WIDTH = 40;
+    public static final int LINE_WIDTH = ACCOUNT_WIDTH + TIMESTAMP_WIDTH + TYPE_WIDTH + AMOUNT_WIDTH + ID_WIDTH
+            + DESCRIPTION_WIDTH + 6;
+    // Longest CSV line apart from the description
+    private static final int MAX_CSV_ROW = 128;
+
+    private final FileChannel channel;
+    private final Format format;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer out = ByteBuffer.wrap(buffer);
+    private int position;
+    private long rowsWritten;
+    private long bytesWritten;
+
+    // One batch of rows copied out of an account
+    private final long[] timestamps = new long[BATCH_ROWS];
+    private final long[] amounts = new long[BATCH_ROWS];
+    private final long[] transactionIds = new long[BATCH_ROWS];
+    private final byte[] types = new byte[BATCH_ROWS];
+    private final int[] descriptionCodes = new int[BATCH_ROWS];
+    private int batchSize;
+    private final TransactionStore.RowVisitor copier = this::copy;
+
+    // Type names and description bytes ready to copy, including padding or quoting
+    private final byte[][] typeBytes = new byte[TYPES.length][];
+    private byte[][] descriptionBytes = new byte[64][];
+    // Account column (and separator) of the account being exported
+    private byte[] accountBytes;
+
+    // Zone offset valid for offsetFrom <= millis < offsetUntil
+    private final ZoneRules zone;
+    private long offsetFrom = Long.MAX_VALUE;
+    private long offsetUntil = Long.MIN_VALUE;
+    private long offsetMillis;
+    // Local millis of the midnight starting the day in 'timestampBytes', and the second
+    // of that day it shows
+    private long dayStart = Long.MAX_VALUE;
+    private int cachedSecond;
+    private final byte[] timestampBytes = "0000-00-00 00:00:00".getBytes(StandardCharsets.US_ASCII);
+
+    private StatementExporter(FileChannel channel, Format format, ZoneId zone) {
+        this.channel = channel;
+        this.format = format;
+        this.zone = zone.getRules();
+        for (TransactionType type : TYPES) {
+            typeBytes[type.ordinal()] = format == Format.CSV ? ascii(type.name() + ",")
+                    : pad(type.name(), TYPE_WIDTH);
+        }
+    }
+
+    // Creates or truncates the file and writes the header line
+    public static StatementExporter open(Path file, Format format) throws IOException {
+        return open(file, format, ZoneId.systemDefault());
+    }
+
+    public static StatementExporter open(Path file, Format format, ZoneId zone) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        StatementExporter exporter = new StatementExporter(channel, format, zone);
+        exporter.writeHeader();
+        return exporter;
+    }
+
+    private void writeHeader() throws IOException {
+        if (format == Format.CSV) {
+            put(ascii("account,timestamp,type,amount,transaction_id,description\n"));
+            return;
+        }
+        put(pad("ACCOUNT", ACCOUNT_WIDTH));
+        put(pad("TIMESTAMP", TIMESTAMP_WIDTH));
+        put(pad("TYPE", TYPE_WIDTH));
+        put(ascii(" ".repeat(AMOUNT_WIDTH - "AMOUNT".length()) + "AMOUNT "));
+        put(pad("TRANSACTION ID", ID_WIDTH));
+        put(fixedDescription("DESCRIPTION"));
+    }
+
+    // The account's whole history, oldest first; returns the number of rows written
+    public long exportAccount(BankAccount account) throws IOException {
+        return exportAccount(account, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    // Transactions with fromMillis <= timestamp < toMillis, oldest first. Rows recorded
+    // after the export starts are not included.
+    public long exportAccount(BankAccount account, long fromMillis, long toMillis) throws IOException {
+        int row = account.findTransactionRow(fromMillis);
+        int end = account.findTransactionRow(toMillis);
+        if (row >= end) {
+            return 0;
+        }
+        accountBytes = format == Format.CSV ? ascii(account.getAccountNumber() + ",")
+                : pad(account.getAccountNumber(), ACCOUNT_WIDTH);
+        long written = 0;
+        while (row < end) {
+            batchSize = 0;
+            row = account.visitTransactions(row, Math.min(end, row + BATCH_ROWS), copier);
+            for (int i = 0; i < batchSize; i++) {
+                if (format == Format.CSV) {
+                    writeCsv(i);
+                } else {
+                    writeFixed(i);
+                }
+            }
+            written += batchSize;
+            if (batchSize == 0) {
+                break;
+            }
+        }
+        rowsWritten += written;
+        return written;
+    }
+
+    private void copy(TransactionType type, long amount, int descriptionCode, long timestampMillis,
+                      long transactionId) {
+        timestamps[batchSize] = timestampMillis;
+        amounts[batchSize] = amount;
+        transactionIds[batchSize] = transactionId;
+        types[batchSize] = (byte) type.ordinal();
+        descriptionCodes[batchSize] = descriptionCode;
+        batchSize++;
+    }
+
+    private void writeCsv(int i) throws IOException {
+        ensure(MAX_CSV_ROW);
+        putBytes(accountBytes);
+        putTimestamp(timestamps[i]);
+        buffer[position++] = ',';
+        putBytes(typeBytes[types[i]]);
+        putMoney(amounts[i], 0);
+        buffer[position++] = ',';
+        putTransactionId(transactionIds[i], 0);
+        buffer[position++] = ',';
+        // May be longer than the room ensured above
+        put(description(descriptionCodes[i]));
+    }
+
+    private void writeFixed(int i) throws IOException {
+        ensure(LINE_WIDTH);
+        putBytes(accountBytes);
+        putTimestamp(timestamps[i]);
+        buffer[position++] = ' ';
+        putBytes(typeBytes[types[i]]);
+        putMoney(amounts[i], AMOUNT_WIDTH);
+        buffer[position++] = ' ';
+        putTransactionId(transactionIds[i], ID_WIDTH);
+        buffer[position++] = ' ';
+        putBytes(description(descriptionCodes[i]));
+    }
+
+    // "yyyy-MM-dd HH:mm:ss" in the exporter's zone, as the console history shows it.
+    // Rows come in time order, so the date and usually the second are already rendered.
+    private void putTimestamp(long millis) {
+        if (millis < offsetFrom || millis >= offsetUntil) {
+            findOffset(millis);
+        }
+        long local = millis + offsetMillis;
+        if (local < dayStart || local - dayStart >= DAY_MILLIS) {
+            long day = Math.floorDiv(local, DAY_MILLIS);
+            LocalDate date = LocalDate.ofEpochDay(day);
+            putDigits(timestampBytes, 0, date.getYear(), 4);
+            putPair(timestampBytes, 5, date.getMonthValue());
+            putPair(timestampBytes, 8, date.getDayOfMonth());
+            dayStart = day * DAY_MILLIS;
+            cachedSecond = -1;
+        }
+        int second = (int) (local - dayStart) / 1000;
+        if (second != cachedSecond) {
+            putPair(timestampBytes, 11, second / 3600);
+            putPair(timestampBytes, 14, second / 60 % 60);
+            putPair(timestampBytes, 17, second % 60);
+            cachedSecond = second;
+        }
+        putBytes(timestampBytes);
+    }
+
+    // Allocates, but only when a timestamp falls outside the cached offset's range:
+    // once per zone transition crossed, or when an account starts earlier than the
+    // last row rendered
+    private void findOffset(long millis) {
+        Instant instant = Instant.ofEpochMilli(millis);
+        offsetMillis = zone.getOffset(instant).getTotalSeconds() * 1000L;
+        if (zone.isFixedOffset()) {
+            offsetFrom = Long.MIN_VALUE;
+            offsetUntil = Long.MAX_VALUE;
+            return;
+        }
+        ZoneOffsetTransition next = zone.nextTransition(instant);
+        offsetFrom = millis;
+        offsetUntil = next == null ? Long.MAX_VALUE : next.toEpochSecond() * 1000;
+    }
+
+    // Rupees and two decimals as Money.format renders them, right-aligned in 'width'
+    private void putMoney(long paise, int width) {
+        long rupees = Math.abs(paise / Money.PAISE_PER_RUPEE);
+        int fraction = (int) Math.abs(paise % Money.PAISE_PER_RUPEE);
+        int length = (paise < 0 ? 1 : 0) + digitCount(rupees) + 3;
+        for (int pad = width - length; pad > 0; pad--) {
+            buffer[position++] = ' ';
+        }
+        if (paise < 0) {
+            buffer[position++] = '-';
+        }
+        putNumber(rupees);
+        buffer[position] = '.';
+        putPair(buffer, position + 1, fraction);
+        position += 3;
+    }
+
+    // "TXN" and the id (always positive), left-aligned in 'width'
+    private void putTransactionId(long transactionId, int width) {
+        int start = position;
+        buffer[position] = 'T';
+        buffer[position + 1] = 'X';
+        buffer[position + 2] = 'N';
+        position += 3;
+        putNumber(transactionId);
+        while (position - start < width) {
+            buffer[position++] = ' ';
+        }
+    }
+
+    // Writes a non-negative value two digits at a time, from the right. Longs are
+    // split into nine-digit blocks so the digit loops run in int arithmetic.
+    private void putNumber(long value) {
+        if (value > Integer.MAX_VALUE) {
+            long high = value / BLOCK;
+            putNumber(high);
+            putBlock((int) (value - high * BLOCK));
+            return;
+        }
+        int remaining = (int) value;
+        int end = position + digitCount(remaining);
+        int at = end;
+        while (remaining >= 100) {
+            int quotient = remaining / 100;
+            at -= 2;
+            putPair(buffer, at, remaining - quotient * 100);
+            remaining = quotient;
+        }
+        if (remaining >= 10) {
+            putPair(buffer, at - 2, remaining);
+        } else {
+            buffer[at - 1] = (byte) ('0' + remaining);
+        }
+        position = end;
+    }
+
+    // Exactly nine digits, with leading zeros
+    private void putBlock(int value) {
+        int at = position + 9;
+        for (int i = 0; i < 4; i++) {
+            int quotient = value / 100;
+            at -= 2;
+            putPair(buffer, at, value - quotient * 100);
+            value = quotient;
+        }
+        buffer[at - 1] = (byte) ('0' + value);
+        position += 9;
+    }
+
+    // From the bit length: 1233 / 4096 is just over log10(2), so the estimate is the digit
+    // count or one short of it
+    private static int digitCount(long value) {
+        int estimate = (64 - Long.numberOfLeadingZeros(value)) * 1233 >>> 12;
+        return estimate < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[estimate] ? estimate + 1
+                : Math.max(1, estimate);
+    }
+
+    private static void putPair(byte[] target, int at, int value) {
+        target[at] = DIGIT_PAIRS[value * 2];
+        target[at + 1] = DIGIT_PAIRS[value * 2 + 1];
+    }
+
+    private static void putDigits(byte[] target, int at, int value, int width) {
+        for (int i = at + width - 1; i >= at; i--) {
+            target[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    // Encoded on first use; the dictionary only grows, so a code's text never changes
+    private byte[] description(int code) {
+        if (code >= descriptionBytes.length) {
+            descriptionBytes = Arrays.copyOf(descriptionBytes, Math.max(code + 1, descriptionBytes.length * 2));
+        }
+        byte[] bytes = descriptionBytes[code];
+        if (bytes == null) {
+            String text = DescriptionDictionary.decode(code);
+            bytes = format == Format.CSV ? (csvField(text) + "\n").getBytes(StandardCharsets.UTF_8)
+                    : fixedDescription(text);
+            descriptionBytes[code] = bytes;
+        }
+        return bytes;
+    }
+
+    private static String csvField(String text) {
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    // Last column: padded to its width and ended with a newline
+    private static byte[] fixedDescription(String text) {
+        byte[] bytes = new byte[DESCRIPTION_WIDTH + 1];
+        fill(bytes, text, DESCRIPTION_WIDTH);
+        bytes[DESCRIPTION_WIDTH] = '\n';
+        return bytes;
+    }
+
+    // Padded to 'width' and followed by a space
+    private static byte[] pad(String text, int width) {
+        byte[] bytes = new byte[width + 1];
+        fill(bytes, text, width);
+        bytes[width] = ' ';
+        return bytes;
+    }
+
+    private static void fill(byte[] bytes, String text, int width) {
+        for (int i = 0; i < width; i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            bytes[i] = (byte) (c >= ' ' && c < 0x7f ? c : '?');
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private void putBytes(byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    // Copies bytes of any length, flushing as the buffer fills
+    private void put(byte[] bytes) throws IOException {
+        if (bytes.length <= buffer.length - position) {
+            putBytes(bytes);
+            return;
+        }
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (position == buffer.length) {
+                flush();
+            }
+            int count = Math.min(bytes.length - offset, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, count);
+            position += count;
+            offset += count;
+        }
+    }
+
+    private void ensure(int room) throws IOException {
+        if (buffer.length - position < room) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        out.clear().limit(position);
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        bytesWritten += position;
+        position = 0;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    // Bytes written so far, including any still in the buffer
+    public long getBytesWritten() {
+        return bytesWritten + position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
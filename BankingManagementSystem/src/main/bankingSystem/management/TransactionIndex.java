@@ -0,0 +1,296 @@
+package main.bankingSystem.management;
+
+import main.bankingSystem.accounts.AccountListener;
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.transactions.TransactionType;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+// Bank-wide index of every transaction, partitioned by hour and TransactionType, for
+// queries across all accounts such as "transfers over ₹10 lakh yesterday".
+//
+// Each (hour, type) partition is split into a few stripes by account so concurrent
+// appends to the same hour rarely share a lock. A stripe stores rows column-wise in
+// append-only chunks (account id, millisecond within the hour, amount, transaction
+// id: 24 bytes a row) and remembers each chunk's largest amount, so a scan skips the
+// hours and types outside the query and every chunk with nothing over the threshold,
+// and reads the rest sequentially.
+//
+// Appends publish a row by writing the stripe's size last; scans read the size first
+// and never lock, so they see every row appended before they reached that stripe.
+// Results are streamed to a Visitor in hour order; within an hour they are grouped by
+// type and stripe rather than sorted by time.
+//
+// Hours are kept for 'retention' behind the newest hour appended to. When appends move
+// on to a new hour, whole hours that fell out of the window are dropped from the map,
+// and rows older than the window (say from a long history being backfilled) are not
+// indexed at all, so the index holds a bounded number of hours however long the bank
+// runs. BankManager.startHistoryArchive lowers the retention to the archive's hot age,
+// so rows the archive moves off heap by age leave the index at about the same time.
+//
+// Like BankStatistics, accountAdded and accountRemoved must be called while holding
+// the account's lock. Deleting an account releases it at once and scans skip its rows
+// from then on; the rows themselves go when their hour expires.
+public class TransactionIndex {
+    public static final long DEFAULT_RETENTION_DAYS = 90;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final int FIRST_CHUNK_ROWS = 64;
+    private static final int MAX_CHUNK_ROWS = 8192;
+
+    private final int stripes;
+    private volatile long retentionHours;
+    private final ConcurrentSkipListMap<Long, Hour> hours = new ConcurrentSkipListMap<>();
+    // The hour most appends go to, to skip the map lookup
+    private volatile Hour latest;
+    // Hours before this one have expired
+    private volatile long oldestHour = Long.MIN_VALUE;
+    // Account ids are positions in this table; guarded by 'this'
+    private volatile Tracked[] accounts = new Tracked[1024];
+    private int accountCount;
+
+    // Receives matching transactions; return false to stop the scan
+    public interface Visitor {
+        boolean visit(BankAccount account, TransactionType type, long amount, long timestampMillis,
+                      long transactionId);
+    }
+
+    private static final class Hour {
+        private final long epochHour;
+        private final Stripe[] stripes;
+
+        private Hour(long epochHour, int stripeCount) {
+            this.epochHour = epochHour;
+            this.stripes = new Stripe[TYPES.length * stripeCount];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+    }
+
+    private static final class Chunk {
+        private final int[] accounts;
+        private final int[] offsets;
+        private final long[] amounts;
+        private final long[] transactionIds;
+        private long maxAmount = Long.MIN_VALUE;
+
+        private Chunk(int capacity) {
+            accounts = new int[capacity];
+            offsets = new int[capacity];
+            amounts = new long[capacity];
+            transactionIds = new long[capacity];
+        }
+    }
+
+    // Chunks double in size up to MAX_CHUNK_ROWS, so a quiet hour stays small
+    private static final class Stripe {
+        private volatile Chunk[] chunks = new Chunk[0];
+        private volatile int size;
+        // Rows already in the chunks before the last one; guarded by 'this'
+        private int filled;
+
+        private synchronized void append(int account, int offset, long amount, long transactionId) {
+            Chunk[] current = chunks;
+            Chunk last = current.length == 0 ? null : current[current.length - 1];
+            if (last == null || size - filled == last.amounts.length) {
+                if (last != null) {
+                    filled += last.amounts.length;
+                }
+                last = new Chunk(last == null ? FIRST_CHUNK_ROWS : Math.min(last.amounts.length * 2, MAX_CHUNK_ROWS));
+                Chunk[] grown = Arrays.copyOf(current, current.length + 1);
+                grown[current.length] = last;
+                chunks = grown;
+            }
+            int row = size - filled;
+            last.accounts[row] = account;
+            last.offsets[row] = offset;
+            last.amounts[row] = amount;
+            last.transactionIds[row] = transactionId;
+            if (amount > last.maxAmount) {
+                last.maxAmount = amount;
+            }
+            size = size + 1;
+        }
+    }
+
+    // One per indexed account, carrying its id; account is null once it was deleted
+    private final class Tracked implements AccountListener {
+        private final BankAccount account;
+        private final int id;
+
+        private Tracked(BankAccount account, int id) {
+            this.account = account;
+            this.id = id;
+        }
+
+        @Override
+        public void transactionRecorded(BankAccount account, TransactionType type, long amount,
+                long timestampMillis, long transactionId) {
+            record(id, type, amount, timestampMillis, transactionId);
+        }
+    }
+
+    public TransactionIndex() {
+        this(Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors())) * 4,
+                DEFAULT_RETENTION_DAYS, TimeUnit.DAYS);
+    }
+
+    // 'stripes' must be a power of two; retention is rounded up to whole hours
+    public TransactionIndex(int stripes, long retention, TimeUnit unit) {
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two");
+        }
+        if (retention <= 0) {
+            throw new IllegalArgumentException("Retention must be positive");
+        }
+        this.stripes = stripes;
+        this.retentionHours = Math.max(1, (unit.toMillis(retention) + HOUR_MILLIS - 1) / HOUR_MILLIS);
+    }
+
+    // Takes effect at once: hours now outside the window are dropped. A longer retention
+    // does not bring back hours that already expired.
+    public void setRetention(long retention, TimeUnit unit) {
+        if (retention <= 0) {
+            throw new IllegalArgumentException("Retention must be positive");
+        }
+        retentionHours = Math.max(1, (unit.toMillis(retention) + HOUR_MILLIS - 1) / HOUR_MILLIS);
+        Hour newest = latest;
+        if (newest != null) {
+            expireBefore(newest.epochHour - retentionHours + 1);
+        }
+    }
+
+    // Indexes the account's history within the retention window and everything it
+    // records from now on. Rows are read in place, oldest first, from the first one
+    // that has not expired.
+    public void accountAdded(BankAccount account) {
+        Tracked tracked = register(account);
+        long oldest = oldestHour;
+        int fromRow = oldest == Long.MIN_VALUE ? 0 : account.findTransactionRow(oldest * HOUR_MILLIS);
+        account.visitTransactions(fromRow, Integer.MAX_VALUE, (type, amount, description, timestamp, id) ->
+                record(tracked.id, type, amount, timestamp, id));
+        account.addListener(tracked);
+    }
+
+    // Stops indexing the account and lets go of it; scans skip its rows from now on.
+    // Walks the account table, which is fine for something as rare as deleting an
+    // account.
+    public synchronized void accountRemoved(BankAccount account) {
+        Tracked[] table = accounts;
+        for (int id = 0; id < accountCount; id++) {
+            if (table[id].account == account) {
+                account.removeListener(table[id]);
+                table[id] = new Tracked(null, id);
+            }
+        }
+    }
+
+    private synchronized Tracked register(BankAccount account) {
+        if (accountCount == accounts.length) {
+            accounts = Arrays.copyOf(accounts, accountCount * 2);
+        }
+        Tracked tracked = new Tracked(account, accountCount);
+        accounts[accountCount++] = tracked;
+        return tracked;
+    }
+
+    private void record(int account, TransactionType type, long amount, long timestampMillis,
+                        long transactionId) {
+        long epochHour = Math.floorDiv(timestampMillis, HOUR_MILLIS);
+        Hour hour = latest;
+        if (hour == null || hour.epochHour != epochHour) {
+            if (epochHour < oldestHour) {
+                return;
+            }
+            hour = hours.computeIfAbsent(epochHour, h -> new Hour(h, stripes));
+            if (latest == null || epochHour > latest.epochHour) {
+                latest = hour;
+                expireBefore(epochHour - retentionHours + 1);
+            }
+        }
+        hour.stripes[type.ordinal() * stripes + (account & (stripes - 1))]
+                .append(account, (int) (timestampMillis - epochHour * HOUR_MILLIS), amount, transactionId);
+    }
+
+    // Runs once per hour, when appends reach a new hour. A row racing with this may land
+    // in an hour that was just dropped, which only loses a row that had expired anyway.
+    private synchronized void expireBefore(long epochHour) {
+        if (epochHour > oldestHour) {
+            oldestHour = epochHour;
+            hours.headMap(epochHour).clear();
+        }
+    }
+
+    // Streams every transaction with fromMillis <= timestamp < toMillis, a type in
+    // 'types' (null for all) and amount >= minAmount. Returns the number visited.
+    public long scan(long fromMillis, long toMillis, Set<TransactionType> types, long minAmount, Visitor visitor) {
+        if (fromMillis >= toMillis) {
+            return 0;
+        }
+        EnumSet<TransactionType> wanted = types == null ? EnumSet.allOf(TransactionType.class) : EnumSet.copyOf(types);
+        Tracked[] table = accounts;
+        long visited = 0;
+        Map<Long, Hour> range = hours.subMap(Math.floorDiv(fromMillis, HOUR_MILLIS), true,
+                Math.floorDiv(toMillis - 1, HOUR_MILLIS), true);
+        for (Hour hour : range.values()) {
+            long base = hour.epochHour * HOUR_MILLIS;
+            // Only the first and last hours need the time check
+            int fromOffset = (int) Math.max(0, fromMillis - base);
+            long toOffset = Math.min(HOUR_MILLIS, toMillis - base);
+            for (TransactionType type : wanted) {
+                for (int s = 0; s < stripes; s++) {
+                    Stripe stripe = hour.stripes[type.ordinal() * stripes + s];
+                    int size = stripe.size;
+                    Chunk[] chunks = stripe.chunks;
+                    int start = 0;
+                    for (int c = 0; c < chunks.length && start < size; c++) {
+                        Chunk chunk = chunks[c];
+                        int rows = Math.min(chunk.amounts.length, size - start);
+                        start += rows;
+                        if (chunk.maxAmount < minAmount) {
+                            continue;
+                        }
+                        long[] amounts = chunk.amounts;
+                        int[] offsets = chunk.offsets;
+                        for (int row = 0; row < rows; row++) {
+                            if (amounts[row] < minAmount || offsets[row] < fromOffset || offsets[row] >= toOffset) {
+                                continue;
+                            }
+                            int account = chunk.accounts[row];
+                            if (account >= table.length) {
+                                table = accounts;
+                            }
+                            BankAccount owner = table[account].account;
+                            if (owner == null) {
+                                continue;
+                            }
+                            visited++;
+                            if (!visitor.visit(owner, type, amounts[row], base + offsets[row],
+                                    chunk.transactionIds[row])) {
+                                return visited;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return visited;
+    }
+
+    // Rows held, including those of deleted accounts that have not expired yet
+    public long getTransactionCount() {
+        long count = 0;
+        for (Hour hour : hours.values()) {
+            for (Stripe stripe : hour.stripes) {
+                count += stripe.size;
+            }
+        }
+        return count;
+    }
+}
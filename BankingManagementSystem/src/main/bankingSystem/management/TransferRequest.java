@@ -0,0 +1,5 @@
+package main.bankingSystem.management;
+
+// One leg of a batch transfer; amount in paise
+public record TransferRequest(String fromAccount, String toAccount, long amount) {
+}
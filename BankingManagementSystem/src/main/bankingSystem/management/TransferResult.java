@@ -0,0 +1,10 @@
+package main.bankingSystem.management;
+
+import main.bankingSystem.accounts.OperationResult;
+
+public record TransferResult(TransferRequest request, OperationResult result) {
+
+    public boolean isSuccess() {
+        return result.isSuccess();
+    }
+}
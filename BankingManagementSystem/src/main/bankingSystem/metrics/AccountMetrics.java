@@ -0,0 +1,76 @@
+package main.bankingSystem.metrics;
+
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.management.BankStatistics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+// Reads the running totals BankManager already keeps, so nothing extra is recorded
+// per operation
+public class AccountMetrics implements AccountMetricsMXBean {
+    private final BankManager manager;
+
+    AccountMetrics(BankManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public long getAccounts() {
+        return manager.getStatistics().getTotals().accounts();
+    }
+
+    @Override
+    public long getActiveAccounts() {
+        return manager.getStatistics().getTotals().activeAccounts();
+    }
+
+    @Override
+    public long getInactiveAccounts() {
+        BankStatistics.Totals totals = manager.getStatistics().getTotals();
+        return totals.accounts() - totals.activeAccounts();
+    }
+
+    @Override
+    public Map<String, Long> getAccountsByType() {
+        return byType(BankStatistics.Totals::accounts);
+    }
+
+    @Override
+    public Map<String, Long> getActiveAccountsByType() {
+        return byType(BankStatistics.Totals::activeAccounts);
+    }
+
+    @Override
+    public long getTotalBalancePaise() {
+        return manager.getStatistics().getTotals().balance();
+    }
+
+    @Override
+    public long getLookups() {
+        return manager.getLookupCount();
+    }
+
+    @Override
+    public long getLookupMisses() {
+        return manager.getLookupMissCount();
+    }
+
+    @Override
+    public int getPendingMaturities() {
+        return manager.getPendingMaturities();
+    }
+
+    @Override
+    public long getMaturedCount() {
+        return manager.getMaturedCount();
+    }
+
+    private Map<String, Long> byType(ToLongFunction<BankStatistics.Totals> value) {
+        Map<String, Long> counts = new TreeMap<>();
+        manager.getStatistics().getTotalsByType().forEach((type, totals) ->
+                counts.put(type, value.applyAsLong(totals)));
+        return counts;
+    }
+}
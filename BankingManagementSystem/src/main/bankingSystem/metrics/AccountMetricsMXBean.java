@@ -0,0 +1,26 @@
+package main.bankingSystem.metrics;
+
+import java.util.Map;
+
+// JMX view of the account population and of BankManager lookups
+public interface AccountMetricsMXBean {
+    long getAccounts();
+
+    long getActiveAccounts();
+
+    long getInactiveAccounts();
+
+    Map<String, Long> getAccountsByType();
+
+    Map<String, Long> getActiveAccountsByType();
+
+    long getTotalBalancePaise();
+
+    long getLookups();
+
+    long getLookupMisses();
+
+    int getPendingMaturities();
+
+    long getMaturedCount();
+}
@@ -0,0 +1,169 @@
+package main.bankingSystem.metrics;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.OperationRecorder;
+import main.bankingSystem.accounts.OperationResult;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.util.Money;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Runtime metrics for a BankManager and every account operation.
+//
+// Installed as the accounts' OperationRecorder, it keeps per-operation outcome counts,
+// volume, latency and monitor-wait histograms (see OperationMetrics). Account counts
+// by type and status come from BankStatistics. Everything is published as MXBeans
+// under "main.bankingSystem:type=Operation,name=<operation>" and
+// "main.bankingSystem:type=Accounts", and can be appended to a text file periodically.
+public class BankMetrics implements OperationRecorder, AutoCloseable {
+    public static final String DOMAIN = "main.bankingSystem";
+    private static final OperationRecorder.Operation[] OPERATIONS = OperationRecorder.Operation.values();
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final OperationMetrics[] operations = new OperationMetrics[OPERATIONS.length];
+    private final AccountMetrics accounts;
+    private final List<ObjectName> registered = new ArrayList<>();
+    private ScheduledExecutorService dumps;
+
+    public BankMetrics(BankManager manager) {
+        for (OperationRecorder.Operation operation : OPERATIONS) {
+            // Batch legs are timed per batch and do not wait on monitors individually
+            operations[operation.ordinal()] = new OperationMetrics(operation != Operation.BATCH_TRANSFER);
+        }
+        this.accounts = new AccountMetrics(manager);
+    }
+
+    // Creates metrics for 'manager', registers the MBeans and starts recording every
+    // account operation
+    public static BankMetrics install(BankManager manager) throws JMException {
+        BankMetrics metrics = new BankMetrics(manager);
+        metrics.register(ManagementFactory.getPlatformMBeanServer());
+        BankAccount.setOperationRecorder(metrics);
+        return metrics;
+    }
+
+    private void register(MBeanServer server) throws JMException {
+        try {
+            for (OperationRecorder.Operation operation : OPERATIONS) {
+                register(server, new ObjectName(DOMAIN + ":type=Operation,name=" + label(operation)),
+                        operations[operation.ordinal()]);
+            }
+            register(server, new ObjectName(DOMAIN + ":type=Accounts"), accounts);
+        } catch (JMException e) {
+            unregister();
+            throw e;
+        }
+    }
+
+    private void register(MBeanServer server, ObjectName name, Object bean) throws JMException {
+        server.registerMBean(bean, name);
+        registered.add(name);
+    }
+
+    @Override
+    public void record(Operation operation, OperationResult result, long amount, long lockWaitNanos,
+            long elapsedNanos) {
+        operations[operation.ordinal()].record(result, amount, lockWaitNanos, elapsedNanos);
+    }
+
+    public OperationMetrics get(Operation operation) {
+        return operations[operation.ordinal()];
+    }
+
+    public AccountMetrics getAccounts() {
+        return accounts;
+    }
+
+    public void dump(PrintStream out) {
+        out.println("==== Bank metrics at " + LocalDateTime.now().format(TIME_FORMATTER) + " ====");
+        out.printf("%-16s %10s %9s %16s %9s %9s %9s %9s %10s %11s%n", "Operation", "Count", "Rejected",
+                "Volume (₹)", "Mean µs", "p50 µs", "p99 µs", "p99.9 µs", "Max µs", "Lock p99 µs");
+        StringBuilder rejections = new StringBuilder();
+        for (OperationRecorder.Operation operation : OPERATIONS) {
+            OperationMetrics metrics = operations[operation.ordinal()];
+            out.printf(Locale.ROOT, "%-16s %10d %9d %16s %9.1f %9.1f %9.1f %9.1f %10.1f %11.1f%n",
+                    label(operation), metrics.getCount(), metrics.getRejectedCount(),
+                    Money.format(metrics.getVolumePaise()), metrics.getMeanLatencyMicros(),
+                    metrics.getLatencyP50Micros(), metrics.getLatencyP99Micros(), metrics.getLatencyP999Micros(),
+                    metrics.getMaxLatencyMicros(), metrics.getLockWaitP99Micros());
+            for (Map.Entry<String, Long> rejection : metrics.getRejectionsByReason().entrySet()) {
+                rejections.append(rejections.length() == 0 ? "" : ", ").append(label(operation)).append(' ')
+                        .append(rejection.getKey()).append(' ').append(rejection.getValue());
+            }
+        }
+        out.println("Rejections: " + (rejections.length() == 0 ? "none" : rejections));
+        out.printf("Accounts: %d total, %d active, %d inactive%n", accounts.getAccounts(),
+                accounts.getActiveAccounts(), accounts.getInactiveAccounts());
+        Map<String, Long> active = accounts.getActiveAccountsByType();
+        accounts.getAccountsByType().forEach((type, count) ->
+                out.printf("  %-22s %10d (%d active)%n", type, count, active.getOrDefault(type, 0L)));
+        out.printf("Lookups: %d (%d not found)   FD maturities pending: %d, matured: %d%n",
+                accounts.getLookups(), accounts.getLookupMisses(), accounts.getPendingMaturities(),
+                accounts.getMaturedCount());
+        out.println();
+    }
+
+    // Appends a dump to 'file' every 'intervalSeconds' on a background thread
+    public synchronized void startDump(Path file, long intervalSeconds) {
+        if (dumps != null) {
+            throw new IllegalStateException("Metrics dump already running");
+        }
+        dumps = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumps.scheduleAtFixedRate(() -> {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND), false, "UTF-8")) {
+                dump(out);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("❌ Metrics dump failed: " + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Stops the dump thread, unregisters the MBeans and stops recording
+    @Override
+    public synchronized void close() {
+        if (dumps != null) {
+            dumps.shutdownNow();
+            dumps = null;
+        }
+        unregister();
+        BankAccount.setOperationRecorder(null);
+    }
+
+    private void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // already gone
+            }
+        }
+        registered.clear();
+    }
+
+    private static String label(Operation operation) {
+        return operation.name().toLowerCase(Locale.ROOT);
+    }
+}
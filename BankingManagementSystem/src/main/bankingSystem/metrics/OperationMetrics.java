@@ -0,0 +1,128 @@
+package main.bankingSystem.metrics;
+
+import main.bankingSystem.accounts.OperationResult;
+import main.bankingSystem.util.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and latency histograms for one kind of money movement. Recording touches
+// only LongAdders and LatencyHistograms, so it never allocates or takes a lock.
+public class OperationMetrics implements OperationMetricsMXBean {
+    private static final OperationResult[] RESULTS = OperationResult.values();
+
+    private final LongAdder[] outcomes = new LongAdder[RESULTS.length];
+    private final LongAdder volume = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram lockWait = new LatencyHistogram();
+    private final boolean timesLocks;
+
+    OperationMetrics(boolean timesLocks) {
+        this.timesLocks = timesLocks;
+        for (int i = 0; i < RESULTS.length; i++) {
+            outcomes[i] = new LongAdder();
+        }
+    }
+
+    void record(OperationResult result, long amount, long lockWaitNanos, long elapsedNanos) {
+        outcomes[result.ordinal()].increment();
+        if (result == OperationResult.SUCCESS) {
+            volume.add(amount);
+        }
+        latency.record(elapsedNanos);
+        if (timesLocks) {
+            lockWait.record(lockWaitNanos);
+        }
+    }
+
+    public long getCount(OperationResult result) {
+        return outcomes[result.ordinal()].sum();
+    }
+
+    @Override
+    public long getCount() {
+        long count = 0;
+        for (LongAdder outcome : outcomes) {
+            count += outcome.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public long getSuccessCount() {
+        return getCount(OperationResult.SUCCESS);
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return getCount() - getSuccessCount();
+    }
+
+    @Override
+    public Map<String, Long> getRejectionsByReason() {
+        Map<String, Long> rejections = new TreeMap<>();
+        for (OperationResult result : RESULTS) {
+            long count = getCount(result);
+            if (result != OperationResult.SUCCESS && count > 0) {
+                rejections.put(result.name(), count);
+            }
+        }
+        return rejections;
+    }
+
+    @Override
+    public long getVolumePaise() {
+        return volume.sum();
+    }
+
+    @Override
+    public double getMeanLatencyMicros() {
+        return latency.getMean() / 1e3;
+    }
+
+    @Override
+    public double getLatencyP50Micros() {
+        return latency.getValueAtPercentile(50) / 1e3;
+    }
+
+    @Override
+    public double getLatencyP99Micros() {
+        return latency.getValueAtPercentile(99) / 1e3;
+    }
+
+    @Override
+    public double getLatencyP999Micros() {
+        return latency.getValueAtPercentile(99.9) / 1e3;
+    }
+
+    @Override
+    public double getMaxLatencyMicros() {
+        return latency.getMax() / 1e3;
+    }
+
+    @Override
+    public double getMeanLockWaitMicros() {
+        return lockWait.getMean() / 1e3;
+    }
+
+    @Override
+    public double getLockWaitP99Micros() {
+        return lockWait.getValueAtPercentile(99) / 1e3;
+    }
+
+    @Override
+    public double getMaxLockWaitMicros() {
+        return lockWait.getMax() / 1e3;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder outcome : outcomes) {
+            outcome.reset();
+        }
+        volume.reset();
+        latency.reset();
+        lockWait.reset();
+    }
+}
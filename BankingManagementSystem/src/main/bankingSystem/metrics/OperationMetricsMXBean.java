@@ -0,0 +1,34 @@
+package main.bankingSystem.metrics;
+
+import java.util.Map;
+
+// JMX view of one kind of money movement; amounts are in paise, times in microseconds
+public interface OperationMetricsMXBean {
+    long getCount();
+
+    long getSuccessCount();
+
+    long getRejectedCount();
+
+    Map<String, Long> getRejectionsByReason();
+
+    long getVolumePaise();
+
+    double getMeanLatencyMicros();
+
+    double getLatencyP50Micros();
+
+    double getLatencyP99Micros();
+
+    double getLatencyP999Micros();
+
+    double getMaxLatencyMicros();
+
+    double getMeanLockWaitMicros();
+
+    double getLockWaitP99Micros();
+
+    double getMaxLockWaitMicros();
+
+    void reset();
+}
@@ -0,0 +1,102 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.SavingsAccount;
+import main.bankingSystem.management.AccountNumbers;
+import main.bankingSystem.management.AccountRegistry;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Compares the previous ConcurrentHashMap<String, BankAccount> account map with
+// AccountRegistry: heap per entry, create throughput and lookup throughput.
+// Every entry maps to the same account object so only the map itself is measured.
+// Give it plenty of heap for large runs, e.g. -Xmx8g for 10M accounts.
+//
+// Usage: AccountRegistryBenchmark [accounts=1000000] [threads=8] [lookupsPerThread=2000000]
+public class AccountRegistryBenchmark {
+
+    private interface Worker {
+        void run(ThreadLocalRandom random);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int lookups = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+        BankAccount shared = new SavingsAccount("SAV1", "Shared", 0);
+        int perThread = accounts / threads;
+
+        // Create: the old code built "SAV" + counter and put it into the map
+        long before = usedHeap();
+        ConcurrentHashMap<String, BankAccount> map = new ConcurrentHashMap<>();
+        AtomicLong counter = new AtomicLong(AccountRegistry.FIRST_SEQUENCE - 1);
+        double mapCreates = run(threads, perThread,
+                random -> map.put("SAV" + counter.incrementAndGet(), shared));
+        long mapBytes = usedHeap() - before;
+
+        before = usedHeap();
+        AccountRegistry registry = new AccountRegistry();
+        double registryCreates = run(threads, perThread,
+                random -> registry.put(registry.nextAccountNumber(AccountNumbers.SAVINGS), shared));
+        long registryBytes = usedHeap() - before;
+
+        int created = perThread * threads;
+        String[] keys = new String[created];
+        for (int i = 0; i < created; i++) {
+            keys[i] = "SAV" + (AccountRegistry.FIRST_SEQUENCE + i);
+        }
+
+        double mapLookups = run(threads, lookups,
+                random -> map.get(keys[random.nextInt(created)]));
+        double registryLookups = run(threads, lookups,
+                random -> registry.get(AccountNumbers.parse(keys[random.nextInt(created)])));
+        double registryLongLookups = run(threads, lookups,
+                random -> registry.get(AccountNumbers.encode(AccountNumbers.SAVINGS,
+                        AccountRegistry.FIRST_SEQUENCE + random.nextInt(created))));
+
+        System.out.printf("Accounts: %,d   Threads: %d%n%n", created, threads);
+        System.out.printf("%-36s %-18s %-18s%n", "", "ConcurrentHashMap", "AccountRegistry");
+        System.out.printf("%-36s %-18.1f %-18.1f%n", "Heap bytes per account",
+                mapBytes / (double) created, registryBytes / (double) created);
+        System.out.printf("%-36s %-18.0f %-18.0f%n", "Creates/sec", mapCreates, registryCreates);
+        System.out.printf("%-36s %-18.0f %-18.0f%n", "Lookups/sec (from String)", mapLookups, registryLookups);
+        System.out.printf("%-36s %-18s %-18.0f%n", "Lookups/sec (encoded long)", "-", registryLongLookups);
+    }
+
+    // Runs 'operations' calls per thread on 'threads' threads, returns calls per second
+    private static double run(int threads, int operations, Worker worker) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < operations; i++) {
+                    worker.run(random);
+                }
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread w : workers) {
+            w.join();
+        }
+        return (double) threads * operations * 1e9 / (System.nanoTime() - begin);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,125 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.SavingsAccount;
+import main.bankingSystem.management.AccountNumbers;
+import main.bankingSystem.management.BalanceIndex;
+import main.bankingSystem.util.Money;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+// Cost and payoff of BalanceIndex.
+//
+// Update overhead: the same random deposits and withdrawals on the same accounts,
+// first with no index and then with every account in a BalanceIndex, so the
+// difference is what each balance change pays to keep the index ordered.
+//
+// Queries: top 100, a random balance range (first 100) and below-minimum through the
+// index, against streaming every account and sorting. 1% of the accounts are opened
+// below the savings minimum so the below-minimum query has something to find. The
+// index's top 100 is checked against the sort.
+//
+// Usage: BalanceIndexHarness [accounts=1000000] [operations=2000000] [queries=1000]
+public class BalanceIndexHarness {
+    private static final int LIMIT = 100;
+    private static final int SORTS = 5;
+
+    public static void main(String[] args) {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+
+        Random random = new Random(42);
+        List<BankAccount> accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            long balance = i % 100 == 0 ? Money.ofRupees(500)
+                    : Money.ofRupees(1_000 + random.nextInt(1_000_000));
+            accounts.add(new SavingsAccount(AccountNumbers.format(AccountNumbers.encode(AccountNumbers.SAVINGS, i + 1)),
+                    "Holder " + i, balance));
+        }
+
+        // Warm both paths up before the measured runs
+        double plain = operate(accounts, operations, random);
+        plain = operate(accounts, operations, random);
+
+        BalanceIndex index = new BalanceIndex();
+        long start = System.nanoTime();
+        for (BankAccount account : accounts) {
+            synchronized (account) {
+                index.accountAdded(account);
+            }
+        }
+        double buildSeconds = (System.nanoTime() - start) / 1e9;
+        double indexed = operate(accounts, operations, random);
+        indexed = operate(accounts, operations, random);
+
+        System.out.printf("Accounts: %,d   Operations per run: %,d   Index built in %.2f s%n%n", accountCount,
+                operations, buildSeconds);
+        System.out.printf("%-32s %12s%n", "Deposit/withdraw", "ns/op");
+        System.out.printf("%-32s %12.0f%n", "without index", plain);
+        System.out.printf("%-32s %12.0f%n", "with BalanceIndex", indexed);
+        System.out.printf("%-32s %12.0f%n%n", "overhead", indexed - plain);
+
+        long found = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            found += index.top(LIMIT).size();
+        }
+        double topMicros = (System.nanoTime() - start) / 1e3 / queries;
+
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            long from = Money.ofRupees(1_000 + random.nextInt(1_000_000));
+            found += index.between(from, from + Money.ofRupees(10_000), LIMIT).size();
+        }
+        double rangeMicros = (System.nanoTime() - start) / 1e3 / queries;
+
+        int below = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            below = index.belowMinimum(LIMIT).size();
+        }
+        double belowMicros = (System.nanoTime() - start) / 1e3 / queries;
+
+        List<Long> sorted = null;
+        start = System.nanoTime();
+        for (int i = 0; i < SORTS; i++) {
+            sorted = accounts.stream()
+                    .map(BankAccount::getBalance)
+                    .sorted(Comparator.reverseOrder())
+                    .limit(LIMIT)
+                    .collect(Collectors.toList());
+        }
+        double sortMicros = (System.nanoTime() - start) / 1e3 / SORTS;
+        List<Long> fromIndex = index.top(LIMIT).stream().map(BankAccount::getBalance).collect(Collectors.toList());
+
+        System.out.printf("%-32s %12s%n", "Query (first " + LIMIT + ")", "µs/query");
+        System.out.printf("%-32s %12.1f%n", "top balances", topMicros);
+        System.out.printf("%-32s %12.1f%n", "balance range", rangeMicros);
+        System.out.printf("%-32s %12.1f   (%d found)%n", "below minimum", belowMicros, below);
+        System.out.printf("%-32s %12.0f%n", "stream and sort (top)", sortMicros);
+        System.out.println();
+        System.out.println(fromIndex.equals(sorted) && found > 0
+                ? "✅ Index top " + LIMIT + " matches the sort"
+                : "❌ Index top " + LIMIT + " differs from the sort");
+    }
+
+    // Average ns per deposit or withdrawal of ₹1-₹1000 on random accounts
+    private static double operate(List<BankAccount> accounts, int operations, Random random) {
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            BankAccount account = accounts.get(random.nextInt(accounts.size()));
+            long amount = Money.ofRupees(1 + random.nextInt(1_000));
+            if ((i & 1) == 0) {
+                account.deposit(amount);
+            } else {
+                account.withdraw(amount);
+            }
+        }
+        return (System.nanoTime() - start) / (double) operations;
+    }
+}
@@ -0,0 +1,99 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.management.TransferRequest;
+import main.bankingSystem.management.TransferResult;
+import main.bankingSystem.persistence.DurabilityMode;
+import main.bankingSystem.persistence.TransactionJournal;
+import main.bankingSystem.util.Money;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Settles the same payroll-style file of transfer legs twice: once as a loop of
+// BankAccount.transfer calls and once through BankManager.submitTransfers, then
+// compares throughput and checks that no money was created or lost. Both run against
+// a group-commit journal, as Main does; console output is discarded for both.
+//
+// Usage: BatchTransferHarness [legs=100000] [accounts=10000] [rounds=3]
+public class BatchTransferHarness {
+
+    public static void main(String[] args) throws IOException {
+        int legs = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int accountCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        PrintStream console = System.out;
+        Path file = Files.createTempFile("batch-transfer-", ".dat");
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try (TransactionJournal journal = TransactionJournal.open(file, DurabilityMode.GROUP_COMMIT)) {
+            BankManager manager = new BankManager(journal);
+            String[] numbers = new String[accountCount];
+            for (int i = 0; i < accountCount; i++) {
+                numbers[i] = manager.createCurrentAccount("Holder " + i, Money.ofRupees(100_000), 0);
+            }
+            long before = totalBalance(manager, numbers);
+
+            // A few employer accounts pay everyone else, plus random peer transfers
+            Random random = new Random(42);
+            List<TransferRequest> requests = new ArrayList<>(legs);
+            for (int i = 0; i < legs; i++) {
+                String from = numbers[i % 4 == 0 ? random.nextInt(accountCount) : random.nextInt(10)];
+                String to = numbers[random.nextInt(accountCount)];
+                requests.add(new TransferRequest(from, to, 1 + random.nextInt(100_00)));
+            }
+
+            long loopNanos = Long.MAX_VALUE;
+            long batchNanos = Long.MAX_VALUE;
+            long loopCompleted = 0;
+            long batchCompleted = 0;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                loopCompleted = 0;
+                for (TransferRequest request : requests) {
+                    BankAccount from = manager.getAccount(request.fromAccount());
+                    BankAccount to = manager.getAccount(request.toAccount());
+                    if (from.transfer(to, request.amount()).isSuccess()) {
+                        loopCompleted++;
+                    }
+                }
+                loopNanos = Math.min(loopNanos, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                batchCompleted = 0;
+                for (TransferResult result : manager.submitTransfers(requests)) {
+                    if (result.isSuccess()) {
+                        batchCompleted++;
+                    }
+                }
+                batchNanos = Math.min(batchNanos, System.nanoTime() - start);
+            }
+            long after = totalBalance(manager, numbers);
+
+            console.printf("Legs: %,d   Accounts: %,d   Best of %d rounds%n%n", legs, accountCount, rounds);
+            console.printf("%-22s %-16s %-12s%n", "", "Legs/sec", "Completed");
+            console.printf("%-22s %-16.0f %-12d%n", "transfer() loop", legs * 1e9 / loopNanos, loopCompleted);
+            console.printf("%-22s %-16.0f %-12d%n", "submitTransfers", legs * 1e9 / batchNanos, batchCompleted);
+            console.printf("%nSpeed-up: %.1fx   Money conserved: %s%n", (double) loopNanos / batchNanos,
+                    before == after ? "yes" : "NO (" + before + " -> " + after + ")");
+        } finally {
+            System.setOut(console);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long totalBalance(BankManager manager, String[] numbers) {
+        long total = 0;
+        for (String number : numbers) {
+            total += manager.getAccount(number).getBalance();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,192 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.CurrentAccount;
+import main.bankingSystem.transactions.HistoryArchive;
+import main.bankingSystem.transactions.Transaction;
+import main.bankingSystem.transactions.TransactionPage;
+import main.bankingSystem.transactions.TransactionType;
+import main.bankingSystem.util.Money;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Live heap as account histories grow, with every row on heap and with a HistoryArchive
+// keeping 'hot' rows per account. Run with a fixed heap, e.g. -Xms2g -Xmx2g.
+//
+// Each run applies the same seeded mix of deposits, withdrawals and transfers, and
+// reports the heap after every quarter of it and the cost per operation. Then, on the
+// archived accounts:
+//   - the newest page (on heap), a page deep in the archive for random accounts (read
+//     from the file) and the same deep page again (from the archive's cache)
+//   - every account's full history, read back through visitTransactions, must add up
+//     to its balance, and the paged views must match the rows
+//
+// Usage: HistoryTieringHarness [accounts=2000] [operations=10000000] [hot=500]
+public class HistoryTieringHarness {
+    private static final long OPENING = Money.ofRupees(1_00_00_000);
+    private static final int PAGE = 20;
+    private static final int QUERIES = 20_000;
+
+    public static void main(String[] args) throws IOException {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int hot = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        System.out.printf("Accounts: %,d   Operations: %,d   Hot rows per account: %,d%n%n", accountCount,
+                operations, hot);
+        System.out.printf("%-20s %12s %12s %12s %12s %12s %10s%n", "", "Heap MB 25%", "50%", "75%", "100%",
+                "B/row", "ns/op");
+        load("all on heap", accountCount, operations, null);
+
+        Path file = Files.createTempFile("history-", ".archive");
+        try (HistoryArchive archive = HistoryArchive.open(file, hot, 0, TimeUnit.DAYS)) {
+            List<BankAccount> accounts = load("hot/cold", accountCount, operations, archive);
+            long rows = 0;
+            for (BankAccount account : accounts) {
+                rows += account.getTransactionCount();
+            }
+            System.out.printf("%nArchived %,d of %,d rows in %,d segments: %.1f bytes/row on disk, "
+                            + "%.0f MB file%n%n", archive.getArchivedRowCount(), rows, archive.getSegmentCount(),
+                    archive.getBytesWritten() / (double) archive.getArchivedRowCount(),
+                    archive.getBytesWritten() / 1e6);
+            queries(accounts, archive);
+            verify(accounts);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<BankAccount> load(String label, int accountCount, int operations, HistoryArchive archive) {
+        List<BankAccount> accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            BankAccount account = new CurrentAccount("CUR" + (i + 1), "Holder " + i, OPENING, OPENING);
+            if (archive != null) {
+                account.attachArchive(archive);
+            }
+            accounts.add(account);
+        }
+        long before = usedHeap();
+        Random random = new Random(42);
+        double[] heap = new double[4];
+        long nanos = 0;
+        for (int quarter = 0; quarter < 4; quarter++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < operations / 4; i++) {
+                BankAccount account = accounts.get(random.nextInt(accountCount));
+                long amount = Money.ofRupees(1 + random.nextInt(10_000)) + random.nextInt(100);
+                switch (random.nextInt(3)) {
+                    case 0 -> account.deposit(amount);
+                    case 1 -> account.withdraw(amount);
+                    default -> account.transfer(accounts.get(random.nextInt(accountCount)), amount);
+                }
+            }
+            nanos += System.nanoTime() - start;
+            heap[quarter] = (usedHeap() - before) / 1e6;
+        }
+        long rows = 0;
+        for (BankAccount account : accounts) {
+            rows += account.getTransactionCount();
+        }
+        System.out.printf("%-20s %12.0f %12.0f %12.0f %12.0f %12.1f %10.0f%n", label, heap[0], heap[1], heap[2],
+                heap[3], heap[3] * 1e6 / rows, nanos / (double) (operations / 4 * 4));
+        return accounts;
+    }
+
+    private static void queries(List<BankAccount> accounts, HistoryArchive archive) {
+        Random random = new Random(7);
+        int[] cursors = new int[QUERIES];
+        BankAccount[] picked = new BankAccount[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            picked[i] = accounts.get(random.nextInt(accounts.size()));
+            int archived = picked[i].getArchivedTransactionCount();
+            cursors[i] = archived == 0 ? TransactionPage.FIRST : 1 + random.nextInt(archived);
+        }
+        System.out.printf("%-36s %12s %16s%n", "Page of " + PAGE, "us/page", "segment reads");
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                picked[i].getRecentTransactions(PAGE);
+            }
+            report("newest (on heap)", start, 0);
+        }
+        long misses = archive.getCacheMisses();
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            picked[i].getTransactionsBefore(cursors[i], PAGE);
+        }
+        report("archived, random accounts", start, archive.getCacheMisses() - misses);
+
+        misses = archive.getCacheMisses();
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            picked[0].getTransactionsBefore(cursors[0], PAGE);
+        }
+        report("archived, same page again", start, archive.getCacheMisses() - misses);
+        System.out.println();
+    }
+
+    // Segment reads are cache misses: segments read from the file and decoded
+    private static void report(String label, long start, long misses) {
+        double micros = (System.nanoTime() - start) / 1e3 / QUERIES;
+        System.out.printf("%-36s %12.1f %16.2f%n", label, micros, misses / (double) QUERIES);
+    }
+
+    // Replays every account's history into a balance and compares the newest page of
+    // each type and of the oldest rows with row-by-row reads
+    private static void verify(List<BankAccount> accounts) {
+        long[] balance = new long[1];
+        int mismatched = 0;
+        for (BankAccount account : accounts) {
+            balance[0] = 0;
+            account.visitTransactions(0, Integer.MAX_VALUE, (type, amount, description, timestamp, id) ->
+                    balance[0] += type == TransactionType.WITHDRAWAL || type == TransactionType.TRANSFER_OUT
+                            ? -amount : amount);
+            if (balance[0] != account.getBalance() || !pagesMatch(account)) {
+                mismatched++;
+            }
+        }
+        System.out.println(mismatched == 0
+                ? "✅ Every account's archived and hot history adds up to its balance"
+                : "❌ " + mismatched + " accounts' history does not match their balance");
+    }
+
+    private static boolean pagesMatch(BankAccount account) {
+        List<Transaction> oldest = account.getTransactionsBefore(PAGE, PAGE).getTransactions();
+        List<Transaction> all = account.getTransactionHistory();
+        for (int i = 0; i < oldest.size(); i++) {
+            if (oldest.get(i).getTransactionId() != all.get(oldest.size() - 1 - i).getTransactionId()) {
+                return false;
+            }
+        }
+        for (TransactionType type : TransactionType.values()) {
+            List<Transaction> page = account.getTransactionsOfType(type, TransactionPage.FIRST, Integer.MAX_VALUE)
+                    .getTransactions();
+            int position = 0;
+            for (int i = all.size() - 1; i >= 0; i--) {
+                if (all.get(i).getType() == type
+                        && (position >= page.size() || page.get(position++).getTransactionId() != all.get(i)
+                        .getTransactionId())) {
+                    return false;
+                }
+            }
+            if (position != page.size()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
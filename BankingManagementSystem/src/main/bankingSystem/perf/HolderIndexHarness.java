@@ -0,0 +1,140 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.management.HolderIndex;
+import main.bankingSystem.util.Money;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Customer lookups through BankManager's holder-name index against a full scan of
+// every account, at a realistic population: about two accounts per customer, names
+// drawn from common first and last names plus a number.
+//
+// Measures exact lookups (summary plus accounts), prefix lookups of the first 20
+// matches and the scan, then moves money between random accounts from several threads
+// and checks every customer's running total against the sum of their account
+// balances.
+//
+// Usage: HolderIndexHarness [accounts=1000000] [lookups=100000] [threads=4]
+public class HolderIndexHarness {
+    private static final String[] FIRST = {"Rahul", "Priya", "Amit", "Sneha", "Vikram", "Anjali", "Rohan",
+            "Kavya", "Arjun", "Meera", "Sanjay", "Pooja", "Karan", "Divya", "Nikhil", "Isha"};
+    private static final String[] LAST = {"Sharma", "Verma", "Iyer", "Patel", "Reddy", "Nair", "Gupta",
+            "Singh", "Das", "Mehta", "Joshi", "Rao", "Khan", "Menon", "Bose", "Kapoor"};
+    private static final int SCANS = 20;
+
+    public static void main(String[] args) throws InterruptedException {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int customers = Math.max(1, accountCount / 2);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        BankManager manager = new BankManager();
+        List<BankAccount> all = new ArrayList<>(accountCount);
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < accountCount; i++) {
+                String number = manager.createSavingsAccount(name(random.nextInt(customers)), Money.ofRupees(10_000));
+                all.add(manager.findAccount(number));
+            }
+        } finally {
+            System.setOut(console);
+        }
+        HolderIndex holders = manager.getHolders();
+        console.printf("Accounts: %,d   Customers: %,d   Opened in %.1f s%n%n", accountCount,
+                holders.getHolderCount(), (System.nanoTime() - start) / 1e9);
+
+        long found = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            String name = name(random.nextInt(customers)).toUpperCase(Locale.ROOT);
+            HolderIndex.Summary summary = holders.summaryOf(name);
+            if (summary != null) {
+                found += holders.accountsOf(name).size();
+            }
+        }
+        double exactMicros = (System.nanoTime() - start) / 1e3 / lookups;
+
+        long matched = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            String first = FIRST[random.nextInt(FIRST.length)];
+            matched += holders.findByPrefix(first.substring(0, 2 + random.nextInt(first.length() - 1)), 20).size();
+        }
+        double prefixMicros = (System.nanoTime() - start) / 1e3 / lookups;
+
+        long scanned = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < SCANS; i++) {
+            String name = name(random.nextInt(customers));
+            for (BankAccount account : all) {
+                if (account.getAccountHolder().equalsIgnoreCase(name)) {
+                    scanned++;
+                }
+            }
+        }
+        double scanMicros = (System.nanoTime() - start) / 1e3 / SCANS;
+
+        console.printf("%-28s %14s %12s%n", "Lookup", "µs/lookup", "Results");
+        console.printf("%-28s %14.2f %12.2f%n", "exact (summary + accounts)", exactMicros, found / (double) lookups);
+        console.printf("%-28s %14.2f %12.2f%n", "prefix (first 20)", prefixMicros, matched / (double) lookups);
+        console.printf("%-28s %14.0f %12.2f%n", "full scan", scanMicros, scanned / (double) SCANS);
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom r = ThreadLocalRandom.current();
+                for (int i = 0; i < accountCount; i++) {
+                    BankAccount account = all.get(r.nextInt(all.size()));
+                    long amount = 1 + r.nextLong(Money.ofRupees(100));
+                    switch (r.nextInt(3)) {
+                        case 0 -> account.deposit(amount);
+                        case 1 -> account.withdraw(amount);
+                        default -> account.transfer(all.get(r.nextInt(all.size())), amount);
+                    }
+                }
+            });
+        }
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (Thread worker : workers) {
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } finally {
+            System.setOut(console);
+        }
+
+        long mismatched = 0;
+        for (int c = 0; c < customers; c++) {
+            String name = name(c);
+            HolderIndex.Summary summary = holders.summaryOf(name);
+            long sum = 0;
+            for (BankAccount account : holders.accountsOf(name)) {
+                sum += account.getBalance();
+            }
+            if (summary == null ? sum != 0 : summary.balance() != sum) {
+                mismatched++;
+            }
+        }
+        console.printf("%nAfter %,d random operations on %d threads: %,d customers with a wrong total%n",
+                (long) accountCount * threads, threads, mismatched);
+    }
+
+    private static String name(int customer) {
+        return FIRST[customer % FIRST.length] + " " + LAST[customer / FIRST.length % LAST.length] + " "
+                + customer / (FIRST.length * LAST.length);
+    }
+}
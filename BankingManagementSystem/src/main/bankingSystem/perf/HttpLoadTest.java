@@ -0,0 +1,329 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.http.BankHttpServer;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.util.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Local load test for BankHttpServer. Opens accounts through the API, then drives a
+// weighted mix of balance checks, deposits, transfers and history pages over N
+// keep-alive connections, each with one request outstanding at a time (closed-loop),
+// and reports requests/sec, latency percentiles per request type and the status codes
+// seen.
+//
+// The connections are driven by a minimal HTTP/1.1 client on a single selector thread
+// so the client costs far less per request than the server, and one box can hold tens
+// of thousands of busy connections. 'idle' additionally opens connections that never
+// send a request and holds them for the whole run, to show the server keeps serving
+// while it carries many open, quiet sockets. Every connection costs a file descriptor
+// on both ends when the server runs in this process, so raise 'ulimit -n' to match.
+//
+// Usage: HttpLoadTest [key=value ...]
+//   url=                  server to test, e.g. http://localhost:8080; empty starts one
+//                         in this process on a free port
+//   accounts=1000         accounts opened before the run
+//   connections=256       busy connections, each with one request in flight
+//   idle=0                extra idle connections held open
+//   mix=60,20,15,5        weights of balance, deposit, transfer and history requests
+//   seconds=20            measured duration
+//   warmup=5              seconds of load before measurement starts
+public class HttpLoadTest {
+    private static final Request[] REQUESTS = Request.values();
+    private static final Pattern ACCOUNT_NUMBER = Pattern.compile("\"accountNumber\":\"([^\"]+)\"");
+    private static final List<String> KEYS = List.of("url", "accounts", "connections", "idle", "mix", "seconds",
+            "warmup");
+
+    private enum Request {
+        BALANCE("balance"), DEPOSIT("deposit"), TRANSFER("transfer"), HISTORY("history");
+
+        private final String label;
+
+        Request(String label) {
+            this.label = label;
+        }
+    }
+
+    // One busy connection: the request being written and the response being read
+    private static final class Connection {
+        private final SocketChannel channel;
+        private ByteBuffer in = ByteBuffer.allocate(16_384);
+        private ByteBuffer out;
+        private Request request;
+        private long startNanos;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = parse(args);
+        String url = options.getOrDefault("url", "");
+        int accountCount = Integer.parseInt(options.getOrDefault("accounts", "1000"));
+        int connections = Integer.parseInt(options.getOrDefault("connections", "256"));
+        int idle = Integer.parseInt(options.getOrDefault("idle", "0"));
+        int[] mix = weights(options.getOrDefault("mix", "60,20,15,5"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "20"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+
+        PrintStream console = System.out;
+        BankManager manager = null;
+        BankHttpServer server = null;
+        List<SocketChannel> sockets = new ArrayList<>();
+        if (url.isEmpty()) {
+            // Account creation prints to the console; keep the report readable
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            manager = new BankManager();
+            server = BankHttpServer.start(manager, 0);
+            url = "http://localhost:" + server.getPort();
+        }
+        try (Selector selector = Selector.open()) {
+            URI base = URI.create(url);
+            InetSocketAddress address = new InetSocketAddress(base.getHost(), base.getPort());
+            String host = base.getHost() + ":" + base.getPort();
+            String[] numbers = openAccounts(url, accountCount);
+            for (int i = 0; i < idle; i++) {
+                sockets.add(SocketChannel.open(address));
+            }
+
+            LatencyHistogram[] latency = new LatencyHistogram[REQUESTS.length + 1];
+            for (int i = 0; i < latency.length; i++) {
+                latency[i] = new LatencyHistogram();
+            }
+            Map<Integer, Long> statuses = new TreeMap<>();
+            long failures = 0;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < connections; i++) {
+                SocketChannel channel = SocketChannel.open(address);
+                sockets.add(channel);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.configureBlocking(false);
+                Connection connection = new Connection(channel);
+                channel.register(selector, 0, connection);
+                send(connection, selector, host, numbers, mix, random);
+            }
+
+            long measureFromNanos = System.nanoTime() + warmup * 1_000_000_000L;
+            long endNanos = measureFromNanos + seconds * 1_000_000_000L;
+            int active = connections;
+            while (active > 0) {
+                selector.select(100);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isWritable()) {
+                        connection.channel.write(connection.out);
+                        if (!connection.out.hasRemaining()) {
+                            key.interestOps(SelectionKey.OP_READ);
+                        }
+                        continue;
+                    }
+                    int status = read(connection);
+                    if (status == 0) {
+                        continue;
+                    }
+                    long end = System.nanoTime();
+                    if (connection.startNanos >= measureFromNanos && end < endNanos) {
+                        if (status < 0) {
+                            failures++;
+                        } else {
+                            latency[connection.request.ordinal()].record(end - connection.startNanos);
+                            latency[REQUESTS.length].record(end - connection.startNanos);
+                            statuses.merge(status, 1L, Long::sum);
+                        }
+                    }
+                    if (status < 0 || end >= endNanos) {
+                        key.cancel();
+                        connection.channel.close();
+                        active--;
+                    } else {
+                        send(connection, selector, host, numbers, mix, random);
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+
+            long completed = latency[REQUESTS.length].getTotalCount();
+            console.printf("Server: %s   Accounts: %,d   Connections: %,d busy + %,d idle   Cores: %d%n",
+                    server != null ? "in-process " + url : url, accountCount, connections, idle,
+                    Runtime.getRuntime().availableProcessors());
+            console.printf("Achieved: %,.0f requests/sec over %d s (%,d requests, %,d failed)%n%n",
+                    completed / (double) seconds, seconds, completed, failures);
+            console.printf("%-10s %12s %10s %10s %10s %10s %10s%n", "Latency µs", "Count", "Mean", "p50", "p99",
+                    "p99.9", "Max");
+            for (int i = 0; i < latency.length; i++) {
+                LatencyHistogram histogram = latency[i];
+                console.printf("%-10s %,12d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                        i < REQUESTS.length ? REQUESTS[i].label : "all", histogram.getTotalCount(),
+                        histogram.getMean() / 1e3, histogram.getValueAtPercentile(50) / 1e3,
+                        histogram.getValueAtPercentile(99) / 1e3, histogram.getValueAtPercentile(99.9) / 1e3,
+                        histogram.getMax() / 1e3);
+            }
+            console.println();
+            StringBuilder codes = new StringBuilder("Status codes:");
+            statuses.forEach((code, count) -> codes.append(' ').append(code).append('=').append(count));
+            console.println(codes);
+        } finally {
+            for (SocketChannel socket : sockets) {
+                socket.close();
+            }
+            if (server != null) {
+                server.stop(0);
+                manager.shutdown();
+            }
+            System.setOut(console);
+        }
+    }
+
+    // Starts the connection's next request, writing as much as the socket takes now
+    private static void send(Connection connection, Selector selector, String host, String[] numbers, int[] mix,
+                             ThreadLocalRandom random) throws IOException {
+        connection.request = pick(random, mix);
+        connection.out = ByteBuffer.wrap(request(connection.request, host, numbers, random)
+                .getBytes(StandardCharsets.US_ASCII));
+        connection.in.clear();
+        connection.startNanos = System.nanoTime();
+        connection.channel.write(connection.out);
+        connection.channel.keyFor(selector).interestOps(connection.out.hasRemaining()
+                ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    // Reads what has arrived; returns the status code once the whole response is in,
+    // 0 if more is needed and -1 if the server closed the connection
+    private static int read(Connection connection) throws IOException {
+        if (!connection.in.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(connection.in.capacity() * 2);
+            connection.in.flip();
+            connection.in = larger.put(connection.in);
+        }
+        if (connection.channel.read(connection.in) < 0) {
+            return -1;
+        }
+        byte[] data = connection.in.array();
+        int length = connection.in.position();
+        int headerEnd = -1;
+        for (int i = 3; i < length; i++) {
+            if (data[i] == '\n' && data[i - 1] == '\r' && data[i - 2] == '\n' && data[i - 3] == '\r') {
+                headerEnd = i + 1;
+                break;
+            }
+        }
+        if (headerEnd < 0) {
+            return 0;
+        }
+        String headers = new String(data, 0, headerEnd, StandardCharsets.US_ASCII).toLowerCase(Locale.ROOT);
+        int field = headers.indexOf("\r\ncontent-length:");
+        int bodyLength = 0;
+        if (field >= 0) {
+            int from = field + "\r\ncontent-length:".length();
+            bodyLength = Integer.parseInt(headers.substring(from, headers.indexOf('\r', from)).trim());
+        }
+        if (length < headerEnd + bodyLength) {
+            return 0;
+        }
+        return Integer.parseInt(headers.substring(9, 12));
+    }
+
+    private static String[] openAccounts(String url, int accountCount) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String[] numbers = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/accounts"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString("type=savings&holder=Load+" + i + "&amount=1000000"))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = ACCOUNT_NUMBER.matcher(response.body());
+            if (response.statusCode() != 201 || !matcher.find()) {
+                throw new IOException("Could not open account: " + response.statusCode() + " " + response.body());
+            }
+            numbers[i] = matcher.group(1);
+        }
+        return numbers;
+    }
+
+    private static String request(Request type, String host, String[] numbers, ThreadLocalRandom random) {
+        String number = numbers[random.nextInt(numbers.length)];
+        long paise = 1 + random.nextLong(100_000);
+        String amount = (paise / 100) + "." + (paise % 100 < 10 ? "0" : "") + (paise % 100);
+        switch (type) {
+            case BALANCE:
+                return "GET /accounts/" + number + "/balance HTTP/1.1\r\nHost: " + host + "\r\n\r\n";
+            case DEPOSIT:
+                return post(host, "/accounts/" + number + "/deposit", "amount=" + amount);
+            case TRANSFER:
+                return post(host, "/transfers", "from=" + number + "&to=" + numbers[random.nextInt(numbers.length)]
+                        + "&amount=" + amount);
+            default:
+                return "GET /accounts/" + number + "/transactions?limit=20 HTTP/1.1\r\nHost: " + host + "\r\n\r\n";
+        }
+    }
+
+    private static String post(String host, String path, String form) {
+        return "POST " + path + " HTTP/1.1\r\nHost: " + host
+                + "\r\nContent-Type: application/x-www-form-urlencoded\r\nContent-Length: " + form.length()
+                + "\r\n\r\n" + form;
+    }
+
+    private static Request pick(ThreadLocalRandom random, int[] mix) {
+        int roll = random.nextInt(mix[mix.length - 1]);
+        int type = 0;
+        while (roll >= mix[type]) {
+            type++;
+        }
+        return REQUESTS[type];
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0 || !KEYS.contains(arg.substring(0, split))) {
+                throw new IllegalArgumentException("Unknown option '" + arg + "'; expected key=value with key in "
+                        + KEYS);
+            }
+            options.put(arg.substring(0, split), arg.substring(split + 1));
+        }
+        return options;
+    }
+
+    // Turns "a,b,c,d" into running totals {a, a+b, a+b+c, a+b+c+d}
+    private static int[] weights(String spec) {
+        String[] parts = spec.split(",");
+        if (parts.length != REQUESTS.length) {
+            throw new IllegalArgumentException("Expected " + REQUESTS.length + " weights: " + spec);
+        }
+        int[] cumulative = new int[REQUESTS.length];
+        int total = 0;
+        for (int i = 0; i < REQUESTS.length; i++) {
+            total += Integer.parseInt(parts[i].trim());
+            cumulative[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Weights must add up to more than zero: " + spec);
+        }
+        return cumulative;
+    }
+}
@@ -0,0 +1,257 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.OperationResult;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.management.IdempotencyCache;
+import main.bankingSystem.util.Money;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// IdempotencyCache at a million live keys: heap per key, insert, replay and
+// evicting-insert cost, replays from several threads, and the same numbers for a
+// synchronized access-ordered LinkedHashMap holding the same data.
+//
+// Then the guarantee itself, through BankManager: a deposit retried three times and a
+// withdrawal raced by several threads under one key must each move money once, and the
+// cost a key adds to a deposit.
+//
+// Usage: IdempotencyCacheHarness [keys=1000000] [lookups=2000000] [threads=4]
+public class IdempotencyCacheHarness {
+    private static final long TTL_HOURS = 24;
+
+    private record Outcome(long request, long expiresAt, OperationResult result) {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int keyCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        long before = usedHeap();
+        String[] keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = UUID.randomUUID().toString();
+        }
+        String[] fresh = new String[lookups];
+        for (int i = 0; i < lookups; i++) {
+            fresh[i] = UUID.randomUUID().toString();
+        }
+        double keyBytes = (usedHeap() - before) / (double) (keyCount + lookups);
+        System.out.printf("Keys: %,d live (UUID strings, %.0f bytes each)%n%n", keyCount, keyBytes);
+        System.out.printf("%-26s %14s %12s %12s %14s %16s%n", "", "Heap B/key", "Insert ns", "Replay ns",
+                "Evicting ns", threads + "-thread replay/s");
+
+        // Each structure is built in its own method so the first is garbage before the
+        // second one's heap is measured
+        measureCache(keys, fresh, threads);
+        measureLinkedHashMap(keys, fresh, threads);
+        System.out.println();
+
+        retries(threads);
+    }
+
+    private static void measureCache(String[] keys, String[] fresh, int threads) throws InterruptedException {
+        int keyCount = keys.length;
+        int lookups = fresh.length;
+        long before = usedHeap();
+        IdempotencyCache cache = new IdempotencyCache(keyCount, TTL_HOURS, TimeUnit.HOURS);
+        long start = System.nanoTime();
+        for (int i = 0; i < keyCount; i++) {
+            cache.execute(keys[i], i, () -> OperationResult.SUCCESS);
+        }
+        double insertNanos = (System.nanoTime() - start) / (double) keyCount;
+        double heapPerKey = (usedHeap() - before) / (double) keyCount;
+
+        Random random = new Random(42);
+        double replayNanos = Double.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                int k = random.nextInt(keyCount);
+                if (cache.execute(keys[k], k, () -> OperationResult.INVALID_AMOUNT) != OperationResult.SUCCESS) {
+                    throw new IllegalStateException("Replay ran the operation again");
+                }
+            }
+            replayNanos = Math.min(replayNanos, (System.nanoTime() - start) / (double) lookups);
+        }
+        double parallel = parallelReplays(threads, lookups, k -> cache.execute(keys[k], k,
+                () -> OperationResult.INVALID_AMOUNT), keyCount);
+
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            cache.execute(fresh[i], i, () -> OperationResult.SUCCESS);
+        }
+        double evictingNanos = (System.nanoTime() - start) / (double) lookups;
+        System.out.printf("%-26s %14.1f %12.0f %12.0f %14.0f %,16.0f%n", "IdempotencyCache", heapPerKey,
+                insertNanos, replayNanos, evictingNanos, parallel);
+        System.out.printf("  after the evicting inserts: %,d live keys, %,d evicted%n", cache.size(),
+                cache.getEvictionCount());
+    }
+
+    private static void measureLinkedHashMap(String[] keys, String[] fresh, int threads)
+            throws InterruptedException {
+        int keyCount = keys.length;
+        int lookups = fresh.length;
+        long before = usedHeap();
+        Map<String, Outcome> map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Outcome> eldest) {
+                return size() > keyCount;
+            }
+        };
+        long ttl = TimeUnit.HOURS.toNanos(TTL_HOURS);
+        long start = System.nanoTime();
+        for (int i = 0; i < keyCount; i++) {
+            synchronized (map) {
+                map.put(keys[i], new Outcome(i, System.nanoTime() + ttl, OperationResult.SUCCESS));
+            }
+        }
+        double insertNanos = (System.nanoTime() - start) / (double) keyCount;
+        double heapPerKey = (usedHeap() - before) / (double) keyCount;
+
+        Random random = new Random(42);
+        double replayNanos = Double.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                int k = random.nextInt(keyCount);
+                synchronized (map) {
+                    Outcome outcome = map.get(keys[k]);
+                    if (outcome == null || outcome.expiresAt() - System.nanoTime() <= 0 || outcome.request() != k) {
+                        throw new IllegalStateException("Missing entry");
+                    }
+                }
+            }
+            replayNanos = Math.min(replayNanos, (System.nanoTime() - start) / (double) lookups);
+        }
+        double parallel = parallelReplays(threads, lookups, k -> {
+            synchronized (map) {
+                return map.get(keys[k]).result();
+            }
+        }, keyCount);
+
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            synchronized (map) {
+                if (map.get(fresh[i]) == null) {
+                    map.put(fresh[i], new Outcome(i, System.nanoTime() + ttl, OperationResult.SUCCESS));
+                }
+            }
+        }
+        double evictingNanos = (System.nanoTime() - start) / (double) lookups;
+        System.out.printf("%-26s %14.1f %12.0f %12.0f %14.0f %,16.0f%n", "synchronized LinkedHashMap",
+                heapPerKey, insertNanos, replayNanos, evictingNanos, parallel);
+    }
+
+    private interface Lookup {
+        OperationResult apply(int key);
+    }
+
+    // Replays per second with every thread looking up random live keys
+    private static double parallelReplays(int threads, int lookups, Lookup lookup, int keyCount)
+            throws InterruptedException {
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < lookups / threads; i++) {
+                    lookup.apply(random.nextInt(keyCount));
+                }
+            });
+            workers[t].start();
+        }
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return (lookups / threads) * (double) threads / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void retries(int threads) throws InterruptedException {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        BankManager manager = new BankManager();
+        String account;
+        try {
+            account = manager.createSavingsAccount("Retry Holder", Money.ofRupees(10_000));
+        } finally {
+            System.setOut(console);
+        }
+        long opening = manager.findAccount(account).getBalance();
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            manager.deposit(account, Money.ofRupees(500), "deposit-1");
+        }
+        AtomicInteger succeeded = new AtomicInteger();
+        Thread[] racers = new Thread[threads * 2];
+        for (int t = 0; t < racers.length; t++) {
+            racers[t] = new Thread(() -> {
+                if (manager.withdraw(account, Money.ofRupees(200), "withdraw-1").isSuccess()) {
+                    succeeded.incrementAndGet();
+                }
+            });
+            racers[t].start();
+        }
+        for (Thread racer : racers) {
+            racer.join();
+        }
+        boolean refused = false;
+        try {
+            manager.deposit(account, Money.ofRupees(999), "deposit-1");
+        } catch (IllegalArgumentException e) {
+            refused = true;
+        }
+        long balance = manager.findAccount(account).getBalance();
+        boolean once = balance == opening + Money.ofRupees(300) && succeeded.get() == racers.length;
+        console.println(once && refused
+                ? "✅ 3 retried deposits and " + racers.length + " racing withdrawals moved money once; "
+                        + "key reuse refused"
+                : "❌ Retries moved money more than once (balance ₹" + Money.format(balance) + ")");
+
+        int operations = 1_000_000;
+        double plain = Double.MAX_VALUE;
+        double keyed = Double.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                manager.deposit(account, 1, null);
+            }
+            plain = Math.min(plain, (System.nanoTime() - start) / (double) operations);
+            String[] keys = new String[operations];
+            for (int i = 0; i < operations; i++) {
+                keys[i] = "r" + round + "-" + i;
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                manager.deposit(account, 1, keys[i]);
+            }
+            keyed = Math.min(keyed, (System.nanoTime() - start) / (double) operations);
+        }
+        console.printf("Deposit through BankManager: %.0f ns without a key, %.0f ns with a new key%n", plain, keyed);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,79 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.management.InterestRunReport;
+import main.bankingSystem.util.Money;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Runs the end-of-day interest batch over a large number of savings accounts while a
+// client thread keeps depositing into random accounts, then runs it again for the same
+// day to check nothing is credited twice.
+//
+// Usage: InterestBatchHarness [accounts=1000000] [threads=availableProcessors]
+public class InterestBatchHarness {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Path checkpoint = Files.createTempFile("interest-checkpoint", ".dat");
+        Files.delete(checkpoint);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            BankManager manager = new BankManager();
+            String[] numbers = new String[accountCount];
+            for (int i = 0; i < accountCount; i++) {
+                numbers[i] = manager.createSavingsAccount("Holder " + i, Money.ofRupees(10_000));
+            }
+            long before = manager.getStatistics().getTotals().balance();
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            long[] deposits = new long[2];
+            Thread client = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long worst = 0;
+                while (running.get()) {
+                    BankAccount account = manager.getAccount(numbers[random.nextInt(accountCount)]);
+                    long start = System.nanoTime();
+                    account.deposit(100);
+                    worst = Math.max(worst, System.nanoTime() - start);
+                    deposits[0]++;
+                }
+                deposits[1] = worst;
+            });
+            client.start();
+
+            // Accounts opened today accrue nothing until tomorrow's run
+            LocalDate tomorrow = LocalDate.now().plusDays(1);
+            InterestRunReport first = manager.postInterest(tomorrow, checkpoint, threads);
+            running.set(false);
+            client.join();
+
+            long afterFirst = manager.getStatistics().getTotals().balance();
+            InterestRunReport second = manager.postInterest(tomorrow, checkpoint, threads);
+            long afterSecond = manager.getStatistics().getTotals().balance();
+
+            console.printf("Accounts: %,d   Threads: %d%n", accountCount, threads);
+            console.printf("Posting rate        : %,.0f accounts/sec (%,d credited)%n",
+                    first.accountsPerSecond(), first.accountsCredited());
+            console.printf("Concurrent deposits : %,d, slowest %.2f ms%n", deposits[0], deposits[1] / 1e6);
+            console.printf("Interest credited   : ₹%s%n",
+                    Money.format(afterFirst - before - deposits[0] * 100));
+            console.printf("Second run          : %s, balance change ₹%s%n",
+                    second.alreadyComplete() ? "skipped" : "ran", Money.format(afterSecond - afterFirst));
+        } finally {
+            System.setOut(console);
+            Files.deleteIfExists(checkpoint);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.SavingsAccount;
+import main.bankingSystem.persistence.DurabilityMode;
+import main.bankingSystem.persistence.TransactionJournal;
+import main.bankingSystem.util.Money;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Deposit/withdraw throughput with the transaction journal in each durability mode,
+// plus a replay of the written file to check that every operation was recorded.
+//
+// Usage: JournalBenchmark [threads=8] [secondsPerMode=3] [groupCommitMillis=5]
+public class JournalBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        long groupCommitMillis = args.length > 2 ? Long.parseLong(args[2]) : 5;
+
+        PrintStream console = System.out;
+        console.printf("%-15s %-12s %-15s %-15s%n", "Mode", "Threads", "Ops/sec", "Replayed");
+
+        for (DurabilityMode mode : DurabilityMode.values()) {
+            Path file = Files.createTempFile("journal-bench-", ".dat");
+            try {
+                long operations;
+                long elapsed;
+                long replayed;
+                try (TransactionJournal journal = TransactionJournal.open(file, mode, groupCommitMillis,
+                        TransactionJournal.DEFAULT_CHUNK_SIZE)) {
+                    BankAccount[] accounts = new BankAccount[threads];
+                    for (int i = 0; i < threads; i++) {
+                        accounts[i] = new SavingsAccount("SAV" + (1001 + i), "Bench " + i, Money.ofRupees(10_000));
+                        accounts[i].attachJournal(journal);
+                    }
+
+                    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                    long start = System.nanoTime();
+                    try {
+                        operations = run(accounts, seconds * 1000L);
+                    } finally {
+                        System.setOut(console);
+                    }
+                    elapsed = System.nanoTime() - start;
+
+                    AtomicLong count = new AtomicLong();
+                    journal.replay(0, record -> count.incrementAndGet());
+                    // One initial deposit record per account on top of the measured operations
+                    replayed = count.get() - threads;
+                }
+                console.printf("%-15s %-12d %-15.0f %-15s%n", mode, threads,
+                        operations * 1e9 / elapsed,
+                        replayed == operations ? "all " + replayed : "MISMATCH " + replayed + "/" + operations);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static long run(BankAccount[] accounts, long durationMillis) throws InterruptedException {
+        AtomicLong operations = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.currentTimeMillis() + durationMillis;
+        Thread[] workers = new Thread[accounts.length];
+        for (int t = 0; t < accounts.length; t++) {
+            BankAccount account = accounts[t];
+            workers[t] = new Thread(() -> {
+                long done = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.currentTimeMillis() < deadline) {
+                    boolean applied = (done & 1) == 0 ? account.deposit(10_000).isSuccess()
+                            : account.withdraw(10_000).isSuccess();
+                    if (applied) {
+                        done++;
+                    }
+                }
+                operations.addAndGet(done);
+            }, "journal-bench-" + t);
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.get();
+    }
+}
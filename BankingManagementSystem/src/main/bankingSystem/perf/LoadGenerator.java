@@ -0,0 +1,321 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.OperationResult;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.persistence.DurabilityMode;
+import main.bankingSystem.persistence.TransactionJournal;
+import main.bankingSystem.util.LatencyHistogram;
+import main.bankingSystem.util.Money;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+// Headless load driver: opens a population of savings, current and FD accounts, then
+// fires a weighted mix of deposits, withdrawals, transfers and balance checks at a
+// target rate from N threads and reports latency percentiles and achieved throughput.
+//
+// The load is open-loop. Each thread works through a fixed schedule of intended start
+// times (thread t of T runs operations t, t+T, t+2T, ... at rate/T per second) and
+// latency is measured from the intended start, not from when the thread got round to
+// it. A stall therefore shows up in every operation queued behind it instead of
+// being hidden by the generator slowing down (coordinated omission). Service time,
+// measured from the actual start, is reported alongside for comparison.
+//
+// Usage: LoadGenerator [key=value ...]
+//   accounts=100000       population size
+//   population=60,30,10   shares of savings, current and fixed deposit accounts
+//   mix=30,25,25,20       weights of deposit, withdraw, transfer and balance check
+//   threads=4             worker threads
+//   rate=20000            target operations/sec across all threads; 0 runs closed-loop
+//                         as fast as possible
+//   seconds=30            measured duration
+//   warmup=5              seconds of load before measurement starts
+//   journal=none          none, or a DurabilityMode for a temporary journal
+public class LoadGenerator {
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final OperationResult[] RESULTS = OperationResult.values();
+    private static final long SPIN_NANOS = 50_000;
+    private static final List<String> KEYS = List.of("accounts", "population", "mix", "threads", "rate",
+            "seconds", "warmup", "journal");
+
+    private enum Operation {
+        DEPOSIT("deposit"), WITHDRAW("withdraw"), TRANSFER("transfer"), BALANCE("balance");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final class Worker extends Thread {
+        private final BankManager manager;
+        private final String[] numbers;
+        private final int[] mix;
+        private final int index;
+        private final int threads;
+        private final long rate;
+        private final long startNanos;
+        private final long measureFromNanos;
+        private final long endNanos;
+        private final LatencyHistogram[] response = new LatencyHistogram[OPERATIONS.length];
+        private final LatencyHistogram[] service = new LatencyHistogram[OPERATIONS.length];
+        private final long[][] outcomes = new long[OPERATIONS.length][RESULTS.length];
+        private long completed;
+        private long unstarted;
+
+        private Worker(BankManager manager, String[] numbers, int[] mix, int index, int threads, long rate,
+                       long startNanos, long measureFromNanos, long endNanos) {
+            super("load-" + index);
+            this.manager = manager;
+            this.numbers = numbers;
+            this.mix = mix;
+            this.index = index;
+            this.threads = threads;
+            this.rate = rate;
+            this.startNanos = startNanos;
+            this.measureFromNanos = measureFromNanos;
+            this.endNanos = endNanos;
+            for (int op = 0; op < OPERATIONS.length; op++) {
+                response[op] = new LatencyHistogram();
+                service[op] = new LatencyHistogram();
+            }
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (long k = 0; ; k++) {
+                long intended = rate == 0 ? System.nanoTime()
+                        : startNanos + (k * threads + index) * 1_000_000_000L / rate;
+                if (intended >= endNanos) {
+                    return;
+                }
+                waitUntil(intended);
+                long begin = System.nanoTime();
+                if (begin >= endNanos) {
+                    // Fell so far behind that the run ended first; count this thread's backlog
+                    if (rate > 0) {
+                        unstarted = (endNanos - intended) * rate / 1_000_000_000L / threads + 1;
+                    }
+                    return;
+                }
+                Operation operation = pick(random);
+                OperationResult result = execute(operation, random);
+                long end = System.nanoTime();
+                if (intended >= measureFromNanos) {
+                    int op = operation.ordinal();
+                    response[op].record(end - intended);
+                    service[op].record(end - begin);
+                    outcomes[op][result.ordinal()]++;
+                    completed++;
+                }
+            }
+        }
+
+        private Operation pick(ThreadLocalRandom random) {
+            int roll = random.nextInt(mix[mix.length - 1]);
+            int op = 0;
+            while (roll >= mix[op]) {
+                op++;
+            }
+            return OPERATIONS[op];
+        }
+
+        private OperationResult execute(Operation operation, ThreadLocalRandom random) {
+            BankAccount account = manager.getAccount(numbers[random.nextInt(numbers.length)]);
+            long amount = 1 + random.nextLong(Money.ofRupees(1_000));
+            switch (operation) {
+                case DEPOSIT:
+                    return account.deposit(amount);
+                case WITHDRAW:
+                    return account.withdraw(amount);
+                case TRANSFER:
+                    BankAccount target = manager.getAccount(numbers[random.nextInt(numbers.length)]);
+                    return account.transfer(target, amount);
+                default:
+                    account.getBalance();
+                    return OperationResult.SUCCESS;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = parse(args);
+        int accountCount = Integer.parseInt(options.getOrDefault("accounts", "100000"));
+        int[] population = weights(options.getOrDefault("population", "60,30,10"), 3);
+        int[] mix = weights(options.getOrDefault("mix", "30,25,25,20"), OPERATIONS.length);
+        int threads = Integer.parseInt(options.getOrDefault("threads", "4"));
+        long rate = Long.parseLong(options.getOrDefault("rate", "20000"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "30"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        String journalMode = options.getOrDefault("journal", "none");
+
+        PrintStream console = System.out;
+        Path journalFile = null;
+        TransactionJournal journal = null;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            if (!journalMode.equals("none")) {
+                journalFile = Files.createTempFile("load-journal-", ".dat");
+                journal = TransactionJournal.open(journalFile, DurabilityMode.valueOf(journalMode));
+            }
+            BankManager manager = new BankManager(journal);
+            String[] numbers = openAccounts(manager, accountCount, population);
+
+            long startNanos = System.nanoTime() + 10_000_000;
+            long measureFromNanos = startNanos + warmup * 1_000_000_000L;
+            long endNanos = measureFromNanos + seconds * 1_000_000_000L;
+            Worker[] workers = new Worker[threads];
+            for (int t = 0; t < threads; t++) {
+                workers[t] = new Worker(manager, numbers, mix, t, threads, rate, startNanos, measureFromNanos,
+                        endNanos);
+                workers[t].start();
+            }
+            for (Worker worker : workers) {
+                worker.join();
+            }
+            manager.shutdown();
+
+            console.printf("Accounts: %,d (%s savings/current/FD)   Threads: %d   Target: %s   Journal: %s%n",
+                    accountCount, options.getOrDefault("population", "60,30,10"), threads,
+                    rate == 0 ? "closed-loop" : String.format("%,d ops/sec", rate), journalMode);
+            report(console, workers, seconds);
+        } finally {
+            System.setOut(console);
+            if (journal != null) {
+                journal.close();
+            }
+            if (journalFile != null) {
+                Files.deleteIfExists(journalFile);
+            }
+        }
+    }
+
+    private static String[] openAccounts(BankManager manager, int accountCount, int[] population) {
+        Random random = new Random(42);
+        String[] numbers = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            int roll = random.nextInt(population[2]);
+            String holder = "Load " + i;
+            if (roll < population[0]) {
+                numbers[i] = manager.createSavingsAccount(holder, Money.ofRupees(10_000));
+            } else if (roll < population[1]) {
+                numbers[i] = manager.createCurrentAccount(holder, Money.ofRupees(10_000), Money.ofRupees(5_000));
+            } else {
+                numbers[i] = manager.createFixedDepositAccount(holder, Money.ofRupees(50_000), 12);
+            }
+        }
+        return numbers;
+    }
+
+    private static void report(PrintStream console, Worker[] workers, int seconds) {
+        LatencyHistogram[] response = new LatencyHistogram[OPERATIONS.length + 1];
+        LatencyHistogram[] service = new LatencyHistogram[OPERATIONS.length + 1];
+        long[][] outcomes = new long[OPERATIONS.length][RESULTS.length];
+        long completed = 0;
+        long unstarted = 0;
+        for (int op = 0; op <= OPERATIONS.length; op++) {
+            response[op] = new LatencyHistogram();
+            service[op] = new LatencyHistogram();
+        }
+        for (Worker worker : workers) {
+            for (int op = 0; op < OPERATIONS.length; op++) {
+                response[op].add(worker.response[op]);
+                service[op].add(worker.service[op]);
+                response[OPERATIONS.length].add(worker.response[op]);
+                service[OPERATIONS.length].add(worker.service[op]);
+                for (int r = 0; r < RESULTS.length; r++) {
+                    outcomes[op][r] += worker.outcomes[op][r];
+                }
+            }
+            completed += worker.completed;
+            unstarted += worker.unstarted;
+        }
+
+        console.printf("Achieved: %,.0f ops/sec over %d s (%,d operations, %,d scheduled but never started)%n",
+                completed / (double) seconds, seconds, completed, unstarted);
+        printTable(console, "Response time from intended start (µs)", response);
+        printTable(console, "Service time (µs)", service);
+
+        console.println();
+        console.println("Rejections:");
+        boolean any = false;
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            for (int r = 0; r < RESULTS.length; r++) {
+                if (RESULTS[r] != OperationResult.SUCCESS && outcomes[op][r] > 0) {
+                    console.printf("  %-10s %-24s %,d%n", OPERATIONS[op].label, RESULTS[r], outcomes[op][r]);
+                    any = true;
+                }
+            }
+        }
+        if (!any) {
+            console.println("  none");
+        }
+    }
+
+    private static void printTable(PrintStream console, String title, LatencyHistogram[] histograms) {
+        console.println();
+        console.println(title);
+        console.printf("%-10s %12s %10s %10s %10s %10s %10s%n", "", "Count", "Mean", "p50", "p99", "p99.9", "Max");
+        for (int op = 0; op < histograms.length; op++) {
+            LatencyHistogram histogram = histograms[op];
+            console.printf("%-10s %,12d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    op < OPERATIONS.length ? OPERATIONS[op].label : "all", histogram.getTotalCount(),
+                    histogram.getMean() / 1e3, histogram.getValueAtPercentile(50) / 1e3,
+                    histogram.getValueAtPercentile(99) / 1e3, histogram.getValueAtPercentile(99.9) / 1e3,
+                    histogram.getMax() / 1e3);
+        }
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining > SPIN_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_NANOS);
+        }
+        while (System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0 || !KEYS.contains(arg.substring(0, split))) {
+                throw new IllegalArgumentException("Unknown option '" + arg + "'; expected key=value with key in "
+                        + KEYS);
+            }
+            options.put(arg.substring(0, split), arg.substring(split + 1));
+        }
+        return options;
+    }
+
+    // Turns "a,b,c" into running totals {a, a+b, a+b+c}
+    private static int[] weights(String spec, int expected) {
+        String[] parts = spec.split(",");
+        if (parts.length != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " weights: " + spec);
+        }
+        int[] cumulative = new int[expected];
+        int total = 0;
+        for (int i = 0; i < expected; i++) {
+            total += Integer.parseInt(parts[i].trim());
+            cumulative[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Weights must add up to more than zero: " + spec);
+        }
+        return cumulative;
+    }
+}
@@ -0,0 +1,107 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.AccountEvent;
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.SavingsAccount;
+import main.bankingSystem.util.AsyncEventLog;
+import main.bankingSystem.util.Money;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock hold time and contended throughput of deposits on one account, with the
+// outcome message printed the way the account used to print it (formatted and written
+// to a line-flushed stream while holding the account monitor) versus published to an
+// AsyncEventLog that writes the same stream from its own thread.
+//
+// Hold time is measured around a synchronized block on the account that contains the
+// whole deposit, so for the async case it also includes publishing the event.
+//
+// Usage: LockHoldTimeHarness [threads=8] [seconds=2]
+public class LockHoldTimeHarness {
+    private static final int HOLD_SAMPLES = 200_000;
+
+    private interface Deposit {
+        void run(BankAccount account);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        Path file = Files.createTempFile("lock-hold-", ".log");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, "UTF-8")) {
+            Deposit printUnderLock = account -> {
+                synchronized (account) {
+                    account.deposit(100);
+                    out.println("✅ Successfully deposited ₹" + Money.format(100));
+                }
+            };
+            Deposit publishAsync = account -> account.deposit(100);
+
+            System.out.printf("Threads: %d%n%n", threads);
+            System.out.printf("%-24s %-18s %-18s%n", "", "Mean hold (ns)", "Deposits/sec");
+            report("println under lock", printUnderLock, threads, seconds);
+
+            AsyncEventLog<AccountEvent> log = new AsyncEventLog<>(1 << 16,
+                    event -> out.println("✅ Successfully deposited ₹" + Money.format(event.amount())));
+            BankAccount.setEventSink(log::publish);
+            try {
+                report("async event log", publishAsync, threads, seconds);
+            } finally {
+                BankAccount.setEventSink(null);
+                log.close();
+            }
+            System.out.printf("%nEvents dropped by the full ring buffer: %,d%n", log.getDroppedCount());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void report(String label, Deposit deposit, int threads, int seconds)
+            throws InterruptedException {
+        BankAccount account = new SavingsAccount("SAV1001", "Hold", Money.ofRupees(10_000));
+        for (int i = 0; i < HOLD_SAMPLES / 10; i++) {
+            deposit.run(account);
+        }
+        long held = 0;
+        for (int i = 0; i < HOLD_SAMPLES; i++) {
+            synchronized (account) {
+                long start = System.nanoTime();
+                deposit.run(account);
+                held += System.nanoTime() - start;
+            }
+        }
+
+        AtomicLong operations = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.currentTimeMillis() + seconds * 1000L + 100;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                long done = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.currentTimeMillis() < deadline) {
+                    deposit.run(account);
+                    done++;
+                }
+                operations.addAndGet(done);
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double perSecond = operations.get() * 1e9 / (System.nanoTime() - begin);
+        System.out.printf("%-24s %-18.0f %-18.0f%n", label, (double) held / HOLD_SAMPLES, perSecond);
+    }
+}
@@ -0,0 +1,64 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.util.Money;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// Measures the FD maturity scheduler: the cost of queueing many long-dated FDs (which
+// must not cost the scheduler thread anything until they fall due), then how fast a
+// large batch of FDs that are already due gets matured.
+//
+// Usage: MaturitySchedulerHarness [deposits=1000000]
+public class MaturitySchedulerHarness {
+
+    public static void main(String[] args) throws InterruptedException {
+        int deposits = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            BankManager manager = new BankManager();
+            long start = System.nanoTime();
+            for (int i = 0; i < deposits; i++) {
+                manager.createFixedDepositAccount("Holder " + i, Money.ofRupees(10_000), 12);
+            }
+            long queued = System.nanoTime() - start;
+            long cpuBefore = schedulerCpuNanos();
+            Thread.sleep(1000);
+            long idleCpu = schedulerCpuNanos() - cpuBefore;
+
+            // Tenure 0 matures immediately
+            start = System.nanoTime();
+            for (int i = 0; i < deposits; i++) {
+                manager.createFixedDepositAccount("Holder " + i, Money.ofRupees(10_000), 0);
+            }
+            while (manager.getMaturedCount() < deposits) {
+                Thread.sleep(1);
+            }
+            long matured = System.nanoTime() - start;
+            manager.shutdown();
+
+            console.printf("Deposits per phase       : %,d%n", deposits);
+            console.printf("Create + queue (12m)     : %,.0f FDs/sec%n", deposits * 1e9 / queued);
+            console.printf("Scheduler CPU while idle : %.2f ms over 1 s%n", idleCpu / 1e6);
+            console.printf("Create + mature (due)    : %,.0f FDs/sec%n", deposits * 1e9 / matured);
+            console.printf("Still pending            : %,d%n", manager.getPendingMaturities());
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static long schedulerCpuNanos() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("fd-maturity")) {
+                return threads.getThreadCpuTime(thread.getId());
+            }
+        }
+        return 0;
+    }
+}
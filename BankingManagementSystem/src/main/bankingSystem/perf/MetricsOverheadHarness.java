@@ -0,0 +1,75 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.OperationRecorder;
+import main.bankingSystem.accounts.OperationResult;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.metrics.BankMetrics;
+import main.bankingSystem.util.Money;
+
+import javax.management.JMException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Cost of leaving BankMetrics on: single-thread deposit + withdrawal time with and
+// without metrics installed, bytes allocated per call on the recording path itself,
+// then a sample dump.
+//
+// Usage: MetricsOverheadHarness [operations=5000000]
+public class MetricsOverheadHarness {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws JMException {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        BankManager manager = new BankManager();
+        BankAccount[] accounts = new BankAccount[1024];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = manager.getAccount(manager.createSavingsAccount("Holder " + i, Money.ofRupees(1_000_000)));
+        }
+        System.setOut(console);
+
+        console.printf("%-18s %-12s%n", "", "ns/op");
+        console.printf("%-18s %-12.1f%n", "metrics off", run(accounts, operations));
+        BankMetrics metrics = BankMetrics.install(manager);
+        try {
+            console.printf("%-18s %-12.1f%n", "metrics on", run(accounts, operations));
+
+            long thread = Thread.currentThread().getId();
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < operations; i++) {
+                metrics.record(OperationRecorder.Operation.DEPOSIT, OperationResult.SUCCESS, 100, i & 127, i);
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            console.printf("%nRecording path: %.3f bytes allocated per call%n%n", allocated / (double) operations);
+            metrics.dump(console);
+        } finally {
+            metrics.close();
+        }
+    }
+
+    // Best ns/op over ROUNDS rounds
+    private static double run(BankAccount[] accounts, int operations) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                BankAccount account = accounts[random.nextInt(accounts.length)];
+                if ((i & 1) == 0) {
+                    account.deposit(100);
+                } else {
+                    account.withdraw(100);
+                }
+            }
+            best = Math.min(best, (System.nanoTime() - start) / (double) operations);
+        }
+        return best;
+    }
+}
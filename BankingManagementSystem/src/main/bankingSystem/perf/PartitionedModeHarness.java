@@ -0,0 +1,149 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.OperationResult;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.persistence.DurabilityMode;
+import main.bankingSystem.persistence.TransactionJournal;
+import main.bankingSystem.util.Money;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Throughput of the same random mix (50% transfers, 25% deposits, 25% withdrawals of
+// ₹1) from several client threads, run directly against the synchronized accounts and
+// through BankManager's partitioned single-writer mode at 1, 2, 4 ... workers. In
+// partitioned mode each client keeps at most WINDOW operations outstanding. Every run
+// checks that the bank's total balance moved by exactly the successful deposits minus
+// withdrawals.
+//
+// Usage: PartitionedModeHarness [accounts=10000] [clients=8] [operations=1000000]
+//                               [journal=none|PER_OPERATION|GROUP_COMMIT|ASYNC]
+public class PartitionedModeHarness {
+    private static final int WINDOW = 1024;
+    private static final long AMOUNT = Money.ofRupees(1);
+
+    private interface Client {
+        void run(BankManager manager, String[] numbers, int operations, LongAdder net) throws InterruptedException;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int operations = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        String journalMode = args.length > 3 ? args[3] : "none";
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        PrintStream console = System.out;
+        console.printf("Accounts: %,d   Clients: %d   Operations: %,d   Journal: %s   Cores: %d%n%n",
+                accountCount, clients, operations, journalMode, cores);
+        console.printf("%-24s %-14s %-10s%n", "Mode", "Ops/sec", "Conserved");
+        run(console, "synchronized", accountCount, clients, operations, journalMode, 0);
+        for (int workers = 1; workers <= Math.max(4, cores); workers *= 2) {
+            run(console, "partitioned x" + workers, accountCount, clients, operations, journalMode, workers);
+        }
+    }
+
+    private static void run(PrintStream console, String label, int accountCount, int clients, int operations,
+                            String journalMode, int workers) throws IOException, InterruptedException {
+        Path file = journalMode.equals("none") ? null : Files.createTempFile("partitioned-", ".dat");
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try (TransactionJournal journal = file == null ? null
+                : TransactionJournal.open(file, DurabilityMode.valueOf(journalMode))) {
+            BankManager manager = new BankManager(journal);
+            String[] numbers = new String[accountCount];
+            for (int i = 0; i < accountCount; i++) {
+                numbers[i] = manager.createSavingsAccount("Holder " + i, Money.ofRupees(100_000));
+            }
+            long before = manager.getStatistics().getTotals().balance();
+            LongAdder net = new LongAdder();
+
+            Client client = workers == 0 ? PartitionedModeHarness::direct : PartitionedModeHarness::submitted;
+            if (workers > 0) {
+                manager.startPartitionedMode(workers);
+            }
+            Thread[] threads = new Thread[clients];
+            long start = System.nanoTime();
+            for (int t = 0; t < clients; t++) {
+                int share = operations / clients + (t < operations % clients ? 1 : 0);
+                threads[t] = new Thread(() -> {
+                    try {
+                        client.run(manager, numbers, share, net);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            manager.stopPartitionedMode();
+            long elapsed = System.nanoTime() - start;
+            manager.shutdown();
+
+            long moved = manager.getStatistics().getTotals().balance() - before;
+            console.printf("%-24s %-14.0f %-10s%n", label, operations * 1e9 / elapsed,
+                    moved == net.sum() ? "yes" : "NO (" + moved + " vs " + net.sum() + ")");
+        } finally {
+            System.setOut(console);
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static void direct(BankManager manager, String[] numbers, int operations, LongAdder net) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < operations; i++) {
+            String number = numbers[random.nextInt(numbers.length)];
+            int roll = random.nextInt(4);
+            if (roll < 2) {
+                String target = numbers[random.nextInt(numbers.length)];
+                manager.getAccount(number).transfer(manager.getAccount(target), AMOUNT);
+            } else if (roll == 2) {
+                if (manager.getAccount(number).deposit(AMOUNT).isSuccess()) {
+                    net.add(AMOUNT);
+                }
+            } else if (manager.getAccount(number).withdraw(AMOUNT).isSuccess()) {
+                net.add(-AMOUNT);
+            }
+        }
+    }
+
+    private static void submitted(BankManager manager, String[] numbers, int operations, LongAdder net)
+            throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Semaphore window = new Semaphore(WINDOW);
+        for (int i = 0; i < operations; i++) {
+            String number = numbers[random.nextInt(numbers.length)];
+            int roll = random.nextInt(4);
+            window.acquire();
+            CompletableFuture<OperationResult> result;
+            long delta = 0;
+            if (roll < 2) {
+                result = manager.submitTransfer(number, numbers[random.nextInt(numbers.length)], AMOUNT);
+            } else if (roll == 2) {
+                result = manager.submitDeposit(number, AMOUNT);
+                delta = AMOUNT;
+            } else {
+                result = manager.submitWithdrawal(number, AMOUNT);
+                delta = -AMOUNT;
+            }
+            long change = delta;
+            result.whenComplete((outcome, failure) -> {
+                if (outcome == OperationResult.SUCCESS) {
+                    net.add(change);
+                }
+                window.release();
+            });
+        }
+        window.acquire(WINDOW);
+    }
+}
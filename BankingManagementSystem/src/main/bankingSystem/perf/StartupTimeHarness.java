@@ -0,0 +1,128 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.management.RecoveryReport;
+import main.bankingSystem.persistence.DurabilityMode;
+import main.bankingSystem.persistence.TransactionJournal;
+import main.bankingSystem.util.Money;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+// Opens a large number of accounts against a journal, writes a snapshot part-way
+// through, keeps changing accounts (deposits, transfers, closures, deletions, new
+// accounts) and then restarts twice: from the snapshot plus the journal tail, and from
+// the journal alone. Both restarts must reproduce every balance and status.
+//
+// Usage: StartupTimeHarness [accounts=1000000] [tailOperations=100000]
+public class StartupTimeHarness {
+
+    private record Expected(long balance, boolean active) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int tailOperations = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        PrintStream console = System.out;
+        Path journalFile = Files.createTempFile("startup-journal-", ".dat");
+        Path snapshot = Files.createTempFile("startup-snapshot-", ".dat");
+        Files.delete(snapshot);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Map<String, Expected> expected = new HashMap<>();
+            long snapshotNanos;
+            try (TransactionJournal journal = TransactionJournal.open(journalFile, DurabilityMode.ASYNC)) {
+                BankManager manager = new BankManager(journal);
+                String[] numbers = new String[accountCount];
+                for (int i = 0; i < accountCount; i++) {
+                    numbers[i] = switch (i % 3) {
+                        case 0 -> manager.createSavingsAccount("Holder " + i, Money.ofRupees(10_000));
+                        case 1 -> manager.createCurrentAccount("Holder " + i, Money.ofRupees(10_000),
+                                Money.ofRupees(5_000));
+                        default -> manager.createFixedDepositAccount("Holder " + i, Money.ofRupees(50_000), 12);
+                    };
+                }
+                Random random = new Random(7);
+                for (int i = 0; i < accountCount; i++) {
+                    manager.getAccount(numbers[random.nextInt(accountCount)]).deposit(1 + random.nextInt(10_000));
+                }
+
+                long start = System.nanoTime();
+                manager.writeSnapshot(snapshot);
+                snapshotNanos = System.nanoTime() - start;
+
+                for (int i = 0; i < tailOperations; i++) {
+                    BankAccount from = manager.getAccount(numbers[random.nextInt(accountCount)]);
+                    BankAccount to = manager.getAccount(numbers[random.nextInt(accountCount)]);
+                    if (from == null || to == null) {
+                        continue;
+                    }
+                    switch (i % 50) {
+                        case 0 -> from.closeAccount();
+                        case 1 -> manager.deleteAccount(from.getAccountNumber());
+                        case 2 -> manager.createSavingsAccount("Late " + i, Money.ofRupees(1_000));
+                        default -> from.transfer(to, 1 + random.nextInt(10_000));
+                    }
+                }
+                for (int i = 0; i < accountCount; i++) {
+                    record(expected, manager.getAccount(numbers[i]));
+                }
+                manager.shutdown();
+                journal.syncAll();
+            }
+
+            long journalBytes = Files.size(journalFile);
+            try (TransactionJournal journal = TransactionJournal.open(journalFile, DurabilityMode.ASYNC)) {
+                String withSnapshot = restart(journal, snapshot, expected);
+                String journalOnly = restart(journal, null, expected);
+
+                console.printf("Accounts: %,d   Tail operations: %,d   Journal: %,d MB   Snapshot: %,d MB%n",
+                        accountCount, tailOperations, journalBytes >> 20, Files.size(snapshot) >> 20);
+                console.printf("Snapshot write: %.0f ms%n%n", snapshotNanos / 1e6);
+                console.printf("%-22s %-12s %-18s %-10s%n", "", "Startup ms", "Records replayed", "Matches");
+                console.printf("%-22s %s%n", "snapshot + tail", withSnapshot);
+                console.printf("%-22s %s%n", "journal only", journalOnly);
+            }
+        } finally {
+            System.setOut(console);
+            Files.deleteIfExists(journalFile);
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private static void record(Map<String, Expected> expected, BankAccount account) {
+        if (account != null) {
+            expected.put(account.getAccountNumber(), new Expected(account.getBalance(), account.isActive()));
+        }
+    }
+
+    private static String restart(TransactionJournal journal, Path snapshot, Map<String, Expected> expected)
+            throws IOException {
+        BankManager manager = BankManager.recover(journal, snapshot);
+        RecoveryReport report = manager.getLastRecovery();
+        String matches = verify(manager, expected);
+        manager.shutdown();
+        return String.format("%-12.0f %-18d %-10s", report.totalNanos() / 1e6, report.replayedRecords(), matches);
+    }
+
+    // Accounts opened during the tail are not in 'expected'
+    private static String verify(BankManager manager, Map<String, Expected> expected) {
+        long mismatched = 0;
+        for (Map.Entry<String, Expected> entry : expected.entrySet()) {
+            BankAccount account = manager.getAccount(entry.getKey());
+            if (account == null || account.getBalance() != entry.getValue().balance()
+                    || account.isActive() != entry.getValue().active()) {
+                mismatched++;
+            }
+        }
+        return mismatched == 0 ? "yes" : "NO (" + mismatched + " differ)";
+    }
+}
@@ -0,0 +1,163 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.SavingsAccount;
+import main.bankingSystem.management.StatementExporter;
+import main.bankingSystem.transactions.Transaction;
+import main.bankingSystem.util.Money;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Throughput and allocation of StatementExporter against formatting each row the way
+// displayTransactionHistory does (Transaction objects, DateTimeFormatter and
+// String.format) into a BufferedWriter.
+//
+// Loads deposits, withdrawals and transfers onto the accounts, then:
+//   - writes as many bytes as the CSV export from one buffer, for the disk's own speed
+//   - exports every history as CSV 'passes' times (50M rows with the defaults) and as
+//     fixed-width text once, reporting rows/s, MB/s and bytes allocated per row
+//   - writes the same CSV the per-row formatting way and checks both files are equal
+//
+// Usage: StatementExportHarness [accounts=1000] [transactions=10000000] [passes=5]
+public class StatementExportHarness {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public static void main(String[] args) throws IOException {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int transactionCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int passes = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        List<BankAccount> accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            accounts.add(new SavingsAccount("SAV" + (i + 1), "Holder " + i, Money.ofRupees(1_00_000)));
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < transactionCount; i++) {
+            BankAccount account = accounts.get(random.nextInt(accountCount));
+            long amount = Money.ofRupees(1 + random.nextInt(1_000)) + random.nextInt(100);
+            switch (random.nextInt(3)) {
+                case 0 -> account.deposit(amount);
+                case 1 -> account.withdraw(amount);
+                default -> account.transfer(accounts.get(random.nextInt(accountCount)), amount);
+            }
+        }
+        long rows = 0;
+        for (BankAccount account : accounts) {
+            rows += account.getTransactionCount();
+        }
+        System.out.printf("Accounts: %,d   Transactions recorded: %,d%n%n", accountCount, rows);
+
+        Path csv = Files.createTempFile("statement-", ".csv");
+        Path fixed = Files.createTempFile("statement-", ".txt");
+        Path formatted = Files.createTempFile("statement-formatted-", ".csv");
+        try {
+            System.out.printf("%-28s %12s %10s %10s %14s%n", "", "Rows", "Seconds", "MB/s", "Bytes/row");
+
+            long exported = 0;
+            long bytes = 0;
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            for (int pass = 0; pass < passes; pass++) {
+                try (StatementExporter exporter = StatementExporter.open(csv, StatementExporter.Format.CSV)) {
+                    for (BankAccount account : accounts) {
+                        exporter.exportAccount(account);
+                    }
+                    exported += exporter.getRowsWritten();
+                    bytes += exporter.getBytesWritten();
+                }
+            }
+            report("exporter, CSV", exported, bytes, System.nanoTime() - start,
+                    threads.getThreadAllocatedBytes(thread) - allocated);
+            long csvSize = Files.size(csv);
+
+            start = System.nanoTime();
+            writeRaw(csv, csvSize);
+            report("raw write, same size", 0, csvSize, System.nanoTime() - start, 0);
+            // writeRaw overwrote it
+            try (StatementExporter exporter = StatementExporter.open(csv, StatementExporter.Format.CSV)) {
+                for (BankAccount account : accounts) {
+                    exporter.exportAccount(account);
+                }
+            }
+
+            allocated = threads.getThreadAllocatedBytes(thread);
+            start = System.nanoTime();
+            long fixedRows;
+            try (StatementExporter exporter = StatementExporter.open(fixed, StatementExporter.Format.FIXED_WIDTH)) {
+                for (BankAccount account : accounts) {
+                    exporter.exportAccount(account);
+                }
+                fixedRows = exporter.getRowsWritten();
+            }
+            report("exporter, fixed width", fixedRows, Files.size(fixed), System.nanoTime() - start,
+                    threads.getThreadAllocatedBytes(thread) - allocated);
+
+            allocated = threads.getThreadAllocatedBytes(thread);
+            start = System.nanoTime();
+            long formattedRows = writeFormatted(formatted, accounts);
+            report("String.format per row", formattedRows, Files.size(formatted), System.nanoTime() - start,
+                    threads.getThreadAllocatedBytes(thread) - allocated);
+
+            System.out.println();
+            System.out.println(Files.mismatch(csv, formatted) == -1
+                    ? "✅ Exported CSV matches the per-row formatting"
+                    : "❌ Exported CSV differs from the per-row formatting");
+            System.out.println(Files.size(fixed) == (fixedRows + 1) * StatementExporter.LINE_WIDTH
+                    ? "✅ Every fixed-width line is " + StatementExporter.LINE_WIDTH + " bytes"
+                    : "❌ Fixed-width file has lines of the wrong length");
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(fixed);
+            Files.deleteIfExists(formatted);
+        }
+    }
+
+    private static void report(String label, long rows, long bytes, long nanos, long allocated) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-28s %,12d %10.2f %10.0f %14s%n", label, rows, seconds, bytes / 1e6 / seconds,
+                rows == 0 ? "" : String.format("%.2f", allocated / (double) rows));
+    }
+
+    private static void writeRaw(Path file, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long written = 0; written < size; ) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), size - written));
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer);
+                }
+            }
+        }
+    }
+
+    private static long writeFormatted(Path file, List<BankAccount> accounts) throws IOException {
+        long rows = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("account,timestamp,type,amount,transaction_id,description\n");
+            for (BankAccount account : accounts) {
+                for (Transaction t : account.getTransactionHistory()) {
+                    out.write(String.format("%s,%s,%s,%s,%s,%s\n", account.getAccountNumber(),
+                            t.getTimestamp().format(DATE_FORMATTER), t.getType(), Money.format(t.getAmount()),
+                            Transaction.formatTransactionId(t.getTransactionId()), t.getDescription()));
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+}
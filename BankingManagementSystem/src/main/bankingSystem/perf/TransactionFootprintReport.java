@@ -0,0 +1,84 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.transactions.DescriptionDictionary;
+import main.bankingSystem.transactions.TransactionIdGenerator;
+import main.bankingSystem.transactions.TransactionStore;
+import main.bankingSystem.transactions.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Heap cost per recorded transaction: the previous ArrayList<Transaction> layout
+// (object with LocalDateTime, description String and "TXN..." id String per row)
+// against the columnar TransactionStore. Run with a fixed heap, e.g. -Xms2g -Xmx2g.
+//
+// Usage: TransactionFootprintReport [transactions=2000000] [counterparties=1000]
+public class TransactionFootprintReport {
+
+    // The row object accounts used to keep in their history list
+    private static final class LegacyTransaction {
+        private final TransactionType type;
+        private final long amount;
+        private final String description;
+        private final LocalDateTime timestamp;
+        private final String transactionId;
+
+        private LegacyTransaction(TransactionType type, long amount, String description) {
+            this.type = type;
+            this.amount = amount;
+            this.description = description;
+            this.timestamp = LocalDateTime.now();
+            this.transactionId = "TXN" + System.currentTimeMillis() + (int) (Math.random() * 1000);
+        }
+    }
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int counterparties = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        long before = usedHeap();
+        List<LegacyTransaction> legacy = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            legacy.add(new LegacyTransaction(TYPES[i % TYPES.length], i, description(i, counterparties)));
+        }
+        long legacyBytes = usedHeap() - before;
+        int legacySize = legacy.size();
+        legacy = null;
+
+        before = usedHeap();
+        TransactionStore store = new TransactionStore();
+        TransactionIdGenerator ids = TransactionIdGenerator.getDefault();
+        for (int i = 0; i < count; i++) {
+            store.append(TYPES[i % TYPES.length], i,
+                    DescriptionDictionary.encode(description(i, counterparties)),
+                    System.currentTimeMillis(), ids.nextId());
+        }
+        long storeBytes = usedHeap() - before;
+
+        System.out.printf("%-34s %,d%n", "Transactions", count);
+        System.out.printf("%-34s %.1f%n", "ArrayList<Transaction> bytes/txn", legacyBytes / (double) legacySize);
+        System.out.printf("%-34s %.1f%n", "TransactionStore bytes/txn", storeBytes / (double) store.size());
+        System.out.printf("%-34s %,d%n", "Distinct descriptions", DescriptionDictionary.size());
+    }
+
+    private static String description(int i, int counterparties) {
+        return switch (TYPES[i % TYPES.length]) {
+            case DEPOSIT -> "Deposit to account";
+            case WITHDRAWAL -> "Withdrawal from account";
+            case TRANSFER_IN -> "Transfer from SAV" + (1001 + i % counterparties);
+            case TRANSFER_OUT -> "Transfer to SAV" + (1001 + i % counterparties);
+            case INTEREST -> "Interest credit";
+        };
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
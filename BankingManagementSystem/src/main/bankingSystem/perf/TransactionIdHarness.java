@@ -0,0 +1,77 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.transactions.TransactionIdGenerator;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+// Generates ids from many threads at once, then sorts them all and counts duplicates.
+// The old "TXN" + millis + random(0..999) scheme is run the same way for comparison.
+//
+// Usage: TransactionIdHarness [threads=16] [idsPerThread=500000]
+public class TransactionIdHarness {
+
+    private interface IdSource {
+        long next();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+
+        TransactionIdGenerator generator = new TransactionIdGenerator(1);
+        System.out.printf("%-22s %-10s %-15s %-12s%n", "Scheme", "Threads", "Ids/sec", "Duplicates");
+        run("snowflake", threads, perThread, generator::nextId);
+        // Same digits as the old string id, packed into a long so duplicates can be counted
+        run("millis + random(1000)", threads, perThread,
+                () -> System.currentTimeMillis() * 1000 + (int) (Math.random() * 1000));
+
+        long sample = generator.nextId();
+        System.out.println();
+        System.out.println("Sample id " + sample + " -> node " + TransactionIdGenerator.nodeOf(sample)
+                + ", issued at " + Instant.ofEpochMilli(TransactionIdGenerator.timestampOf(sample)));
+    }
+
+    private static void run(String scheme, int threads, int perThread, IdSource source)
+            throws InterruptedException {
+        long[][] ids = new long[threads][perThread];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long[] mine = ids[t];
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < mine.length; i++) {
+                    mine[i] = source.next();
+                }
+            }, "ids-" + t);
+            workers[t].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long[] all = new long[threads * perThread];
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(ids[t], 0, all, t * perThread, perThread);
+        }
+        Arrays.sort(all);
+        long duplicates = 0;
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                duplicates++;
+            }
+        }
+        System.out.printf("%-22s %-10d %-15.0f %-12d%n", scheme, threads,
+                all.length * 1e9 / elapsed, duplicates);
+    }
+}
@@ -0,0 +1,134 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.SavingsAccount;
+import main.bankingSystem.management.BankManager;
+import main.bankingSystem.management.TransactionIndex;
+import main.bankingSystem.transactions.Transaction;
+import main.bankingSystem.transactions.TransactionType;
+import main.bankingSystem.util.Money;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+// Bank-wide transaction queries through BankManager's TransactionIndex against walking
+// every account's getTransactionHistory().
+//
+// Loads a mix of deposits, withdrawals and transfers where about 1 in 1,000 moves
+// ₹10 lakh or more, then runs three scans over today: large transactions of any
+// type, large transfers out, and every deposit (no threshold, so nothing can be
+// skipped). Each is timed and checked against the walk. Finally, the cost the index
+// adds to each deposit, measured on accounts outside any BankManager with and without
+// a TransactionIndex attached.
+//
+// Usage: TransactionIndexHarness [accounts=100000] [transactions=10000000]
+public class TransactionIndexHarness {
+    private static final long LARGE = Money.ofRupees(10_00_000);
+    private static final int SCANS = 5;
+
+    public static void main(String[] args) {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int transactionCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        BankManager manager = new BankManager();
+        List<BankAccount> accounts = new ArrayList<>(accountCount);
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < accountCount; i++) {
+                accounts.add(manager.findAccount(manager.createCurrentAccount("Holder " + i,
+                        Money.ofRupees(1_00_00_000), Money.ofRupees(1_00_00_000))));
+            }
+            for (int i = 0; i < transactionCount; i++) {
+                BankAccount account = accounts.get(random.nextInt(accountCount));
+                long amount = random.nextInt(1_000) == 0
+                        ? Money.ofRupees(10_00_000 + random.nextInt(40_00_000))
+                        : Money.ofRupees(1 + random.nextInt(10_000));
+                switch (random.nextInt(3)) {
+                    case 0 -> account.deposit(amount);
+                    case 1 -> account.withdraw(amount);
+                    default -> account.transfer(accounts.get(random.nextInt(accountCount)), amount);
+                }
+            }
+        } finally {
+            System.setOut(console);
+        }
+        TransactionIndex index = manager.getTransactionIndex();
+        console.printf("Accounts: %,d   Operations: %,d   Indexed transactions: %,d   Loaded in %.1f s%n%n",
+                accountCount, transactionCount, index.getTransactionCount(), (System.nanoTime() - start) / 1e9);
+
+        long from = System.currentTimeMillis() - 86_400_000L;
+        long to = System.currentTimeMillis() + 1;
+        console.printf("%-34s %12s %12s %12s %10s%n", "Query (last 24 h)", "Index ms", "Walk ms", "Matches",
+                "Agree");
+        query(console, "all types, >= ₹10 lakh", index, accounts, from, to, null, LARGE);
+        query(console, "transfers out, >= ₹10 lakh", index, accounts, from, to,
+                EnumSet.of(TransactionType.TRANSFER_OUT), LARGE);
+        query(console, "deposits, any amount", index, accounts, from, to, EnumSet.of(TransactionType.DEPOSIT), 0);
+
+        List<BankAccount> bare = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            bare.add(new SavingsAccount("SAV" + (i + 1), "Holder " + i, Money.ofRupees(10_000)));
+        }
+        double plain = deposits(bare, transactionCount, random);
+        plain = deposits(bare, transactionCount, random);
+        TransactionIndex attached = new TransactionIndex();
+        for (BankAccount account : bare) {
+            synchronized (account) {
+                attached.accountAdded(account);
+            }
+        }
+        double indexed = deposits(bare, transactionCount, random);
+        indexed = deposits(bare, transactionCount, random);
+        console.printf("%nDeposit: %.0f ns without the index, %.0f ns with it (+%.0f ns)%n", plain, indexed,
+                indexed - plain);
+    }
+
+    private static double deposits(List<BankAccount> accounts, int count, Random random) {
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            accounts.get(random.nextInt(accounts.size())).deposit(Money.ofRupees(1 + random.nextInt(10_000)));
+        }
+        return (System.nanoTime() - start) / (double) count;
+    }
+
+    private static void query(PrintStream console, String label, TransactionIndex index, List<BankAccount> accounts,
+                              long from, long to, EnumSet<TransactionType> types, long minAmount) {
+        // Best of a few runs, the first of which warms up
+        long[] sum = new long[1];
+        long matches = 0;
+        double indexMillis = Double.MAX_VALUE;
+        for (int run = 0; run < SCANS; run++) {
+            sum[0] = 0;
+            long start = System.nanoTime();
+            matches = index.scan(from, to, types, minAmount, (account, type, amount, timestamp, id) -> {
+                sum[0] += amount;
+                return true;
+            });
+            indexMillis = Math.min(indexMillis, (System.nanoTime() - start) / 1e6);
+        }
+
+        long walked = 0;
+        long walkedSum = 0;
+        long start = System.nanoTime();
+        for (BankAccount account : accounts) {
+            for (Transaction transaction : account.getTransactionHistory()) {
+                if (transaction.getAmount() >= minAmount && transaction.getTimestampMillis() >= from
+                        && transaction.getTimestampMillis() < to
+                        && (types == null || types.contains(transaction.getType()))) {
+                    walked++;
+                    walkedSum += transaction.getAmount();
+                }
+            }
+        }
+        double walkMillis = (System.nanoTime() - start) / 1e6;
+        console.printf("%-34s %12.1f %12.1f %,12d %10s%n", label, indexMillis, walkMillis, matches,
+                matches == walked && sum[0] == walkedSum ? "yes" : "NO");
+    }
+}
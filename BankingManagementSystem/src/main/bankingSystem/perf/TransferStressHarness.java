@@ -0,0 +1,118 @@
+package main.bankingSystem.perf;
+
+import main.bankingSystem.accounts.BankAccount;
+import main.bankingSystem.accounts.SavingsAccount;
+import main.bankingSystem.util.Money;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Multi-threaded stress run of BankAccount.transfer: hammers a small set of accounts
+// with opposing transfers plus deposits, checks that no money is created or lost and
+// reports transfers/sec for 1..64 threads.
+//
+// Usage: TransferStressHarness [accounts=16] [secondsPerLevel=2]
+public class TransferStressHarness {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+    private static final long INITIAL_BALANCE = Money.ofRupees(1_000_000);
+
+    public static void main(String[] args) throws InterruptedException {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int secondsPerLevel = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+
+        PrintStream console = System.out;
+        console.printf("%-8s %-15s %-15s %-10s%n", "Threads", "Transfers/sec", "Rejected", "Conserved");
+
+        boolean allConserved = true;
+        for (int threads : THREAD_COUNTS) {
+            BankAccount[] accounts = new BankAccount[accountCount];
+            for (int i = 0; i < accountCount; i++) {
+                accounts[i] = new SavingsAccount("SAV" + (1001 + i), "Stress " + i, INITIAL_BALANCE);
+            }
+
+            // Account methods still report to stdout; keep it out of the measurement
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            Result result;
+            try {
+                result = run(accounts, threads, secondsPerLevel * 1000L);
+            } finally {
+                System.setOut(console);
+            }
+
+            long expected = INITIAL_BALANCE * accountCount + result.deposited;
+            long actual = 0;
+            for (BankAccount account : accounts) {
+                actual += account.getBalance();
+            }
+            boolean conserved = actual == expected;
+            allConserved &= conserved;
+
+            console.printf("%-8d %-15.0f %-15d %-10s%n", threads,
+                    result.transfers * 1000.0 / result.elapsedMillis, result.rejected,
+                    conserved ? "yes" : "NO (expected " + expected + ", found " + actual + ")");
+        }
+
+        if (!allConserved) {
+            console.println("❌ Money was not conserved!");
+            System.exit(1);
+        }
+        console.println("✅ Money conserved at every thread count.");
+    }
+
+    private static Result run(BankAccount[] accounts, int threads, long durationMillis)
+            throws InterruptedException {
+        AtomicLong transfers = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong deposited = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long[] deadline = new long[1];
+
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                long failed = 0;
+                long depositedHere = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.currentTimeMillis() < deadline[0]) {
+                    BankAccount from = accounts[random.nextInt(accounts.length)];
+                    BankAccount to = accounts[random.nextInt(accounts.length)];
+                    long amount = 1 + random.nextInt(50_000);
+                    if (random.nextInt(10) == 0) {
+                        if (to.deposit(amount).isSuccess()) {
+                            depositedHere += amount;
+                        }
+                    } else if (from.transfer(to, amount).isSuccess()) {
+                        done++;
+                    } else {
+                        failed++;
+                    }
+                }
+                transfers.addAndGet(done);
+                rejected.addAndGet(failed);
+                deposited.addAndGet(depositedHere);
+            }, "stress-" + t);
+            workers[t].start();
+        }
+
+        long begin = System.currentTimeMillis();
+        deadline[0] = begin + durationMillis;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.currentTimeMillis() - begin;
+        return new Result(transfers.get(), rejected.get(), deposited.get(), elapsed);
+    }
+
+    private record Result(long transfers, long rejected, long deposited, long elapsedMillis) {
+    }
+}
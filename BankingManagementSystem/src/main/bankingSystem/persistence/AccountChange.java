@@ -0,0 +1,16 @@
+package main.bankingSystem.persistence;
+
+// Account lifecycle records kept in the journal alongside transactions, so that
+// accounts can be rebuilt from a snapshot plus the journal tail
+public enum AccountChange {
+    OPENED,             // value: overdraft limit (current) or tenure months (FD)
+    CLOSED,
+    REACTIVATED,
+    DELETED,
+    OVERDRAFT_CHANGED,  // value: new overdraft limit in paise
+    MATURED,
+    INTEREST_POSTED,    // value: epoch day of the end-of-day interest run
+    BATCH_BEGIN,        // value: TransferBatch window id; one per account in the window
+    BATCH_END,          // value: TransferBatch window id; the window is complete
+    BATCH_ROLLED_BACK   // value: TransferBatch window id; recovery dropped the window
+}
@@ -0,0 +1,11 @@
+package main.bankingSystem.persistence;
+
+public enum DurabilityMode {
+    // fsync after every record; the caller returns only once its record is on disk
+    PER_OPERATION,
+    // callers wait for a background flusher that fsyncs everything appended so far in one
+    // batch, as soon as anyone is waiting and at least every interval
+    GROUP_COMMIT,
+    // a background flusher fsyncs every interval and callers never wait
+    ASYNC
+}
@@ -0,0 +1,19 @@
+package main.bankingSystem.persistence;
+
+import main.bankingSystem.transactions.TransactionType;
+
+// Either a transaction (type set, change null) or an account change (change set, type
+// null). For changes, amount holds the change's value; holderName is only set for
+// OPENED records. Transactions carry the other account of a transfer (null if none, or
+// if the journal predates counterparties) and the description variant their writer
+// journaled them with, 0 for the type's usual description. The legs of a transfer
+// journaled one at a time (see AccountCommands) share a transferId, 0 otherwise.
+public record JournalRecord(long sequence, long timestampMillis, String accountNumber,
+                            TransactionType type, long amount, long transactionId,
+                            AccountChange change, String holderName, String counterparty,
+                            int variant, long transferId) {
+
+    public boolean isTransaction() {
+        return type != null;
+    }
+}
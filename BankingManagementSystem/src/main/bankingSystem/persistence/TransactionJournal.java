@@ -0,0 +1,709 @@
+package main.bankingSystem.persistence;
+
+import main.bankingSystem.transactions.TransactionType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+// Append-only write-ahead journal of account transactions. Records are fixed-size
+// (RECORD_SIZE bytes) and written into memory-mapped chunks of the journal file.
+// Record n lives at offset n * RECORD_SIZE; slot 0 holds the file header.
+//
+// Record layout:
+//   0  long  sequence (1, 2, 3, ...)
+//   8  long  timestamp, epoch millis
+//   16 long  amount in paise
+//   24 long  transaction id
+//   32 byte  TransactionType ordinal, or CHANGE_TYPE + AccountChange ordinal
+//   33 byte  account number length
+//   34 16 x  account number, US-ASCII
+//   50 byte  flags: CONTINUED if the next record belongs to the same group
+//   51 byte  description variant of a transaction, chosen by the writer (0 for the
+//            type's usual description; see JournalRecord)
+//   52 long  transfer id of a leg of a transfer split across journal appends, 0 if none
+//   60 int   CRC32C of bytes 0..59
+//
+// Account change records reuse the layout with the change's value in the amount field.
+// An OPENED record keeps the holder name's UTF-8 length in the transaction id field and
+// is followed by NAME_TYPE records carrying the name 16 bytes at a time in bytes 16..31.
+//
+// A transaction may be followed, in its group, by a COUNTERPARTY_TYPE record naming the
+// other account of a transfer in its account field; the two legs journaled together by
+// appendTransfer name each other without one.
+//
+// Records that must be replayed together, such as the two legs of a transfer, form a
+// group: every record but the last is CONTINUED. A group (and an OPENED record with its
+// name chunks) is appended under one hold of the journal's monitor, so no other record
+// lands inside it.
+//
+// On open the file is scanned until the first record whose checksum or sequence does
+// not match, which is where a crash may have torn the last write. A group cut short
+// there (a CONTINUED record without its successor, or an OPENED record missing some of
+// its name chunks) is dropped whole: the scan rewinds to the group's first record.
+// Everything after that point is zeroed and forced before the first append: mapped
+// pages reach the disk in any order, so a crash can leave intact records beyond a torn
+// one, and once appends reuse their sequence numbers a later scan would take them for
+// new records.
+public class TransactionJournal implements Closeable {
+    public static final int RECORD_SIZE = 64;
+    public static final long DEFAULT_CHUNK_SIZE = 64L * 1024 * 1024;
+    public static final long DEFAULT_GROUP_COMMIT_MILLIS = 5;
+
+    private static final long MAGIC = 0x42414E4B4A524E4CL; // "BANKJRNL"
+    private static final int VERSION = 3;
+    private static final int MAX_ACCOUNT_NUMBER_LENGTH = 16;
+    private static final int MAX_NAME_LENGTH = 1024;
+    private static final int NAME_CHUNK = 16;
+    private static final int CHANGE_TYPE = 0x40;
+    private static final int NAME_TYPE = 0x7F;
+    private static final int COUNTERPARTY_TYPE = 0x7E;
+    private static final int CONTINUED = 1;
+
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int TIMESTAMP_OFFSET = 8;
+    private static final int AMOUNT_OFFSET = 16;
+    private static final int TRANSACTION_ID_OFFSET = 24;
+    private static final int TYPE_OFFSET = 32;
+    private static final int ACCOUNT_LENGTH_OFFSET = 33;
+    private static final int ACCOUNT_OFFSET = 34;
+    private static final int FLAGS_OFFSET = 50;
+    private static final int VARIANT_OFFSET = 51;
+    private static final int TRANSFER_ID_OFFSET = 52;
+    private static final int CHECKSUM_OFFSET = 60;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final AccountChange[] CHANGES = AccountChange.values();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final DurabilityMode mode;
+    private final long chunkSize;
+    private final long groupCommitMillis;
+
+    // Encoding buffer and checksum, guarded by this
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private final ByteBuffer scratchBuffer = ByteBuffer.wrap(scratch);
+    private final CRC32C checksum = new CRC32C();
+
+    // Replaced (never mutated) when the file grows so the flusher can read it unlocked
+    private volatile MappedByteBuffer[] chunks;
+    private long nextSequence;
+    private long writePosition;
+
+    private volatile long appendedSequence;
+    private volatile long maxTransactionId;
+    private volatile long durableSequence;
+    private long durablePosition;
+
+    // Guards flushRequested and durableSequence updates. A lock rather than monitors so
+    // that a virtual thread waiting in sync() unmounts from its carrier; on JDK 21-23
+    // Object.wait pins it for the whole group-commit interval.
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition flushWanted = durableLock.newCondition();
+    private final Condition madeDurable = durableLock.newCondition();
+    private boolean flushRequested;
+    private final Thread flusher;
+    private volatile boolean running;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    private TransactionJournal(Path path, FileChannel channel, DurabilityMode mode,
+                               long chunkSize, long groupCommitMillis) {
+        this.path = path;
+        this.channel = channel;
+        this.mode = mode;
+        this.chunkSize = chunkSize;
+        this.groupCommitMillis = groupCommitMillis;
+        this.chunks = new MappedByteBuffer[0];
+        this.flusher = mode == DurabilityMode.PER_OPERATION ? null
+                : new Thread(this::runFlusher, "journal-flusher");
+    }
+
+    public static TransactionJournal open(Path path, DurabilityMode mode) throws IOException {
+        return open(path, mode, DEFAULT_GROUP_COMMIT_MILLIS, DEFAULT_CHUNK_SIZE);
+    }
+
+    public static TransactionJournal open(Path path, DurabilityMode mode, long groupCommitMillis,
+                                          long chunkSize) throws IOException {
+        if (chunkSize <= 0 || chunkSize % RECORD_SIZE != 0 || chunkSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Chunk size must be a positive multiple of "
+                    + RECORD_SIZE + " below 2GB");
+        }
+        if (groupCommitMillis <= 0) {
+            throw new IllegalArgumentException("Group commit interval must be positive");
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long existingChunkSize = readHeaderChunkSize(channel);
+            TransactionJournal journal = new TransactionJournal(path, channel, mode,
+                    existingChunkSize > 0 ? existingChunkSize : chunkSize, groupCommitMillis);
+            journal.recover(existingChunkSize > 0);
+            if (journal.flusher != null) {
+                journal.running = true;
+                journal.flusher.setDaemon(true);
+                journal.flusher.start();
+            }
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static long readHeaderChunkSize(FileChannel channel) throws IOException {
+        if (channel.size() == 0) {
+            return 0;
+        }
+        ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < 24 || header.getLong(0) != MAGIC) {
+            throw new IOException("Not a transaction journal");
+        }
+        // Version 1 files only lack change records and version 2 files groups, so they
+        // are read as they are
+        if (header.getInt(8) < 1 || header.getInt(8) > VERSION || header.getInt(12) != RECORD_SIZE) {
+            throw new IOException("Unsupported journal version " + header.getInt(8));
+        }
+        return header.getLong(16);
+    }
+
+    private void recover(boolean existing) throws IOException {
+        if (!existing) {
+            MappedByteBuffer first = chunkFor(0);
+            first.putLong(0, MAGIC);
+            first.putInt(8, VERSION);
+            first.putInt(12, RECORD_SIZE);
+            first.putLong(16, chunkSize);
+            first.force(0, RECORD_SIZE);
+        }
+
+        long fileSize = channel.size();
+        long position = RECORD_SIZE;
+        long expected = 1;
+        byte[] record = new byte[RECORD_SIZE];
+        ByteBuffer view = ByteBuffer.wrap(record);
+        long maxId = 0;
+        // Name chunks still owed by the current OPENED group
+        long owed = 0;
+        boolean continued = false;
+        long groupPosition = position;
+        while (position + RECORD_SIZE <= fileSize) {
+            chunkFor(position).get((int) (position % chunkSize), record);
+            if (!isValid(record, expected)) {
+                break;
+            }
+            int type = record[TYPE_OFFSET] & 0xFF;
+            if (owed > 0) {
+                if (type != NAME_TYPE) {
+                    break;
+                }
+                owed--;
+            } else {
+                if (!continued) {
+                    groupPosition = position;
+                }
+                if (type == CHANGE_TYPE + AccountChange.OPENED.ordinal()) {
+                    owed = nameChunks(view.getLong(TRANSACTION_ID_OFFSET));
+                } else if (type < CHANGE_TYPE) {
+                    maxId = Math.max(maxId, view.getLong(TRANSACTION_ID_OFFSET));
+                }
+            }
+            continued = (record[FLAGS_OFFSET] & CONTINUED) != 0;
+            position += RECORD_SIZE;
+            expected++;
+        }
+        if (owed > 0 || continued) {
+            expected -= (position - groupPosition) / RECORD_SIZE;
+            position = groupPosition;
+        }
+        clearTail(position, channel.size());
+
+        nextSequence = expected;
+        writePosition = position;
+        durablePosition = position;
+        appendedSequence = expected - 1;
+        durableSequence = expected - 1;
+        maxTransactionId = maxId;
+    }
+
+    // Zeroes the non-zero slots in [from, to) and forces them. Only slots a previous run
+    // wrote are dirtied, so reopening a cleanly closed journal writes nothing.
+    private void clearTail(long from, long to) throws IOException {
+        byte[] record = new byte[RECORD_SIZE];
+        byte[] zeros = new byte[RECORD_SIZE];
+        long dirtyEnd = from;
+        for (long position = from; position + RECORD_SIZE <= to; position += RECORD_SIZE) {
+            MappedByteBuffer chunk = chunkFor(position);
+            int offset = (int) (position % chunkSize);
+            chunk.get(offset, record);
+            if (!Arrays.equals(record, zeros)) {
+                chunk.put(offset, zeros);
+                dirtyEnd = position + RECORD_SIZE;
+            }
+        }
+        if (dirtyEnd > from) {
+            force(from, dirtyEnd);
+        }
+    }
+
+    // Name chunks after an OPENED record with this name length
+    private static long nameChunks(long nameLength) {
+        return (nameLength + NAME_CHUNK - 1) / NAME_CHUNK;
+    }
+
+    private boolean isValid(byte[] record, long expectedSequence) {
+        ByteBuffer view = ByteBuffer.wrap(record);
+        checksum.reset();
+        checksum.update(record, 0, CHECKSUM_OFFSET);
+        return view.getInt(CHECKSUM_OFFSET) == (int) checksum.getValue()
+                && view.getLong(SEQUENCE_OFFSET) == expectedSequence;
+    }
+
+    // Appends one record and returns its sequence number. In PER_OPERATION mode the
+    // record is forced to disk before returning; otherwise call sync() (after releasing
+    // any account locks) to wait for durability.
+    public long append(String accountNumber, TransactionType type, long amount, long timestampMillis,
+                       long transactionId) {
+        return append(accountNumber, type, amount, timestampMillis, transactionId, 0, null, 0);
+    }
+
+    // As above, with the description variant to replay the row with and, for one leg of
+    // a transfer journaled on its own, the other account (null if none) and the id that
+    // ties the legs together (0 if none). Returns the sequence of the transaction record.
+    public long append(String accountNumber, TransactionType type, long amount, long timestampMillis,
+                       long transactionId, int variant, String counterparty, long transferId) {
+        checkAccountNumber(accountNumber);
+        if (counterparty != null) {
+            checkAccountNumber(counterparty);
+        }
+        synchronized (this) {
+            ensureOpen();
+            long start = writePosition;
+            long sequence = writeRecord(accountNumber, type.ordinal(), timestampMillis, amount, transactionId,
+                    counterparty == null ? 0 : CONTINUED, variant, transferId);
+            if (counterparty != null) {
+                writeRecord(counterparty, COUNTERPARTY_TYPE, timestampMillis, 0, 0, 0, 0);
+            }
+            if (transactionId > maxTransactionId) {
+                maxTransactionId = transactionId;
+            }
+            published(start, nextSequence - 1);
+            return sequence;
+        }
+    }
+
+    // Appends both legs of a transfer as one group, TRANSFER_OUT then TRANSFER_IN, and
+    // returns the sequence of the TRANSFER_IN record; the TRANSFER_OUT is the one before.
+    // Recovery keeps both or neither. Durability as for append().
+    public long appendTransfer(String fromAccount, String toAccount, long amount, long outTimestampMillis,
+                               long outTransactionId, long inTimestampMillis, long inTransactionId) {
+        checkAccountNumber(fromAccount);
+        checkAccountNumber(toAccount);
+        synchronized (this) {
+            ensureOpen();
+            long start = writePosition;
+            writeRecord(fromAccount, TransactionType.TRANSFER_OUT.ordinal(), outTimestampMillis, amount,
+                    outTransactionId, CONTINUED, 0);
+            long sequence = writeRecord(toAccount, TransactionType.TRANSFER_IN.ordinal(), inTimestampMillis, amount,
+                    inTransactionId, 0, 0);
+            maxTransactionId = Math.max(maxTransactionId, Math.max(outTransactionId, inTransactionId));
+            return published(start, sequence);
+        }
+    }
+
+    // Appends an account change other than OPENED; durability as for append()
+    public long appendChange(String accountNumber, AccountChange change, long value, long timestampMillis) {
+        if (change == AccountChange.OPENED) {
+            throw new IllegalArgumentException("Use appendOpened for new accounts");
+        }
+        checkAccountNumber(accountNumber);
+        synchronized (this) {
+            ensureOpen();
+            long start = writePosition;
+            long sequence = writeRecord(accountNumber, CHANGE_TYPE + change.ordinal(), timestampMillis, value, 0,
+                    0, 0);
+            return published(start, sequence);
+        }
+    }
+
+    // Appends an interest credit as one group: MATURED if the credit matures a fixed
+    // deposit, INTEREST_POSTED with the run day, then the INTEREST transaction unless the
+    // interest is 0. Returns the sequence of the last record. Replaying the run day
+    // without its credit would make the account look credited, so recovery keeps all of
+    // them or none. Durability as for append().
+    public long appendInterest(String accountNumber, long runDay, boolean matured, long interest,
+                               long timestampMillis, long transactionId) {
+        checkAccountNumber(accountNumber);
+        synchronized (this) {
+            ensureOpen();
+            long start = writePosition;
+            if (matured) {
+                writeRecord(accountNumber, CHANGE_TYPE + AccountChange.MATURED.ordinal(), timestampMillis, 0, 0,
+                        CONTINUED, 0);
+            }
+            long sequence = writeRecord(accountNumber, CHANGE_TYPE + AccountChange.INTEREST_POSTED.ordinal(),
+                    timestampMillis, runDay, 0, interest > 0 ? CONTINUED : 0, 0);
+            if (interest > 0) {
+                sequence = writeRecord(accountNumber, TransactionType.INTEREST.ordinal(), timestampMillis, interest,
+                        transactionId, 0, 0);
+                maxTransactionId = Math.max(maxTransactionId, transactionId);
+            }
+            return published(start, sequence);
+        }
+    }
+
+    // Appends an OPENED record and the holder name chunks after it as one group, and
+    // returns the sequence of the last record in the group
+    public long appendOpened(String accountNumber, String holderName, long value, long createdMillis) {
+        checkAccountNumber(accountNumber);
+        byte[] name = holderName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Holder name too long for journal");
+        }
+        synchronized (this) {
+            ensureOpen();
+            long start = writePosition;
+            long sequence = writeRecord(accountNumber, CHANGE_TYPE + AccountChange.OPENED.ordinal(),
+                    createdMillis, value, name.length, 0, 0);
+            byte[] chunk = new byte[NAME_CHUNK];
+            for (int offset = 0; offset < name.length; offset += NAME_CHUNK) {
+                Arrays.fill(chunk, (byte) 0);
+                System.arraycopy(name, offset, chunk, 0, Math.min(NAME_CHUNK, name.length - offset));
+                ByteBuffer view = ByteBuffer.wrap(chunk);
+                sequence = writeRecord(accountNumber, NAME_TYPE, createdMillis, view.getLong(0), view.getLong(8),
+                        0, 0);
+            }
+            return published(start, sequence);
+        }
+    }
+
+    private static void checkAccountNumber(String accountNumber) {
+        int length = accountNumber.length();
+        if (length > MAX_ACCOUNT_NUMBER_LENGTH) {
+            throw new IllegalArgumentException("Account number too long for journal: " + accountNumber);
+        }
+        for (int i = 0; i < length; i++) {
+            if (accountNumber.charAt(i) > 0x7F) {
+                throw new IllegalArgumentException("Account number must be ASCII: " + accountNumber);
+            }
+        }
+    }
+
+    // Caller holds this; encodes one record at the write position and returns its sequence
+    private long writeRecord(String accountNumber, int type, long timestampMillis, long amount,
+                             long transactionId, int flags, int variant) {
+        return writeRecord(accountNumber, type, timestampMillis, amount, transactionId, flags, variant, 0);
+    }
+
+    private long writeRecord(String accountNumber, int type, long timestampMillis, long amount,
+                             long transactionId, int flags, int variant, long transferId) {
+        long sequence = nextSequence;
+        int length = accountNumber.length();
+        scratchBuffer.putLong(SEQUENCE_OFFSET, sequence);
+        scratchBuffer.putLong(TIMESTAMP_OFFSET, timestampMillis);
+        scratchBuffer.putLong(AMOUNT_OFFSET, amount);
+        scratchBuffer.putLong(TRANSACTION_ID_OFFSET, transactionId);
+        scratch[TYPE_OFFSET] = (byte) type;
+        scratch[ACCOUNT_LENGTH_OFFSET] = (byte) length;
+        Arrays.fill(scratch, ACCOUNT_OFFSET, CHECKSUM_OFFSET, (byte) 0);
+        for (int i = 0; i < length; i++) {
+            scratch[ACCOUNT_OFFSET + i] = (byte) accountNumber.charAt(i);
+        }
+        scratch[FLAGS_OFFSET] = (byte) flags;
+        scratch[VARIANT_OFFSET] = (byte) variant;
+        scratchBuffer.putLong(TRANSFER_ID_OFFSET, transferId);
+        checksum.reset();
+        checksum.update(scratch, 0, CHECKSUM_OFFSET);
+        scratchBuffer.putInt(CHECKSUM_OFFSET, (int) checksum.getValue());
+
+        writableChunk(writePosition).put((int) (writePosition % chunkSize), scratch);
+        writePosition += RECORD_SIZE;
+        nextSequence++;
+        return sequence;
+    }
+
+    // Caller holds this; makes records up to 'sequence' visible to replay and, in
+    // PER_OPERATION mode, durable
+    private long published(long startPosition, long sequence) {
+        appendedSequence = sequence;
+        if (mode == DurabilityMode.PER_OPERATION) {
+            try {
+                force(startPosition, writePosition);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not force journal " + path, e);
+            }
+            durablePosition = writePosition;
+            durableSequence = sequence;
+        }
+        return sequence;
+    }
+
+    // Blocks until every record appended so far is on disk (GROUP_COMMIT only)
+    public void sync() {
+        if (mode == DurabilityMode.GROUP_COMMIT) {
+            awaitDurable();
+        }
+    }
+
+    // Like sync(), but also waits in ASYNC mode; used where later state depends on the
+    // journal, such as a snapshot that records a journal position
+    public void syncAll() {
+        if (mode != DurabilityMode.PER_OPERATION) {
+            awaitDurable();
+        }
+    }
+
+    private void awaitDurable() {
+        long target = appendedSequence;
+        if (durableSequence >= target) {
+            return;
+        }
+        durableLock.lock();
+        try {
+            flushRequested = true;
+            flushWanted.signal();
+            while (durableSequence < target && !closed && failure == null) {
+                madeDurable.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            durableLock.unlock();
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Journal flush failed", failure);
+        }
+    }
+
+    // Streams every record with a sequence greater than afterSequence. Name chunks are
+    // folded into their OPENED record and COUNTERPARTY records into their transaction;
+    // ones without it (replay started mid-group) are skipped. Recovery dropped any group the file ends inside, so a group that is
+    // not whole here means the file is corrupt.
+    public void replay(long afterSequence, Consumer<JournalRecord> consumer) {
+        long last = appendedSequence;
+        byte[] record = new byte[RECORD_SIZE];
+        byte[] next = new byte[RECORD_SIZE];
+        ByteBuffer view = ByteBuffer.wrap(record);
+        // Account of a TRANSFER_OUT journaled by appendTransfer, for the TRANSFER_IN after it
+        String pairedFrom = null;
+        for (long sequence = Math.max(1, afterSequence + 1); sequence <= last; sequence++) {
+            read(sequence, record);
+            int type = record[TYPE_OFFSET] & 0xFF;
+            String accountNumber = accountOf(record);
+            String paired = pairedFrom;
+            pairedFrom = null;
+            if (type < CHANGE_TYPE) {
+                String counterparty = paired;
+                if ((record[FLAGS_OFFSET] & CONTINUED) != 0 && sequence < last) {
+                    read(sequence + 1, next);
+                    int nextType = next[TYPE_OFFSET] & 0xFF;
+                    if (nextType == COUNTERPARTY_TYPE) {
+                        counterparty = accountOf(next);
+                    } else if (type == TransactionType.TRANSFER_OUT.ordinal()
+                            && nextType == TransactionType.TRANSFER_IN.ordinal()) {
+                        counterparty = accountOf(next);
+                        pairedFrom = accountNumber;
+                    }
+                }
+                consumer.accept(new JournalRecord(sequence, view.getLong(TIMESTAMP_OFFSET), accountNumber,
+                        TYPES[type], view.getLong(AMOUNT_OFFSET), view.getLong(TRANSACTION_ID_OFFSET),
+                        null, null, counterparty, record[VARIANT_OFFSET], view.getLong(TRANSFER_ID_OFFSET)));
+                continue;
+            }
+            if (type == NAME_TYPE || type == COUNTERPARTY_TYPE) {
+                continue;
+            }
+            AccountChange change = CHANGES[type - CHANGE_TYPE];
+            long timestamp = view.getLong(TIMESTAMP_OFFSET);
+            long value = view.getLong(AMOUNT_OFFSET);
+            String holderName = null;
+            if (change == AccountChange.OPENED) {
+                int nameLength = (int) view.getLong(TRANSACTION_ID_OFFSET);
+                long opened = sequence;
+                if (opened + nameChunks(nameLength) > last) {
+                    throw new IllegalStateException("Journal " + path + " ends inside the OPENED record at "
+                            + opened);
+                }
+                byte[] name = new byte[nameLength];
+                for (int offset = 0; offset < nameLength; offset += NAME_CHUNK) {
+                    read(++sequence, record);
+                    if ((record[TYPE_OFFSET] & 0xFF) != NAME_TYPE) {
+                        throw new IllegalStateException("Journal " + path + " is missing name chunks of the OPENED"
+                                + " record at " + opened);
+                    }
+                    System.arraycopy(record, AMOUNT_OFFSET, name, offset, Math.min(NAME_CHUNK, nameLength - offset));
+                }
+                holderName = new String(name, StandardCharsets.UTF_8);
+                consumer.accept(new JournalRecord(opened, timestamp, accountNumber, null, value, 0,
+                        change, holderName, null, 0, 0));
+                continue;
+            }
+            consumer.accept(new JournalRecord(sequence, timestamp, accountNumber, null, value, 0,
+                    change, null, null, 0, 0));
+        }
+    }
+
+    private static String accountOf(byte[] record) {
+        return new String(record, ACCOUNT_OFFSET, record[ACCOUNT_LENGTH_OFFSET], StandardCharsets.US_ASCII);
+    }
+
+    private void read(long sequence, byte[] record) {
+        long position = sequence * RECORD_SIZE;
+        chunks[(int) (position / chunkSize)].get((int) (position % chunkSize), record);
+    }
+
+    private MappedByteBuffer chunkFor(long position) throws IOException {
+        int index = (int) (position / chunkSize);
+        MappedByteBuffer[] mapped = chunks;
+        if (index < mapped.length) {
+            return mapped[index];
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(mapped, index + 1);
+        for (int i = mapped.length; i <= index; i++) {
+            grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * chunkSize, chunkSize);
+        }
+        chunks = grown;
+        return grown[index];
+    }
+
+    private MappedByteBuffer writableChunk(long position) {
+        try {
+            return chunkFor(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not grow journal " + path, e);
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                // Flush every interval, or straight away once a caller is waiting in sync();
+                // everything appended while the previous fsync ran goes out in one batch
+                durableLock.lock();
+                try {
+                    if (!flushRequested) {
+                        flushWanted.await(groupCommitMillis, TimeUnit.MILLISECONDS);
+                    }
+                    flushRequested = false;
+                } finally {
+                    durableLock.unlock();
+                }
+                flush();
+            } catch (InterruptedException e) {
+                // close() interrupts the wait; the loop condition ends the thread
+            } catch (IOException e) {
+                failure = e;
+                wakeWaiters();
+                return;
+            }
+        }
+    }
+
+    // Only called from the flusher thread, or from close() once the flusher has stopped
+    private void flush() throws IOException {
+        long targetSequence;
+        long targetPosition;
+        synchronized (this) {
+            targetSequence = nextSequence - 1;
+            targetPosition = writePosition;
+        }
+        if (targetSequence <= durableSequence) {
+            return;
+        }
+
+        force(durablePosition, targetPosition);
+        durablePosition = targetPosition;
+
+        durableLock.lock();
+        try {
+            durableSequence = targetSequence;
+            madeDurable.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void wakeWaiters() {
+        durableLock.lock();
+        try {
+            madeDurable.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void force(long from, long to) throws IOException {
+        MappedByteBuffer[] mapped = chunks;
+        long position = from;
+        while (position < to) {
+            int index = (int) (position / chunkSize);
+            int offset = (int) (position % chunkSize);
+            int length = (int) Math.min(chunkSize - offset, to - position);
+            mapped[index].force(offset, length);
+            position += length;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+    }
+
+    public DurabilityMode getMode() {
+        return mode;
+    }
+
+    public long getLastSequence() {
+        return appendedSequence;
+    }
+
+    // Highest transaction id ever journaled, used to keep ids unique across restarts
+    public long getMaxTransactionId() {
+        return maxTransactionId;
+    }
+
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (flusher != null) {
+            running = false;
+            flusher.interrupt();
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            if (failure == null) {
+                flush();
+            }
+            closed = true;
+        }
+        wakeWaiters();
+        channel.close();
+    }
+}
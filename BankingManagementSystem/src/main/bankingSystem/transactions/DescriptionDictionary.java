@@ -0,0 +1,44 @@
+package main.bankingSystem.transactions;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bank-wide dictionary of transaction descriptions. Descriptions repeat endlessly
+// ("Deposit to account", "Transfer to SAV1002", ...), so the transaction store keeps a
+// small int code per row and each distinct string lives here exactly once.
+public final class DescriptionDictionary {
+    private static final ConcurrentHashMap<String, Integer> CODES = new ConcurrentHashMap<>();
+    private static volatile String[] descriptions = new String[64];
+    private static int size;
+
+    private DescriptionDictionary() {
+    }
+
+    public static int encode(String description) {
+        Integer code = CODES.get(description);
+        if (code != null) {
+            return code;
+        }
+        return CODES.computeIfAbsent(description, DescriptionDictionary::add);
+    }
+
+    // Called at most once per distinct description, from computeIfAbsent
+    private static synchronized int add(String description) {
+        String[] current = descriptions;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[size] = description;
+        // Publish the array after the slot is filled so lock-free readers see it
+        descriptions = current;
+        return size++;
+    }
+
+    public static String decode(int code) {
+        return descriptions[code];
+    }
+
+    public static int size() {
+        return CODES.size();
+    }
+}
@@ -0,0 +1,218 @@
+package main.bankingSystem.transactions;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cold tier for account histories. A TransactionStore with an archive attached keeps
+// only its newest rows on heap: 'hotRows' of them, and none older than 'hotAge' once
+// BankAccount.archiveHistory has run. Older rows are encoded into immutable
+// HistorySegments (about a third of their heap size) appended to one file shared by
+// every account, and the store keeps 44 bytes of position and type counts per segment.
+//
+// Stores spill in steps of SEGMENT_ROWS rows, so on the append path one operation in
+// SEGMENT_ROWS pays for encoding and one positional write to the page cache. Writes
+// reserve their range with a CAS and never lock the file.
+//
+// History views that reach back past the hot rows load segments through a small
+// direct-mapped cache of decoded segments. Decoded segments never change, so the cache
+// is read and filled without locks; a slot simply keeps the last segment mapped to it.
+//
+// The file outlives the process and is only ever appended to. It starts with a header
+// carrying a random id; snapshots record that id and each account's segment positions
+// instead of the archived rows, and recovery attaches the same segments again (see
+// SnapshotFile). Segments carry their description text rather than dictionary codes,
+// so a later process decodes them the same way. Nothing is forced as segments are
+// written: a segment is only durable once force() has run, which happens before every
+// snapshot is published, so the segments a published snapshot refers to are always on
+// disk. Segments no snapshot refers to, such as those written after the last snapshot
+// before a crash, and segments of deleted accounts are dead space; the file is not
+// compacted.
+public final class HistoryArchive implements Closeable {
+    private static final long MAGIC = 0x42414E4B48495354L; // "BANKHIST"
+    private static final int VERSION = 2;
+    // long MAGIC, int VERSION, int unused, long id
+    private static final int HEADER_BYTES = 24;
+
+    // Rows spilled at a time when an account goes over hotRows
+    static final int SEGMENT_ROWS = 256;
+    // Fewer old rows than this stay on heap rather than making a tiny segment
+    static final int MIN_SEGMENT_ROWS = 64;
+    // Largest segment written when a long history is archived in one go
+    static final int MAX_SEGMENT_ROWS = 4096;
+    private static final int CACHE_SLOTS = 256;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long id;
+    private final int hotRows;
+    private final long hotAgeMillis;
+    private final AtomicLong end = new AtomicLong();
+    private final HistorySegment[] cache = new HistorySegment[CACHE_SLOTS];
+    private final LongAdder segments = new LongAdder();
+    private final LongAdder archivedRows = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+
+    private HistoryArchive(Path file, FileChannel channel, long id, int hotRows, long hotAgeMillis)
+            throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.id = id;
+        this.hotRows = hotRows;
+        this.hotAgeMillis = hotAgeMillis;
+        end.set(channel.size());
+    }
+
+    // Opens the archive, creating it if the file is empty; new segments go after the
+    // existing ones. A hotAge of 0 keeps rows on heap regardless of age.
+    public static HistoryArchive open(Path file, int hotRows, long hotAge, TimeUnit unit) throws IOException {
+        if (hotRows < 1 || hotAge < 0) {
+            throw new IllegalArgumentException("Hot rows must be positive and hot age not negative");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            return new HistoryArchive(file, channel, readOrWriteHeader(file, channel), hotRows, unit.toMillis(hotAge));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static long readOrWriteHeader(Path file, FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (channel.size() == 0) {
+            long id = new SecureRandom().nextLong();
+            header.putLong(MAGIC).putInt(VERSION).putInt(0).putLong(id).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+            return id;
+        }
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // keep reading
+        }
+        if (header.hasRemaining() || header.getLong(0) != MAGIC) {
+            throw new IOException("Not a history archive: " + file);
+        }
+        if (header.getInt(8) != VERSION) {
+            throw new IOException("Unsupported history archive version " + header.getInt(8) + " in " + file);
+        }
+        return header.getLong(16);
+    }
+
+    // Identifies this file to the snapshots that refer to its segments
+    public long getId() {
+        return id;
+    }
+
+    // Makes every segment written so far durable
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    // Whether a segment position read back from a snapshot lies inside the file
+    boolean contains(long offset, int length) {
+        return offset >= HEADER_BYTES && length > 0 && offset + length <= end.get();
+    }
+
+    public int getHotRows() {
+        return hotRows;
+    }
+
+    public long getHotAgeMillis() {
+        return hotAgeMillis;
+    }
+
+    // Writes one encoded segment and returns its offset, or -1 if the write failed; the
+    // caller then keeps the rows on heap, since failing the transaction that triggered
+    // the spill would be worse
+    long write(byte[] encoded, int length, int rows) {
+        long offset = end.getAndAdd(length);
+        ByteBuffer buffer = ByteBuffer.wrap(encoded, 0, length);
+        try {
+            for (long position = offset; buffer.hasRemaining(); ) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            writeFailures.increment();
+            return -1;
+        }
+        segments.increment();
+        archivedRows.add(rows);
+        return offset;
+    }
+
+    HistorySegment load(long offset, int length) {
+        int slot = slot(offset);
+        HistorySegment cached = cache[slot];
+        if (cached != null && cached.offset == offset) {
+            cacheHits.increment();
+            return cached;
+        }
+        cacheMisses.increment();
+        byte[] encoded = new byte[length];
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        try {
+            for (long position = offset; buffer.hasRemaining(); ) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("Segment at " + offset + " runs past the end of " + file);
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archived history from " + file, e);
+        }
+        HistorySegment segment = HistorySegment.decode(offset, encoded);
+        cache[slot] = segment;
+        return segment;
+    }
+
+    private static int slot(long offset) {
+        long mixed = offset * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & (CACHE_SLOTS - 1);
+    }
+
+    public long getSegmentCount() {
+        return segments.sum();
+    }
+
+    public long getArchivedRowCount() {
+        return archivedRows.sum();
+    }
+
+    // Including segments written before the archive was opened
+    public long getBytesWritten() {
+        return end.get() - HEADER_BYTES;
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    public long getWriteFailures() {
+        return writeFailures.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
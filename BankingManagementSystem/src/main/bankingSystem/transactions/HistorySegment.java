@@ -0,0 +1,235 @@
+package main.bankingSystem.transactions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// A run of consecutive rows of one account's history, moved off heap by its
+// TransactionStore into a HistoryArchive. Segments never change once written; readers
+// get the decoded columns from the archive's cache.
+//
+// Encoding, column by column so each column's varints stay short:
+//   header       varint first row, varint row count
+//   timestamps   8-byte first timestamp, then varint gaps (rows are in time order)
+//   ids          zigzag varint of each id minus the Snowflake id its timestamp would
+//                start at (see TransactionIdGenerator), usually one to three bytes
+//   amounts      varint paise
+//   descriptions varint count of the segment's distinct descriptions, in text order and
+//                front-coded ("Transfer to SAV1002" after "Transfer to SAV1001" is 18
+//                and "2"): varint UTF-8 bytes shared with the one before, varint
+//                length and the rest; then a varint index into them per row
+//   types        two TransactionType ordinals per byte
+// A typical row takes 9-12 bytes against the 33 it uses on heap, plus each distinct
+// description once per segment.
+//
+// DescriptionDictionary codes are handed out in first-use order and only mean something
+// inside one process, so segments carry the text and decode maps it back to codes.
+final class HistorySegment {
+    // Longest possible encoding of one row: 10-byte gap, id and amount, 5-byte
+    // description index and (rounded up) a byte of type
+    static final int MAX_ROW_BYTES = 36;
+    static final int MAX_HEADER_BYTES = 18;
+
+    private static final int TIMESTAMP_SHIFT = 22;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    // Position of the segment in its archive, which caches decoded segments by it
+    final long offset;
+    final int firstRow;
+    final int count;
+    final long[] timestamps;
+    final long[] amounts;
+    final long[] transactionIds;
+    final byte[] types;
+    final int[] descriptions;
+
+    private HistorySegment(long offset, int firstRow, int count) {
+        this.offset = offset;
+        this.firstRow = firstRow;
+        this.count = count;
+        timestamps = new long[count];
+        amounts = new long[count];
+        transactionIds = new long[count];
+        types = new byte[count];
+        descriptions = new int[count];
+    }
+
+    // Distinct dictionary codes of rows from..from+count, sorted; encode() numbers the
+    // segment's descriptions by their position here
+    static int[] descriptionTable(int[] descriptions, int from, int count) {
+        int[] codes = Arrays.copyOfRange(descriptions, from, from + count);
+        Arrays.sort(codes);
+        int distinct = 0;
+        for (int i = 0; i < codes.length; i++) {
+            if (i == 0 || codes[i] != codes[i - 1]) {
+                codes[distinct++] = codes[i];
+            }
+        }
+        return Arrays.copyOf(codes, distinct);
+    }
+
+    // Bytes 'out' must hold to encode 'count' rows using the table
+    static int maxEncodedBytes(int count, int[] table) {
+        int bytes = MAX_HEADER_BYTES + count * MAX_ROW_BYTES + 5;
+        for (int code : table) {
+            bytes += 10 + DescriptionDictionary.decode(code).length() * 3;
+        }
+        return bytes;
+    }
+
+    // Encodes rows from..from+count of the given columns into 'out' and returns the
+    // number of bytes written; 'table' comes from descriptionTable() for the same rows
+    // and 'out' must hold maxEncodedBytes()
+    static int encode(int firstRow, long[] timestamps, long[] amounts, long[] transactionIds, byte[] types,
+                      int[] descriptions, int from, int count, int[] table, byte[] out) {
+        int position = putVarLong(out, 0, firstRow);
+        position = putVarLong(out, position, count);
+        int end = from + count;
+        long previous = timestamps[from];
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out[position++] = (byte) (previous >>> shift);
+        }
+        for (int row = from + 1; row < end; row++) {
+            position = putVarLong(out, position, timestamps[row] - previous);
+            previous = timestamps[row];
+        }
+        for (int row = from; row < end; row++) {
+            long predicted = (timestamps[row] - TransactionIdGenerator.EPOCH_MILLIS) << TIMESTAMP_SHIFT;
+            long delta = transactionIds[row] - predicted;
+            position = putVarLong(out, position, (delta << 1) ^ (delta >> 63));
+        }
+        for (int row = from; row < end; row++) {
+            position = putVarLong(out, position, amounts[row]);
+        }
+        byte[][] texts = new byte[table.length][];
+        Integer[] order = new Integer[table.length];
+        for (int i = 0; i < table.length; i++) {
+            texts[i] = DescriptionDictionary.decode(table[i]).getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(texts[a], texts[b]));
+        int[] rank = new int[table.length];
+        position = putVarLong(out, position, table.length);
+        byte[] previousText = new byte[0];
+        for (int i = 0; i < order.length; i++) {
+            byte[] text = texts[order[i]];
+            rank[order[i]] = i;
+            int shared = Arrays.mismatch(previousText, text);
+            shared = shared < 0 ? text.length : Math.min(shared, Math.min(previousText.length, text.length));
+            position = putVarLong(out, position, shared);
+            position = putVarLong(out, position, text.length - shared);
+            System.arraycopy(text, shared, out, position, text.length - shared);
+            position += text.length - shared;
+            previousText = text;
+        }
+        for (int row = from; row < end; row++) {
+            position = putVarLong(out, position, rank[Arrays.binarySearch(table, descriptions[row])]);
+        }
+        for (int row = from; row < end; row += 2) {
+            int high = row + 1 < end ? types[row + 1] : 0;
+            out[position++] = (byte) (types[row] | high << 4);
+        }
+        return position;
+    }
+
+    static HistorySegment decode(long offset, byte[] in) {
+        int[] position = new int[1];
+        int firstRow = (int) getVarLong(in, position);
+        int count = (int) getVarLong(in, position);
+        HistorySegment segment = new HistorySegment(offset, firstRow, count);
+        int p = position[0];
+        long timestamp = 0;
+        for (int i = 0; i < 8; i++) {
+            timestamp = timestamp << 8 | (in[p++] & 0xFF);
+        }
+        position[0] = p;
+        segment.timestamps[0] = timestamp;
+        for (int row = 1; row < count; row++) {
+            timestamp += getVarLong(in, position);
+            segment.timestamps[row] = timestamp;
+        }
+        for (int row = 0; row < count; row++) {
+            long zigzag = getVarLong(in, position);
+            long predicted = (segment.timestamps[row] - TransactionIdGenerator.EPOCH_MILLIS) << TIMESTAMP_SHIFT;
+            segment.transactionIds[row] = predicted + ((zigzag >>> 1) ^ -(zigzag & 1));
+        }
+        for (int row = 0; row < count; row++) {
+            segment.amounts[row] = getVarLong(in, position);
+        }
+        int[] codes = new int[(int) getVarLong(in, position)];
+        byte[] text = new byte[0];
+        for (int i = 0; i < codes.length; i++) {
+            int shared = (int) getVarLong(in, position);
+            int rest = (int) getVarLong(in, position);
+            text = Arrays.copyOf(text, shared + rest);
+            System.arraycopy(in, position[0], text, shared, rest);
+            position[0] += rest;
+            codes[i] = DescriptionDictionary.encode(new String(text, StandardCharsets.UTF_8));
+        }
+        for (int row = 0; row < count; row++) {
+            segment.descriptions[row] = codes[(int) getVarLong(in, position)];
+        }
+        p = position[0];
+        for (int row = 0; row < count; row += 2) {
+            int packed = in[p++];
+            segment.types[row] = (byte) (packed & 0xF);
+            if (row + 1 < count) {
+                segment.types[row + 1] = (byte) (packed >>> 4 & 0xF);
+            }
+        }
+        return segment;
+    }
+
+    Transaction get(int index) {
+        return new Transaction(TYPES[types[index]], amounts[index], descriptions[index], timestamps[index],
+                transactionIds[index]);
+    }
+
+    // Index of the first row at or after the time, or count if none
+    int firstAtOrAfter(long timestampMillis) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestampMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Index of the nth (from 0) row of the type
+    int indexOfType(int ordinal, int nth) {
+        int seen = 0;
+        for (int index = 0; index < count; index++) {
+            if (types[index] == ordinal && seen++ == nth) {
+                return index;
+            }
+        }
+        throw new IllegalStateException("Segment at " + offset + " has no row " + nth + " of " + TYPES[ordinal]);
+    }
+
+    private static int putVarLong(byte[] out, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out[position++] = (byte) value;
+        return position;
+    }
+
+    private static long getVarLong(byte[] in, int[] position) {
+        int p = position[0];
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in[p++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        position[0] = p;
+        return value;
+    }
+}
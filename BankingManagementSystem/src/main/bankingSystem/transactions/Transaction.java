@@ -1,30 +1,39 @@
 package main.bankingSystem.transactions;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
+// Read-only view of one row of a TransactionStore. Accounts record transactions
+// directly into their store; Transaction objects are only created for readers.
 public class Transaction {
     private final TransactionType type;
-    private final double amount;
-    private final String description;
-    private final LocalDateTime timestamp;
-    private final String transactionId;
+    // Amount in paise
+    private final long amount;
+    private final int descriptionCode;
+    private final long timestampMillis;
+    private final long transactionId;
 
-    public Transaction(TransactionType type, double amount, String description) {
+    Transaction(TransactionType type, long amount, int descriptionCode,
+                long timestampMillis, long transactionId) {
         this.type = type;
         this.amount = amount;
-        this.description = description;
-        this.timestamp = LocalDateTime.now();
-        this.transactionId = generateTransactionId();
+        this.descriptionCode = descriptionCode;
+        this.timestampMillis = timestampMillis;
+        this.transactionId = transactionId;
     }
 
-    private String generateTransactionId() {
-        return "TXN" + System.currentTimeMillis() +
-                (int)(Math.random() * 1000);
+    // Ids are kept as longs (see TransactionIdGenerator) and only turned into text here
+    public static String formatTransactionId(long transactionId) {
+        return "TXN" + transactionId;
     }
 
     public TransactionType getType() { return type; }
-    public double getAmount() { return amount; }
-    public String getDescription() { return description; }
-    public LocalDateTime getTimestamp() { return timestamp; }
-    public String getTransactionId() { return transactionId; }
-}
\ No newline at end of file
+    public long getAmount() { return amount; }
+    public String getDescription() { return DescriptionDictionary.decode(descriptionCode); }
+    public LocalDateTime getTimestamp() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault());
+    }
+    public long getTimestampMillis() { return timestampMillis; }
+    public long getTransactionId() { return transactionId; }
+}
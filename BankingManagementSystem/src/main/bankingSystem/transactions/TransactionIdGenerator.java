@@ -0,0 +1,74 @@
+package main.bankingSystem.transactions;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Snowflake-style 64-bit transaction ids:
+//
+//   [ 41 bits millis since 2024-01-01 UTC | 10 bits node id | 12 bits sequence ]
+//
+// The last (millis, sequence) pair is packed into one AtomicLong and advanced by CAS,
+// so ids are unique and increasing across threads without locks. When 4096 ids are
+// handed out within one millisecond, or the clock steps back, the generator keeps
+// counting from its own last value instead of reusing an id.
+public class TransactionIdGenerator {
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final TransactionIdGenerator DEFAULT =
+            new TransactionIdGenerator(Integer.getInteger("bank.node.id", 0));
+
+    private final long nodeBits;
+    // (millis since EPOCH_MILLIS << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public TransactionIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    // Shared generator; its node id comes from -Dbank.node.id (default 0)
+    public static TransactionIdGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long previous = last.get();
+            long next = Math.max(now, previous + 1);
+            if (last.compareAndSet(previous, next)) {
+                return toId(next);
+            }
+        }
+    }
+
+    // Ensures every later id is greater than one issued before a restart (e.g. the
+    // last id found in the journal), even if the clock has moved backwards since
+    public void advancePast(long transactionId) {
+        if ((transactionId & (((1L << NODE_BITS) - 1) << SEQUENCE_BITS)) != nodeBits) {
+            // Issued by another node: the node bits already keep the ids apart
+            return;
+        }
+        long state = ((transactionId >>> (NODE_BITS + SEQUENCE_BITS)) << SEQUENCE_BITS)
+                | (transactionId & SEQUENCE_MASK);
+        last.accumulateAndGet(state, Math::max);
+    }
+
+    private long toId(long state) {
+        return ((state >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (state & SEQUENCE_MASK);
+    }
+
+    public static long timestampOf(long transactionId) {
+        return (transactionId >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static int nodeOf(long transactionId) {
+        return (int) ((transactionId >>> SEQUENCE_BITS) & ((1L << NODE_BITS) - 1));
+    }
+}
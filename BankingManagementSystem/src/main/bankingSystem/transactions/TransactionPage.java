@@ -0,0 +1,26 @@
+package main.bankingSystem.transactions;
+
+import java.util.Collections;
+import java.util.List;
+
+// One page of a transaction history query, newest first. Pass getNextCursor() back
+// to the same query to fetch the next (older) page.
+public class TransactionPage {
+    // Cursor that starts a query at the newest matching transaction
+    public static final int FIRST = Integer.MAX_VALUE;
+
+    private final List<Transaction> transactions;
+    private final int nextCursor;
+    private final boolean hasMore;
+
+    TransactionPage(List<Transaction> transactions, int nextCursor, boolean hasMore) {
+        this.transactions = Collections.unmodifiableList(transactions);
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<Transaction> getTransactions() { return transactions; }
+    public int getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return hasMore; }
+    public boolean isEmpty() { return transactions.isEmpty(); }
+}
@@ -0,0 +1,497 @@
+package main.bankingSystem.transactions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Struct-of-arrays transaction history for one account. A row costs 8 (timestamp)
+// + 8 (amount) + 8 (id) + 1 (type) + 4 (description code) = 29 bytes of primitive
+// arrays instead of a Transaction object graph, plus 4 bytes in the per-type row index;
+// Transaction objects are only created when a reader asks for a row.
+//
+// Timestamps never decrease, so time ranges are found by binary search, and every
+// page query costs O(log n + page size) regardless of history length.
+//
+// With a HistoryArchive attached, only rows from 'base' on stay in the arrays; older
+// rows live in archived segments, located by the segment index below and loaded when a
+// query reaches them. Row numbers, type positions and cursors are the same either way.
+// forEachSegment and restoreSegment let a snapshot keep the segment index rather than
+// the archived rows, so a restored store reads nothing from the archive until asked.
+//
+// Not thread-safe: the owning account guards it with its own lock.
+public class TransactionStore {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    // Row 'base + i' is at index i
+    private long[] timestamps;
+    private long[] amounts;
+    private long[] transactionIds;
+    private byte[] types;
+    private int[] descriptions;
+    private int size;
+    private int base;
+    private long lastTimestamp = Long.MIN_VALUE;
+    // Row numbers of each TransactionType, in row order; position 'typeBases[t] + i' of
+    // type t is at index i, earlier positions are archived
+    private final int[][] rowsByType = new int[TYPES.length][];
+    private final int[] typeCounts = new int[TYPES.length];
+    private final int[] typeBases = new int[TYPES.length];
+
+    private HistoryArchive archive;
+    // Archived segments in row order: first row, first timestamp, position in the
+    // archive and length, and for each type the positions archived before the segment
+    private int segmentCount;
+    private int[] segmentRows;
+    private long[] segmentTimestamps;
+    private long[] segmentOffsets;
+    private int[] segmentLengths;
+    private int[] segmentTypeStarts;
+
+    // Receives rows one at a time without a Transaction being created for each
+    public interface RowVisitor {
+        void visit(TransactionType type, long amount, int descriptionCode, long timestampMillis,
+                   long transactionId);
+    }
+
+    // Receives the archived segments in row order; rowsOfType is only valid during the call
+    public interface SegmentVisitor {
+        void visit(long offset, int length, int rows, long firstTimestamp, int[] rowsOfType);
+    }
+
+    public TransactionStore() {
+        timestamps = new long[INITIAL_CAPACITY];
+        amounts = new long[INITIAL_CAPACITY];
+        transactionIds = new long[INITIAL_CAPACITY];
+        types = new byte[INITIAL_CAPACITY];
+        descriptions = new int[INITIAL_CAPACITY];
+        for (int type = 0; type < TYPES.length; type++) {
+            rowsByType[type] = new int[INITIAL_CAPACITY];
+        }
+    }
+
+    // Returns the row index of the new transaction
+    public int append(TransactionType type, long amount, int descriptionCode,
+                      long timestampMillis, long transactionId) {
+        int index = size - base;
+        if (index == timestamps.length) {
+            grow();
+        }
+        // A restored store learns its newest archived timestamp on the first append
+        if (lastTimestamp == Long.MIN_VALUE && segmentCount > 0 && base == size) {
+            HistorySegment newest = load(segmentCount - 1);
+            lastTimestamp = newest.timestamps[newest.count - 1];
+        }
+        // Keep rows in time order even if the wall clock steps back
+        if (timestampMillis < lastTimestamp) {
+            timestampMillis = lastTimestamp;
+        }
+        lastTimestamp = timestampMillis;
+        int ordinal = type.ordinal();
+        int position = typeCounts[ordinal] - typeBases[ordinal];
+        if (position == rowsByType[ordinal].length) {
+            int[] rows = rowsByType[ordinal];
+            rowsByType[ordinal] = Arrays.copyOf(rows, rows.length + (rows.length >> 1));
+        }
+        rowsByType[ordinal][position] = size;
+        typeCounts[ordinal]++;
+        timestamps[index] = timestampMillis;
+        amounts[index] = amount;
+        transactionIds[index] = transactionId;
+        types[index] = (byte) ordinal;
+        descriptions[index] = descriptionCode;
+        int row = size++;
+        if (archive != null && size - base >= archive.getHotRows() + HistoryArchive.SEGMENT_ROWS) {
+            archiveRows(size - base - archive.getHotRows());
+        }
+        return row;
+    }
+
+    private void grow() {
+        int capacity = timestamps.length + (timestamps.length >> 1);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        transactionIds = Arrays.copyOf(transactionIds, capacity);
+        types = Arrays.copyOf(types, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+    }
+
+    // Moves rows past the archive's limits off heap now and on every later append
+    public void attachArchive(HistoryArchive archive) {
+        if (this.archive == archive) {
+            return;
+        }
+        if (this.archive != null) {
+            throw new IllegalStateException("History is already archived elsewhere");
+        }
+        this.archive = archive;
+        segmentRows = new int[INITIAL_CAPACITY];
+        segmentTimestamps = new long[INITIAL_CAPACITY];
+        segmentOffsets = new long[INITIAL_CAPACITY];
+        segmentLengths = new int[INITIAL_CAPACITY];
+        segmentTypeStarts = new int[INITIAL_CAPACITY * TYPES.length];
+        if (size - base > archive.getHotRows()) {
+            archiveRows(size - base - archive.getHotRows());
+        }
+    }
+
+    // Archives rows older than the archive's hot age, as long as there are enough of
+    // them to fill a reasonable segment; returns the number of rows archived
+    public int archiveOlderThan(long nowMillis) {
+        if (archive == null || archive.getHotAgeMillis() == 0) {
+            return 0;
+        }
+        int old = firstHotRowAtOrAfter(nowMillis - archive.getHotAgeMillis()) - base;
+        return old < HistoryArchive.MIN_SEGMENT_ROWS ? 0 : archiveRows(old);
+    }
+
+    // Rows below this are archived
+    public int getArchivedRowCount() {
+        return base;
+    }
+
+    public void forEachSegment(SegmentVisitor visitor) {
+        int[] rowsOfType = new int[TYPES.length];
+        for (int segment = 0; segment < segmentCount; segment++) {
+            boolean last = segment == segmentCount - 1;
+            for (int type = 0; type < TYPES.length; type++) {
+                int start = segmentTypeStarts[segment * TYPES.length + type];
+                rowsOfType[type] = (last ? typeBases[type] : segmentTypeStarts[(segment + 1) * TYPES.length + type])
+                        - start;
+            }
+            int rows = (last ? base : segmentRows[segment + 1]) - segmentRows[segment];
+            visitor.visit(segmentOffsets[segment], segmentLengths[segment], rows, segmentTimestamps[segment],
+                    rowsOfType);
+        }
+    }
+
+    // Re-attaches a segment written before a restart as the next rows of this store. The
+    // archive must already be attached and no rows may be on heap yet.
+    public void restoreSegment(long offset, int length, int rows, long firstTimestamp, int[] rowsOfType) {
+        if (archive == null || size != base) {
+            throw new IllegalStateException("Segments are restored into an empty store with an archive");
+        }
+        int typed = 0;
+        for (int count : rowsOfType) {
+            typed += count;
+        }
+        if (rows <= 0 || typed != rows
+                || segmentCount > 0 && firstTimestamp < segmentTimestamps[segmentCount - 1]
+                || !archive.contains(offset, length)) {
+            throw new IllegalArgumentException("Segment at " + offset + " does not fit this store");
+        }
+        addSegment(size, firstTimestamp, offset, length, new int[TYPES.length]);
+        for (int type = 0; type < TYPES.length; type++) {
+            typeCounts[type] += rowsOfType[type];
+            typeBases[type] += rowsOfType[type];
+        }
+        size += rows;
+        base += rows;
+    }
+
+    // Writes the oldest 'count' hot rows out in segments, then drops them from the
+    // arrays. A failed write leaves that segment's rows and the rest on heap.
+    private int archiveRows(int count) {
+        int archived = 0;
+        int[] archivedOfType = new int[TYPES.length];
+        byte[] encoded = null;
+        while (archived < count) {
+            int rows = Math.min(count - archived, HistoryArchive.MAX_SEGMENT_ROWS);
+            int[] table = HistorySegment.descriptionTable(descriptions, archived, rows);
+            int needed = HistorySegment.maxEncodedBytes(rows, table);
+            if (encoded == null || encoded.length < needed) {
+                encoded = new byte[needed];
+            }
+            int length = HistorySegment.encode(base + archived, timestamps, amounts, transactionIds, types,
+                    descriptions, archived, rows, table, encoded);
+            long offset = archive.write(encoded, length, rows);
+            if (offset < 0) {
+                break;
+            }
+            addSegment(base + archived, timestamps[archived], offset, length, archivedOfType);
+            for (int index = archived; index < archived + rows; index++) {
+                archivedOfType[types[index]]++;
+            }
+            archived += rows;
+        }
+        if (archived > 0) {
+            dropOldest(archived, archivedOfType);
+        }
+        return archived;
+    }
+
+    private void addSegment(int firstRow, long firstTimestamp, long offset, int length, int[] archivedOfType) {
+        if (segmentCount == segmentRows.length) {
+            int capacity = segmentCount * 2;
+            segmentRows = Arrays.copyOf(segmentRows, capacity);
+            segmentTimestamps = Arrays.copyOf(segmentTimestamps, capacity);
+            segmentOffsets = Arrays.copyOf(segmentOffsets, capacity);
+            segmentLengths = Arrays.copyOf(segmentLengths, capacity);
+            segmentTypeStarts = Arrays.copyOf(segmentTypeStarts, capacity * TYPES.length);
+        }
+        segmentRows[segmentCount] = firstRow;
+        segmentTimestamps[segmentCount] = firstTimestamp;
+        segmentOffsets[segmentCount] = offset;
+        segmentLengths[segmentCount] = length;
+        for (int type = 0; type < TYPES.length; type++) {
+            segmentTypeStarts[segmentCount * TYPES.length + type] = typeBases[type] + archivedOfType[type];
+        }
+        segmentCount++;
+    }
+
+    // Shifts the hot rows down over the first 'rows' of them, shrinking arrays that a
+    // long history had grown far past what is left
+    private void dropOldest(int rows, int[] archivedOfType) {
+        int remaining = size - base - rows;
+        int wanted = Math.max(INITIAL_CAPACITY, remaining + (remaining >> 1));
+        if (timestamps.length > 2 * wanted) {
+            timestamps = Arrays.copyOfRange(timestamps, rows, rows + wanted);
+            amounts = Arrays.copyOfRange(amounts, rows, rows + wanted);
+            transactionIds = Arrays.copyOfRange(transactionIds, rows, rows + wanted);
+            types = Arrays.copyOfRange(types, rows, rows + wanted);
+            descriptions = Arrays.copyOfRange(descriptions, rows, rows + wanted);
+        } else {
+            System.arraycopy(timestamps, rows, timestamps, 0, remaining);
+            System.arraycopy(amounts, rows, amounts, 0, remaining);
+            System.arraycopy(transactionIds, rows, transactionIds, 0, remaining);
+            System.arraycopy(types, rows, types, 0, remaining);
+            System.arraycopy(descriptions, rows, descriptions, 0, remaining);
+        }
+        base += rows;
+        for (int type = 0; type < TYPES.length; type++) {
+            int dropped = archivedOfType[type];
+            int left = typeCounts[type] - typeBases[type] - dropped;
+            int[] positions = rowsByType[type];
+            int wantedPositions = Math.max(INITIAL_CAPACITY, left + (left >> 1));
+            if (positions.length > 2 * wantedPositions) {
+                rowsByType[type] = Arrays.copyOfRange(positions, dropped, dropped + wantedPositions);
+            } else {
+                System.arraycopy(positions, dropped, positions, 0, left);
+            }
+            typeBases[type] += dropped;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getTimestamp(int index) {
+        if (checkIndex(index) >= base) {
+            return timestamps[index - base];
+        }
+        HistorySegment segment = segmentOf(index);
+        return segment.timestamps[index - segment.firstRow];
+    }
+
+    public long getAmount(int index) {
+        if (checkIndex(index) >= base) {
+            return amounts[index - base];
+        }
+        HistorySegment segment = segmentOf(index);
+        return segment.amounts[index - segment.firstRow];
+    }
+
+    public long getTransactionId(int index) {
+        if (checkIndex(index) >= base) {
+            return transactionIds[index - base];
+        }
+        HistorySegment segment = segmentOf(index);
+        return segment.transactionIds[index - segment.firstRow];
+    }
+
+    public TransactionType getType(int index) {
+        if (checkIndex(index) >= base) {
+            return TYPES[types[index - base]];
+        }
+        HistorySegment segment = segmentOf(index);
+        return TYPES[segment.types[index - segment.firstRow]];
+    }
+
+    public int getDescriptionCode(int index) {
+        if (checkIndex(index) >= base) {
+            return descriptions[index - base];
+        }
+        HistorySegment segment = segmentOf(index);
+        return segment.descriptions[index - segment.firstRow];
+    }
+
+    // Materializes a read-only view of one row
+    public Transaction get(int index) {
+        if (checkIndex(index) >= base) {
+            int i = index - base;
+            return new Transaction(TYPES[types[i]], amounts[i], descriptions[i], timestamps[i], transactionIds[i]);
+        }
+        HistorySegment segment = segmentOf(index);
+        return segment.get(index - segment.firstRow);
+    }
+
+    // Newest rows first, starting below cursor (a row number, or TransactionPage.FIRST)
+    public TransactionPage latest(int cursor, int limit) {
+        return pageOfRows(0, Math.min(cursor, size), limit);
+    }
+
+    // Rows with from <= timestamp < to, newest first
+    public TransactionPage between(long fromMillis, long toMillis, int cursor, int limit) {
+        int lower = firstRowAtOrAfter(fromMillis);
+        int upper = Math.min(cursor, firstRowAtOrAfter(toMillis));
+        return pageOfRows(lower, upper, limit);
+    }
+
+    // Rows of one type, newest first; the cursor is a position in that type's row index
+    public TransactionPage ofType(TransactionType type, int cursor, int limit) {
+        int ordinal = type.ordinal();
+        int[] rows = rowsByType[ordinal];
+        int typeBase = typeBases[ordinal];
+        int upper = Math.min(cursor, typeCounts[ordinal]);
+        int lower = Math.max(0, upper - checkLimit(limit));
+        List<Transaction> page = new ArrayList<>(Math.max(0, upper - lower));
+        int position = upper - 1;
+        for (; position >= lower && position >= typeBase; position--) {
+            page.add(get(rows[position - typeBase]));
+        }
+        // Older positions are archived: find the segment holding the newest of them and
+        // walk its rows backwards, continuing into earlier segments
+        if (position >= lower) {
+            int segment = segmentOfTypePosition(ordinal, position);
+            HistorySegment rowsOf = load(segment);
+            int index = rowsOf.indexOfType(ordinal, position - segmentTypeStarts[segment * TYPES.length + ordinal]);
+            while (position >= lower) {
+                if (index < 0) {
+                    rowsOf = load(--segment);
+                    index = rowsOf.count - 1;
+                }
+                if (rowsOf.types[index] == ordinal) {
+                    page.add(rowsOf.get(index));
+                    position--;
+                }
+                index--;
+            }
+        }
+        return new TransactionPage(page, lower, lower > 0);
+    }
+
+    // Rows fromRow <= row < toRow (clamped to the store), oldest first; returns the row
+    // after the last one visited
+    public int forEach(int fromRow, int toRow, RowVisitor visitor) {
+        int end = Math.min(toRow, size);
+        int row = Math.max(0, fromRow);
+        while (row < Math.min(end, base)) {
+            HistorySegment segment = segmentOf(row);
+            int last = Math.min(end, segment.firstRow + segment.count);
+            for (; row < last; row++) {
+                int i = row - segment.firstRow;
+                visitor.visit(TYPES[segment.types[i]], segment.amounts[i], segment.descriptions[i],
+                        segment.timestamps[i], segment.transactionIds[i]);
+            }
+        }
+        for (; row < end; row++) {
+            int i = row - base;
+            visitor.visit(TYPES[types[i]], amounts[i], descriptions[i], timestamps[i], transactionIds[i]);
+        }
+        return row;
+    }
+
+    private TransactionPage pageOfRows(int lower, int upper, int limit) {
+        upper = Math.max(lower, upper);
+        int start = Math.max(lower, upper - checkLimit(limit));
+        List<Transaction> page = new ArrayList<>(Math.max(0, upper - start));
+        for (int row = upper - 1; row >= start; row--) {
+            page.add(get(row));
+        }
+        return new TransactionPage(page, start, start > lower);
+    }
+
+    // Row number of the first transaction at or after the time, or size() if none
+    public int firstRowAtOrAfter(long timestampMillis) {
+        if (base == 0 || base < size && timestamps[0] < timestampMillis) {
+            return firstHotRowAtOrAfter(timestampMillis);
+        }
+        // In the archived rows, or the first hot row: the segment before the first
+        // segment starting at or after the time holds it unless that segment ends earlier
+        int low = 0;
+        int high = segmentCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (segmentTimestamps[mid] < timestampMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low > 0) {
+            HistorySegment segment = load(low - 1);
+            int index = segment.firstAtOrAfter(timestampMillis);
+            if (index < segment.count) {
+                return segment.firstRow + index;
+            }
+        }
+        return low < segmentCount ? segmentRows[low] : base;
+    }
+
+    private int firstHotRowAtOrAfter(long timestampMillis) {
+        int low = 0;
+        int high = size - base;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestampMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return base + low;
+    }
+
+    // Decoded segment holding an archived row
+    private HistorySegment segmentOf(int row) {
+        int low = 0;
+        int high = segmentCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segmentRows[mid] <= row) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return load(low);
+    }
+
+    // Last segment whose archived positions of the type start at or before 'position'
+    private int segmentOfTypePosition(int ordinal, int position) {
+        int low = 0;
+        int high = segmentCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segmentTypeStarts[mid * TYPES.length + ordinal] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private HistorySegment load(int segment) {
+        return archive.load(segmentOffsets[segment], segmentLengths[segment]);
+    }
+
+    private static int checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return limit;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Transaction " + index + " of " + size);
+        }
+        return index;
+    }
+}
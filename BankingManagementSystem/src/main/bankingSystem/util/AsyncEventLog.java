@@ -0,0 +1,118 @@
+package main.bankingSystem.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Multi-producer, single-consumer ring buffer drained by a background thread, so that
+// whoever publishes an event never waits for the console or a file.
+//
+// Producers claim a slot with a CAS on the claim counter and then fill it; the drainer
+// takes slots in order, waiting for a claimed slot to be filled, and empties each one
+// before moving on. Nothing ever blocks a producer: when the buffer is full the event
+// is dropped and counted instead.
+public class AsyncEventLog<E> implements AutoCloseable {
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final Consumer<E> consumer;
+    private final Thread drainer;
+    private volatile long consumed;
+    private volatile boolean running = true;
+
+    // Capacity is rounded up to a power of two
+    public AsyncEventLog(int capacity, Consumer<E> consumer) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity out of range: " + capacity);
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.consumer = consumer;
+        this.drainer = new Thread(this::drain, "event-log");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    // Returns false if the event was dropped because the buffer is full or closed
+    public boolean publish(E event) {
+        if (event == null) {
+            throw new NullPointerException("event");
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (!running || sequence - consumed >= slots.length()) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        slots.lazySet((int) sequence & mask, event);
+        return true;
+    }
+
+    // Waits until everything published before this call has been handed to the consumer
+    public void awaitDrained() {
+        long target = claimed.get();
+        while (consumed < target && drainer.isAlive()) {
+            LockSupport.unpark(drainer);
+            Thread.yield();
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    // Stops accepting events, delivers the ones already published and stops the drainer.
+    // Events published while close() is running may be dropped.
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        long next = 0;
+        int idle = 0;
+        while (true) {
+            int slot = (int) next & mask;
+            E event = slots.get(slot);
+            if (event == null) {
+                if (!running && claimed.get() == next) {
+                    return;
+                }
+                // A claimed slot is filled within moments; otherwise back off gradually
+                if (++idle < 100) {
+                    Thread.onSpinWait();
+                } else if (idle < 200) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                continue;
+            }
+            idle = 0;
+            slots.lazySet(slot, null);
+            try {
+                consumer.accept(event);
+            } catch (RuntimeException e) {
+                // A failing consumer must not stop the log
+            }
+            consumed = ++next;
+        }
+    }
+}
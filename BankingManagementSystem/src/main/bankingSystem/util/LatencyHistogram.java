@@ -0,0 +1,112 @@
+package main.bankingSystem.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size log-linear histogram of nanosecond latencies, laid out the way HDR
+// histograms are: values below 256 get one bucket each, and every power of two above
+// that is split into 128 linear sub-buckets. Any recorded value is reported within
+// 1/128 (< 0.8%) of its true value, from 1 ns up to an hour, in about 37 KB.
+//
+// record() is one array increment plus a few atomic updates: it never allocates or
+// locks, so many threads can record into one histogram at once.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_BITS = SUB_BUCKET_BITS - 1;
+    public static final long MAX_VALUE = 3_600_000_000_000L; // one hour in nanoseconds
+
+    private final AtomicLongArray counts = new AtomicLongArray(indexOf(MAX_VALUE) + 1);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    // Values above MAX_VALUE are recorded as MAX_VALUE, negative values as 0
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(value);
+        long max = maxValue.get();
+        while (value > max && !maxValue.compareAndSet(max, value)) {
+            max = maxValue.get();
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) totalNanos.get() / count;
+    }
+
+    // Smallest recorded value v such that 'percentile' % of values are <= v, reported
+    // as the top of its bucket. 0 for an empty histogram.
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+        long seen = 0;
+        for (int index = 0; index < counts.length(); index++) {
+            seen += counts.get(index);
+            if (seen >= target) {
+                return Math.min(highestEquivalent(index), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    // Adds every value recorded in 'other' to this histogram
+    public void add(LatencyHistogram other) {
+        for (int index = 0; index < counts.length(); index++) {
+            long count = other.counts.get(index);
+            if (count != 0) {
+                counts.addAndGet(index, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalNanos.addAndGet(other.totalNanos.get());
+        long max = maxValue.get();
+        long otherMax = other.maxValue.get();
+        while (otherMax > max && !maxValue.compareAndSet(max, otherMax)) {
+            max = maxValue.get();
+        }
+    }
+
+    // Not atomic with respect to concurrent record() calls; a value recorded meanwhile
+    // may be partly kept
+    public void reset() {
+        for (int index = 0; index < counts.length(); index++) {
+            counts.set(index, 0);
+        }
+        totalCount.set(0);
+        totalNanos.set(0);
+        maxValue.set(0);
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // Keep the top SUB_BUCKET_BITS bits: value >>> shift lands in [128, 255]
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << HALF_BITS) + (int) (value >>> shift);
+    }
+
+    private static long highestEquivalent(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >> HALF_BITS) - 1;
+        long lowest = (long) (index - (shift << HALF_BITS)) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
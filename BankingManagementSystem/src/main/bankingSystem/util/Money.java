@@ -0,0 +1,95 @@
+package main.bankingSystem.util;
+
+// Fixed-point money helpers. Every amount in the system is a long number of paise
+// (1 rupee = 100 paise), so sums are exact and arithmetic never allocates.
+public final class Money {
+    public static final long PAISE_PER_RUPEE = 100;
+    private static final int BASIS_POINTS = 10_000;
+    private static final int DAYS_PER_YEAR = 365;
+
+    private Money() {
+    }
+
+    public static long ofRupees(long rupees) {
+        return Math.multiplyExact(rupees, PAISE_PER_RUPEE);
+    }
+
+    // Parses user input such as "1500", "1500.5" or "1500.75" into paise
+    public static long parse(String text) {
+        String value = text.trim();
+        if (value.isEmpty()) {
+            throw new NumberFormatException("Empty amount");
+        }
+        boolean negative = value.charAt(0) == '-';
+        int start = negative || value.charAt(0) == '+' ? 1 : 0;
+        int dot = value.indexOf('.');
+        int end = dot < 0 ? value.length() : dot;
+        if (start == end && (dot < 0 || dot == value.length() - 1)) {
+            throw new NumberFormatException("Invalid amount: " + text);
+        }
+
+        long rupees = 0;
+        for (int i = start; i < end; i++) {
+            rupees = Math.addExact(Math.multiplyExact(rupees, 10), digit(value, i, text));
+        }
+        long paise = 0;
+        if (dot >= 0) {
+            int fractionDigits = value.length() - dot - 1;
+            if (fractionDigits > 2) {
+                throw new NumberFormatException("At most two decimal places allowed: " + text);
+            }
+            for (int i = dot + 1; i < value.length(); i++) {
+                paise = paise * 10 + digit(value, i, text);
+            }
+            if (fractionDigits == 1) {
+                paise *= 10;
+            }
+        }
+        long total = Math.addExact(Math.multiplyExact(rupees, PAISE_PER_RUPEE), paise);
+        return negative ? -total : total;
+    }
+
+    private static int digit(String value, int index, String original) {
+        char c = value.charAt(index);
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Invalid amount: " + original);
+        }
+        return c - '0';
+    }
+
+    // Renders paise as rupees with two decimals, e.g. 150075 -> "1500.75"
+    public static String format(long paise) {
+        return appendTo(new StringBuilder(24), paise).toString();
+    }
+
+    public static StringBuilder appendTo(StringBuilder out, long paise) {
+        if (paise < 0) {
+            out.append('-');
+        }
+        // Work on the negated value so Long.MIN_VALUE does not overflow
+        long negated = paise < 0 ? paise : -paise;
+        long rupees = -(negated / PAISE_PER_RUPEE);
+        int fraction = (int) -(negated % PAISE_PER_RUPEE);
+        out.append(rupees).append('.');
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+
+    // Applies a rate expressed in basis points (1% = 100 bps), rounding half away from zero
+    public static long percentOf(long paise, int basisPoints) {
+        long product = Math.multiplyExact(paise, basisPoints);
+        long half = product < 0 ? -BASIS_POINTS / 2 : BASIS_POINTS / 2;
+        return (product + half) / BASIS_POINTS;
+    }
+
+    // Simple interest for 'days' days at an annual rate in basis points, on a 365-day
+    // year, rounding half away from zero
+    public static long interestFor(long paise, int basisPoints, long days) {
+        long product = Math.multiplyExact(Math.multiplyExact(paise, basisPoints), days);
+        long divisor = (long) BASIS_POINTS * DAYS_PER_YEAR;
+        long half = product < 0 ? -divisor / 2 : divisor / 2;
+        return (product + half) / divisor;
+    }
+}